@@ -1,13 +1,27 @@
 package com.cyd.catalogservice;
 
+import com.cyd.catalogservice.trace.TraceRestTemplateInterceptor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
+@EnableScheduling  // 开启定时任务（选课人数对账）
 public class CatalogServiceApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(CatalogServiceApplication.class, args);
     }
 
+    // 注册RestTemplate Bean，用于调用enrollment-service（携带追踪ID）
+    @Bean
+    public RestTemplate restTemplate(TraceRestTemplateInterceptor traceInterceptor) {
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+        restTemplate.getInterceptors().add(traceInterceptor);
+        return restTemplate;
+    }
+
 }
@@ -0,0 +1,15 @@
+package com.cyd.catalogservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 对账用课程计数视图：只查询 id、enrolled 与座位分片数（热门课程不为空，其 enrolled 为分片汇总值）
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseCountDTO {
+    private String id;
+    private Integer enrolled;
+    private Integer seatStripes;
+}
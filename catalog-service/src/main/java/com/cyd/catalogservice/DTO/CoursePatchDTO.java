@@ -0,0 +1,27 @@
+package com.cyd.catalogservice.DTO;
+
+import com.cyd.catalogservice.model.Instructor;
+import com.cyd.catalogservice.model.ScheduleSlot;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+// 课程局部更新（PATCH）请求体：字段为 null 表示不修改；课程代码不可修改，故不包含 code
+@Data
+public class CoursePatchDTO {
+    private String title;
+
+    // 讲师/排课信息若提供，需整体合法（嵌套验证）
+    @Valid
+    private Instructor instructor;
+
+    @Valid
+    private ScheduleSlot schedule;
+
+    @Positive(message = "Course capacity must be positive")
+    private Integer capacity;
+
+    @PositiveOrZero(message = "Enrolled count cannot be negative")
+    private Integer enrolled;
+}
@@ -0,0 +1,25 @@
+package com.cyd.catalogservice.DTO;
+
+import com.cyd.catalogservice.model.ScheduleSlot;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 课程快照视图（JPQL 构造器投影）：enrollment-service 启动预热本地课程缓存时批量拉取，
+// 只查询 id/code/title/容量/已选人数/排课时间，不加载讲师等其他列
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSnapshotDTO {
+    private String id;
+    private String code;
+    private String title;
+    private Integer capacity;
+    private Integer enrolled;
+    private ScheduleSlot schedule;
+
+    public CourseSnapshotDTO(String id, String code, String title, Integer capacity, Integer enrolled,
+                             String dayOfWeek, String startTime, String endTime) {
+        this(id, code, title, capacity, enrolled, new ScheduleSlot(dayOfWeek, startTime, endTime, null));
+    }
+}
@@ -0,0 +1,54 @@
+package com.cyd.catalogservice.DTO;
+
+import com.cyd.catalogservice.model.Instructor;
+import com.cyd.catalogservice.model.ScheduleSlot;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 讲师授课课程视图（JPQL 构造器投影）：按 instructor_id 索引读取讲师的课程，
+// 每门课程每周一个排课时段，weeklyMinutes 为该时段的分钟数
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstructorCourseDTO {
+    private String id;
+    private String code;
+    private String title;
+    // 同一讲师的各门课程相同，只在 TeachingLoadDTO 中返回一次
+    @JsonIgnore
+    private Instructor instructor;
+    private ScheduleSlot schedule;
+    private Integer capacity;
+    private Integer enrolled;
+    private int weeklyMinutes;
+
+    public InstructorCourseDTO(String id, String code, String title,
+                               String instructorId, String instructorName, String instructorEmail,
+                               String dayOfWeek, String startTime, String endTime, Integer capacity, Integer enrolled) {
+        this(id, code, title, new Instructor(instructorId, instructorName, instructorEmail),
+                new ScheduleSlot(dayOfWeek, startTime, endTime, null), capacity, enrolled,
+                minutesBetween(startTime, endTime));
+    }
+
+    // 排课时间为 HH:mm 字符串；格式异常或结束不晚于开始时按 0 分钟计
+    static int minutesBetween(String startTime, String endTime) {
+        int start = minuteOfDay(startTime);
+        int end = minuteOfDay(endTime);
+        return start < 0 || end < 0 ? 0 : Math.max(0, end - start);
+    }
+
+    private static int minuteOfDay(String time) {
+        if (time == null) {
+            return -1;
+        }
+        int colon = time.indexOf(':');
+        try {
+            return colon < 0 ? -1
+                    : Integer.parseInt(time.substring(0, colon).trim()) * 60 + Integer.parseInt(time.substring(colon + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.cyd.catalogservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 一次对账的结果：扫描课程数、存在漂移的课程数、修正数、CAS 未命中数（期间被并发修改）、
+// 暂缓数（首次观察到的漂移，下一轮仍相同才修正）、漂移人数合计与耗时
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconcileReportDTO {
+    private long scanned;
+    private long drifted;
+    private long fixed;
+    private long casMisses;
+    private long deferred;
+    private long seatDrift;
+    private long durationMillis;
+}
@@ -0,0 +1,35 @@
+package com.cyd.catalogservice.DTO;
+
+import com.cyd.catalogservice.model.Instructor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 讲师授课负载：讲师信息、课程列表（按星期与开始时间排序）及每周授课分钟数、容量与已选人数汇总
+// 热门课程的已选人数取课程表上的汇总值（由再平衡任务定期写回，可能略有滞后）
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TeachingLoadDTO {
+    private Instructor instructor;
+    private int courseCount;
+    private int weeklyMinutes;
+    private int totalCapacity;
+    private int totalEnrolled;
+    private List<InstructorCourseDTO> courses;
+
+    public static TeachingLoadDTO of(List<InstructorCourseDTO> courses) {
+        int minutes = 0;
+        int capacity = 0;
+        int enrolled = 0;
+        for (InstructorCourseDTO course : courses) {
+            minutes += course.getWeeklyMinutes();
+            capacity += course.getCapacity() == null ? 0 : course.getCapacity();
+            enrolled += course.getEnrolled() == null ? 0 : course.getEnrolled();
+        }
+        return new TeachingLoadDTO(courses.get(0).getInstructor(), courses.size(), minutes, capacity, enrolled,
+                List.copyOf(courses));
+    }
+}
@@ -0,0 +1,52 @@
+package com.cyd.catalogservice.client;
+
+import com.cyd.catalogservice.Response.Result;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+// enrollment-service 调用客户端（服务间调用优先协商 CBOR）
+@Component
+public class EnrollmentClient {
+    private static final List<MediaType> ACCEPT_TYPES = List.of(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON);
+
+    private static final ParameterizedTypeReference<Result<Map<String, Long>>> COUNT_RESULT =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${enrollment-service.url}")
+    private String enrollmentServiceUrl;
+
+    // 1. 批量查询课程活跃人数：结果中不存在的课程表示没有活跃选课记录
+    public Map<String, Long> countActive(List<String> courseIds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(ACCEPT_TYPES);
+        headers.setContentType(MediaType.APPLICATION_CBOR);
+        try {
+            Result<Map<String, Long>> result = restTemplate.exchange(
+                    enrollmentServiceUrl + "/api/enrollments/active-counts",
+                    HttpMethod.POST,
+                    new HttpEntity<>(courseIds, headers),
+                    COUNT_RESULT
+            ).getBody();
+            if (result == null || result.getData() == null) {
+                throw new RuntimeException("Empty response from enrollment-service");
+            }
+            return result.getData();
+        } catch (RestClientException e) {
+            throw new RuntimeException("Failed to call enrollment-service: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.cyd.catalogservice.compression;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+// gzip 请求体解压：对后续处理隐藏 Content-Encoding / Content-Length，读取时边读边解压；
+// 解压后超过上限时抛出 IOException（Spring 转为 400），防止压缩炸弹
+class GzipRequestWrapper extends HttpServletRequestWrapper {
+    private final long maxSize;
+    private ServletInputStream stream;
+    private BufferedReader reader;
+
+    GzipRequestWrapper(HttpServletRequest request, long maxSize) {
+        super(request);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (reader != null) {
+            throw new IllegalStateException("getReader() has already been called for this request");
+        }
+        return body();
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getInputStream() has already been called for this request");
+            }
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            reader = new BufferedReader(new InputStreamReader(body(), charset));
+        }
+        return reader;
+    }
+
+    @Override
+    public int getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return -1;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return hidden(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return hidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        return hidden(name) ? -1 : super.getIntHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        List<String> names = Collections.list(super.getHeaderNames());
+        names.removeIf(GzipRequestWrapper::hidden);
+        return Collections.enumeration(names);
+    }
+
+    private ServletInputStream body() throws IOException {
+        if (stream == null) {
+            stream = new BoundedStream(new GZIPInputStream(super.getInputStream(), 8192), maxSize);
+        }
+        return stream;
+    }
+
+    private static boolean hidden(String name) {
+        return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+    }
+
+    private static class BoundedStream extends ServletInputStream {
+        private final InputStream in;
+        private final long maxSize;
+        private long read;
+        private boolean finished;
+
+        BoundedStream(InputStream in, long maxSize) {
+            this.in = in;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b < 0) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n < 0) {
+                finished = true;
+            } else {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws IOException {
+            read += n;
+            if (read > maxSize) {
+                throw new IOException("Decompressed request body exceeds " + maxSize + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            throw new UnsupportedOperationException("Non-blocking reads are not supported for gzip request bodies");
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.cyd.catalogservice.compression;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.function.Predicate;
+import java.util.zip.GZIPOutputStream;
+
+// 延迟决定是否压缩的响应包装：先缓冲响应体，达到阈值时按内容类型与状态码决定——可压缩则加 Content-Encoding: gzip
+// 并改为流式写入 GZIPOutputStream（大列表不会整体缓冲在内存中），否则原样透传；
+// 请求结束时仍未达到阈值的响应原样写出并补上 Content-Length
+// 应用设置的 Content-Length 一律忽略（压缩后长度不同），由本包装按实际写出的内容决定
+class GzipResponseWrapper extends HttpServletResponseWrapper {
+    private final int threshold;
+    private final int level;
+    private final Predicate<String> compressible;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final BodyStream stream = new BodyStream();
+    private PrintWriter writer;
+    private boolean streamUsed;
+    // 已决定时为写出目标：GZIPOutputStream 或原始输出流
+    private OutputStream target;
+    private GZIPOutputStream gzip;
+    // sendError/sendRedirect 之后由容器写响应，不再写出缓冲内容
+    private boolean bypass;
+    private boolean finished;
+
+    GzipResponseWrapper(HttpServletResponse response, int threshold, int level, Predicate<String> compressible) {
+        super(response);
+        this.threshold = threshold;
+        this.level = level;
+        this.compressible = compressible;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        streamUsed = true;
+        return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (streamUsed) {
+            throw new IllegalStateException("getOutputStream() has already been called for this response");
+        }
+        if (writer == null) {
+            writer = new PrintWriter(new OutputStreamWriter(stream, Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        bypass = true;
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        bypass = true;
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        bypass = true;
+        super.sendRedirect(location);
+    }
+
+    // 未决定前只刷新到本地缓冲，避免提交响应头后无法再加 Content-Encoding
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (target != null) {
+            target.flush();
+            super.flushBuffer();
+        }
+    }
+
+    // 异常处理前清空已写内容：未决定时清空缓冲；正在压缩时重新开始一个 gzip 流（Content-Encoding 保持不变）
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        discardWriter();
+        if (target == null) {
+            buffer.reset();
+        } else if (gzip != null) {
+            try {
+                gzip = newGzip();
+                target = gzip;
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to restart gzip stream", e);
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        discardWriter();
+        buffer.reset();
+        target = null;
+        gzip = null;
+    }
+
+    // 请求处理完成后由过滤器调用：写出缓冲内容或结束 gzip 流
+    void finish() throws IOException {
+        if (finished || bypass) {
+            return;
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+        finished = true;
+        if (target == null) {
+            if (buffer.size() > 0) {
+                HttpServletResponse response = (HttpServletResponse) getResponse();
+                response.setContentLength(buffer.size());
+                buffer.writeTo(response.getOutputStream());
+            }
+        } else if (gzip != null) {
+            gzip.finish();
+        }
+    }
+
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        if (bypass || finished) {
+            return;
+        }
+        if (target != null) {
+            target.write(bytes, offset, length);
+            return;
+        }
+        buffer.write(bytes, offset, length);
+        if (buffer.size() >= threshold) {
+            decide();
+        }
+    }
+
+    private void decide() throws IOException {
+        HttpServletResponse response = (HttpServletResponse) getResponse();
+        int status = getStatus();
+        boolean noBody = status == HttpServletResponse.SC_NO_CONTENT || status == HttpServletResponse.SC_NOT_MODIFIED
+                || status == HttpServletResponse.SC_PARTIAL_CONTENT;
+        if (!noBody && response.getHeader(HttpHeaders.CONTENT_ENCODING) == null && compressible.test(getContentType())) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            gzip = newGzip();
+            target = gzip;
+        } else {
+            target = response.getOutputStream();
+        }
+        buffer.writeTo(target);
+        buffer.reset();
+    }
+
+    private GZIPOutputStream newGzip() throws IOException {
+        return new GZIPOutputStream(getResponse().getOutputStream(), 8192) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    private void discardWriter() {
+        if (writer != null) {
+            writer = new PrintWriter(new OutputStreamWriter(stream, Charset.forName(getCharacterEncoding())));
+        }
+    }
+
+    private class BodyStream extends ServletOutputStream {
+        @Override
+        public void write(int b) throws IOException {
+            GzipResponseWrapper.this.write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            GzipResponseWrapper.this.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target != null && !bypass) {
+                target.flush();
+            }
+        }
+
+        // 应用主动关闭输出流视为响应结束
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            throw new UnsupportedOperationException("Non-blocking writes are not supported by the compression filter");
+        }
+    }
+}
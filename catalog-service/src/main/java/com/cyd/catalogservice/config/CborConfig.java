@@ -0,0 +1,17 @@
+package com.cyd.catalogservice.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+@Configuration
+public class CborConfig {
+    // 服务间调用的二进制内容协商：请求头 Accept/Content-Type 为 application/cbor 时使用 CBOR 编解码
+    // 复用 Spring Boot 的 Jackson 配置（日期格式、模块等），保证与 JSON 输出的字段一致
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
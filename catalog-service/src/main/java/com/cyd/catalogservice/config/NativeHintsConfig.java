@@ -0,0 +1,38 @@
+package com.cyd.catalogservice.config;
+
+import com.cyd.catalogservice.DTO.CourseCountDTO;
+import com.cyd.catalogservice.DTO.CourseSnapshotDTO;
+import com.cyd.catalogservice.DTO.CourseSummaryDTO;
+import com.cyd.catalogservice.DTO.InstructorCourseDTO;
+import com.cyd.catalogservice.Response.Result;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+// 原生镜像反射提示：Spring AOT 能自动发现控制器的请求/响应类型，
+// 但发现不了 JPQL 构造器表达式（SELECT new ...）中的 DTO 和 RestTemplate 反序列化的响应类型
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.DataSourceProxyHints.class)
+@RegisterReflectionForBinding({CourseSummaryDTO.class, CourseCountDTO.class, CourseSnapshotDTO.class,
+        InstructorCourseDTO.class, Result.class})
+public class NativeHintsConfig {
+
+    // datasource-proxy（请求追踪）用 JDK 动态代理包装连接与语句，原生镜像需预先注册代理接口组合
+    static class DataSourceProxyHints implements RuntimeHintsRegistrar {
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, Connection.class);
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, Statement.class);
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, PreparedStatement.class);
+            hints.proxies().registerJdkProxy(ProxyJdbcObject.class, CallableStatement.class);
+        }
+    }
+}
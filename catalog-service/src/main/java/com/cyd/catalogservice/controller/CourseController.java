@@ -1,10 +1,16 @@
 package com.cyd.catalogservice.controller;
 
 
+import com.cyd.catalogservice.DTO.CoursePatchDTO;
+import com.cyd.catalogservice.DTO.CourseSnapshotDTO;
+import com.cyd.catalogservice.DTO.CourseSummaryDTO;
 import com.cyd.catalogservice.DTO.PageQueryDTO;
+import com.cyd.catalogservice.DTO.ReconcileReportDTO;
 import com.cyd.catalogservice.Response.Result;
 import com.cyd.catalogservice.model.Course;
+import com.cyd.catalogservice.service.CourseSeatService;
 import com.cyd.catalogservice.service.CourseService;
+import com.cyd.catalogservice.service.EnrollmentReconciler;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -13,6 +19,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/courses")  // 基础URL：/api/courses
@@ -20,15 +27,55 @@ import java.util.List;
 public class CourseController {
     @Autowired
     private CourseService courseService;
-    // 分页查询
+
+    @Autowired
+    private EnrollmentReconciler enrollmentReconciler;
+
+    @Autowired
+    private CourseSeatService seatService;
+    // 分页查询（fields=code,title 或 fields=summary 时只返回精简视图）
     @GetMapping("/page")
-    public ResponseEntity<Result<List<Course>>> getCoursesByPage(PageQueryDTO pageQuery) {
+    public ResponseEntity<Result<List<?>>> getCoursesByPage(
+            PageQueryDTO pageQuery,
+            @RequestParam(required = false) String fields) {
+        if (CourseSummaryDTO.covers(fields)) {
+            return ResponseEntity.ok(Result.success(courseService.getCourseSummariesByPage(pageQuery)));
+        }
         List<Course> courses = courseService.getCoursesByPage(pageQuery);
         return ResponseEntity.ok(Result.success(courses));
     }
-    // 1. 查询所有课程（GET /api/courses）
+    // 课程快照 keyset 分页（GET /api/courses/snapshot?afterId=&limit=500），供 enrollment-service 启动预热课程缓存
+    @GetMapping("/snapshot")
+    public ResponseEntity<Result<List<CourseSnapshotDTO>>> getCourseSnapshots(
+            @RequestParam(defaultValue = "") String afterId,
+            @RequestParam(defaultValue = "500") int limit) {
+        try {
+            return ResponseEntity.ok(Result.success(courseService.getCourseSnapshotsAfter(afterId, limit)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+    // 查询有空位的课程（GET /api/courses/available?dayOfWeek=TUESDAY&from=08:00&to=12:00&minSeats=1）
+    @GetMapping("/available")
+    public ResponseEntity<Result<List<Course>>> getAvailableCourses(
+            @RequestParam String dayOfWeek,
+            @RequestParam(defaultValue = "00:00") String from,
+            @RequestParam(defaultValue = "24:00") String to,
+            @RequestParam(defaultValue = "1") int minSeats,
+            PageQueryDTO pageQuery) {
+        try {
+            List<Course> courses = courseService.findAvailableCourses(dayOfWeek, from, to, minSeats, pageQuery);
+            return ResponseEntity.ok(Result.success(courses));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+    // 1. 查询所有课程（GET /api/courses，支持 fields 选择器）
     @GetMapping
-    public Result<List<Course>> getAllCourses() {
+    public Result<List<?>> getAllCourses(@RequestParam(required = false) String fields) {
+        if (CourseSummaryDTO.covers(fields)) {
+            return Result.success(courseService.findAllCourseSummaries());
+        }
         List<Course> courses = courseService.findAllCourses();
         return Result.success(courses);
     }
@@ -79,6 +126,97 @@ public class CourseController {
     }
 
 
+    // 4-1. 局部更新课程（PATCH /api/courses/{id}）：仅传需要修改的字段，如 {"enrolled": 10}
+    @PatchMapping("/{id}")
+    public ResponseEntity<Result<Course>> patchCourse(
+            @PathVariable String id,
+            @Valid @RequestBody CoursePatchDTO patch) {
+        try {
+            Course patchedCourse = courseService.patchCourse(id, patch);
+            return new ResponseEntity<>(Result.success(patchedCourse), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+
+    // 4-2. 批量相对调整已选人数（POST /api/courses/enrolled/adjustments，请求体如 {"courseId": -1}）
+    // 返回未能调整的课程ID列表（课程不存在或调整后越界）
+    @PostMapping("/enrolled/adjustments")
+    public Result<List<String>> adjustEnrolledCounts(@RequestBody Map<String, Integer> deltas) {
+        return Result.success(courseService.adjustEnrolledCounts(deltas));
+    }
+
+    // 4-3. 占座（POST /api/courses/{id}/seats/reserve?count=1），名额不足返回 409
+    @PostMapping("/{id}/seats/reserve")
+    public ResponseEntity<Result<Void>> reserveSeats(@PathVariable String id,
+                                                     @RequestParam(defaultValue = "1") int count) {
+        try {
+            if (!seatService.reserve(id, count)) {
+                return new ResponseEntity<>(Result.error(409, "Course capacity exceeded: " + id), HttpStatus.CONFLICT);
+            }
+            return ResponseEntity.ok(Result.success());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // 4-3-1. 多门课程一次占座（POST /api/courses/seats/reserve-batch，请求体如 {"courseId": 1}）
+    // 全部成功或全部不占：返回未能占座的课程ID（名额不足或课程不存在），为空表示全部占座成功
+    @PostMapping("/seats/reserve-batch")
+    public ResponseEntity<Result<List<String>>> reserveSeatsBatch(@RequestBody Map<String, Integer> counts) {
+        try {
+            return ResponseEntity.ok(Result.success(seatService.reserveAll(counts)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // 4-4. 释放名额（POST /api/courses/{id}/seats/release?count=1），已选人数不足返回 409
+    @PostMapping("/{id}/seats/release")
+    public ResponseEntity<Result<Void>> releaseSeats(@PathVariable String id,
+                                                     @RequestParam(defaultValue = "1") int count) {
+        try {
+            if (!seatService.release(id, count)) {
+                return new ResponseEntity<>(Result.error(409, "Not enough enrolled seats to release: " + id), HttpStatus.CONFLICT);
+            }
+            return ResponseEntity.ok(Result.success());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // 4-5. 标记热门课程（PUT /api/courses/{id}/hot?stripes=8）：占座分散到多个座位分片
+    @PutMapping("/{id}/hot")
+    public ResponseEntity<Result<Course>> markHot(@PathVariable String id,
+                                                  @RequestParam(required = false) Integer stripes) {
+        try {
+            return ResponseEntity.ok(Result.success(seatService.markHot(id, stripes)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // 4-6. 取消热门课程（DELETE /api/courses/{id}/hot）：分片人数汇总回课程
+    @DeleteMapping("/{id}/hot")
+    public ResponseEntity<Result<Course>> unmarkHot(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(Result.success(seatService.unmarkHot(id)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
     // 5. 删除课程（DELETE /api/courses/{id}）
     @DeleteMapping("/{id}")
     public ResponseEntity<Result<Void>> deleteCourse(@PathVariable String id) {
@@ -89,6 +227,18 @@ public class CourseController {
             return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
         }
     }
+    // 6. 手动触发选课人数对账（POST /api/courses/reconcile），返回本轮对账结果
+    @PostMapping("/reconcile")
+    public ResponseEntity<Result<ReconcileReportDTO>> reconcileEnrolledCounts() {
+        try {
+            return ResponseEntity.ok(Result.success(enrollmentReconciler.reconcile()));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(409, e.getMessage()), HttpStatus.CONFLICT);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(502, e.getMessage()), HttpStatus.BAD_GATEWAY);
+        }
+    }
+
     // 全局参数验证异常处理（如字段为空、格式错误）
     @ExceptionHandler(jakarta.validation.ConstraintViolationException.class)
     public Result<Void> handleValidationException(jakarta.validation.ConstraintViolationException e) {
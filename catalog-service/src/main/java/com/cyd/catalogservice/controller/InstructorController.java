@@ -0,0 +1,29 @@
+package com.cyd.catalogservice.controller;
+
+import com.cyd.catalogservice.DTO.TeachingLoadDTO;
+import com.cyd.catalogservice.Response.Result;
+import com.cyd.catalogservice.service.TeachingLoadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/instructors")
+public class InstructorController {
+    @Autowired
+    private TeachingLoadService teachingLoadService;
+
+    // 1. 讲师授课负载（GET /api/instructors/{instructorId}/teaching-load）：讲师的全部课程及每周授课分钟数、
+    // 容量与已选人数汇总；讲师没有课程返回 404
+    @GetMapping("/{instructorId}/teaching-load")
+    public ResponseEntity<Result<TeachingLoadDTO>> getTeachingLoad(@PathVariable String instructorId) {
+        return teachingLoadService.getTeachingLoad(instructorId)
+                .map(load -> ResponseEntity.ok(Result.success(load)))
+                .orElseGet(() -> new ResponseEntity<>(
+                        Result.error(404, "No courses found for instructor: " + instructorId), HttpStatus.NOT_FOUND));
+    }
+}
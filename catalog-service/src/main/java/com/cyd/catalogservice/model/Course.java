@@ -1,10 +1,12 @@
 package com.cyd.catalogservice.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
@@ -13,6 +15,8 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+// 仅更新发生变化的列：PATCH 局部更新时生成精简的 UPDATE 语句
+@DynamicUpdate
 @Table(
         name = "courses",
         // 补充：为课程代码添加唯一索引（文档要求“课程代码唯一”）
@@ -20,7 +24,12 @@ import java.time.LocalDateTime;
         // 补充：为排课信息添加索引（优化时间冲突查询效率）
         indexes = {
                 @Index(name = "idx_course_schedule",
-                        columnList = "schedule_dayOfWeek, schedule_startTime, schedule_endTime")
+                        columnList = "schedule_dayOfWeek, schedule_startTime, schedule_endTime"),
+                // 补充：余量查询索引（星期 + 开始时间范围 + 剩余名额），“周二上午有空位的课程”走索引范围扫描
+                @Index(name = "idx_course_availability",
+                        columnList = "schedule_dayOfWeek, schedule_startTime, remaining"),
+                // 补充：讲师维度索引（按讲师查询课程、授课负载统计不再全表扫描）
+                @Index(name = "idx_course_instructor", columnList = "instructor_id")
         }
 )
 public class Course {
@@ -51,6 +60,18 @@ public class Course {
 
     // 已选人数（初始为0，选课时自动增加）
     private Integer enrolled = 0;
+
+    // 剩余名额（capacity - enrolled），冗余存储以便建立索引；由 @PrePersist/@PreUpdate 自动维护，
+    // 批量 UPDATE 语句修改 capacity/enrolled 时需同步更新该列
+    @Column(name = "remaining")
+    private Integer remaining;
+
+    // 热门课程座位分片数：为空表示普通课程（选课直接条件更新 enrolled）；
+    // 非空时占座分散到 course_seat_stripes 的各分片行，enrolled/remaining 由再平衡任务定期汇总（可能略有滞后）
+    // 只能通过 PUT/DELETE /api/courses/{id}/hot 修改
+    @Column(name = "seat_stripes")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Integer seatStripes;
     // 自动填充创建时间，无需手动设置
  //   @CreationTimestamp
     @Column(updatable = false)  // 禁止更新
@@ -64,6 +85,19 @@ public class Course {
         if (this.enrolled == null) {
             this.enrolled = 0;
         }
+        syncRemaining();
+    }
+
+    // 更新前同步剩余名额（容量或已选人数变化时）
+    @PreUpdate
+    public void preUpdate() {
+        syncRemaining();
+    }
+
+    private void syncRemaining() {
+        if (this.capacity != null && this.enrolled != null) {
+            this.remaining = this.capacity - this.enrolled;
+        }
     }
 
 }
\ No newline at end of file
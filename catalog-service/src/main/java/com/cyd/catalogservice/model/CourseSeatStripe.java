@@ -0,0 +1,45 @@
+package com.cyd.catalogservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 热门课程座位分片：课程容量拆分到 N 行，每行持有一部分容量与已选人数，
+// 占座/释放分散到不同行上，避免所有选课请求争抢 courses 表同一行的行锁；各分片容量之和恒等于课程容量
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "course_seat_stripes",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"course_id", "stripe_index"}, name = "uk_stripe_course_index")
+)
+public class CourseSeatStripe {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    // 所属课程ID
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    // 分片序号（0 ~ N-1）
+    @Column(name = "stripe_index", nullable = false)
+    private Integer stripeIndex;
+
+    // 该分片持有的容量份额（由再平衡任务调整）
+    @Column(nullable = false)
+    private Integer capacity;
+
+    // 该分片上已占用的名额
+    @Column(nullable = false)
+    private Integer enrolled;
+
+    public CourseSeatStripe(String courseId, Integer stripeIndex, Integer capacity, Integer enrolled) {
+        this.courseId = courseId;
+        this.stripeIndex = stripeIndex;
+        this.capacity = capacity;
+        this.enrolled = enrolled;
+    }
+}
@@ -1,13 +1,23 @@
 package com.cyd.catalogservice.repository;
 
 
+import com.cyd.catalogservice.DTO.CourseCountDTO;
+import com.cyd.catalogservice.DTO.CourseSnapshotDTO;
+import com.cyd.catalogservice.DTO.CourseSummaryDTO;
+import com.cyd.catalogservice.DTO.InstructorCourseDTO;
 import com.cyd.catalogservice.model.Course;
 import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -40,8 +50,8 @@ public interface CourseRepository extends JpaRepository<Course, String> {
     // 6. 新增：按讲师编号查询课程（嵌入式对象字段用“_”关联）
     List<Course> findByInstructor_Id(String instructorId);
 
-    // 7. 新增：筛选有剩余容量的课程（已选人数 < 总容量）
-    List<Course> findByEnrolledLessThan(Integer capacity);
+    // 7. 新增：筛选有剩余容量的课程（按每门课自身的剩余名额 remaining 过滤，而非与常量比较）
+    List<Course> findByRemainingGreaterThanEqual(Integer minSeats);
 
     // 8. 新增：课程标题模糊查询（忽略大小写，支持分页）
     Page<Course> findByTitleContainingIgnoreCase(String keyword, Pageable pageable);
@@ -56,4 +66,91 @@ public interface CourseRepository extends JpaRepository<Course, String> {
             @Param("startTime") String startTime,
             @Param("endTime") String endTime
     );
+
+    // 10. 新增：课程精简视图投影（仅查询 id/code/title，不加载讲师、排课等嵌入字段）
+    @Query("SELECT new com.cyd.catalogservice.DTO.CourseSummaryDTO(c.id, c.code, c.title) FROM Course c")
+    List<CourseSummaryDTO> findAllSummaries(Sort sort);
+
+    // 11. 新增：课程精简视图分页投影
+    @Query(value = "SELECT new com.cyd.catalogservice.DTO.CourseSummaryDTO(c.id, c.code, c.title) FROM Course c",
+            countQuery = "SELECT COUNT(c) FROM Course c")
+    Page<CourseSummaryDTO> findSummaries(Pageable pageable);
+
+    // 12. 新增：按星期 + 时间窗口 + 剩余名额查询可选课程（命中 idx_course_availability，返回 Slice 省去 count 查询）
+    @Query("SELECT c FROM Course c WHERE " +
+            "c.schedule.dayOfWeek = :dayOfWeek " +
+            "AND c.schedule.startTime >= :from " +
+            "AND c.schedule.startTime < :to " +
+            "AND c.schedule.endTime <= :to " +
+            "AND c.remaining >= :minSeats")
+    Slice<Course> findAvailableCourses(
+            @Param("dayOfWeek") String dayOfWeek,
+            @Param("from") String from,
+            @Param("to") String to,
+            @Param("minSeats") Integer minSeats,
+            Pageable pageable
+    );
+
+    // 13. 新增：回填历史数据的剩余名额（remaining 列新增前创建的课程）
+    @Modifying
+    @Query("UPDATE Course c SET c.remaining = c.capacity - c.enrolled WHERE c.remaining IS NULL")
+    int backfillRemaining();
+
+    // 14. 新增：按主键顺序分页读取课程计数（keyset 分页，对账任务使用；热门课程一并返回，由调用方在分片锁下修正）
+    @Query("SELECT new com.cyd.catalogservice.DTO.CourseCountDTO(c.id, c.enrolled, c.seatStripes) FROM Course c " +
+            "WHERE c.id > :afterId ORDER BY c.id")
+    List<CourseCountDTO> findCountsAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    // 15. 新增：已选人数比较并设置（仅当 enrolled 仍等于读取时的值才更新，同时维护 remaining；不修改热门课程）
+    @Modifying
+    @Query("UPDATE Course c SET c.enrolled = :actual, c.remaining = c.capacity - :actual " +
+            "WHERE c.id = :id AND c.enrolled = :expected AND c.seatStripes IS NULL")
+    int compareAndSetEnrolled(
+            @Param("id") String id,
+            @Param("expected") Integer expected,
+            @Param("actual") Integer actual
+    );
+
+    // 16. 新增：已选人数相对增减（单条原子 UPDATE，调整后不得小于 0 或超过容量，返回 0 表示课程不存在、越界或为热门课程）
+    @Transactional
+    @Modifying
+    @Query("UPDATE Course c SET c.enrolled = c.enrolled + :delta, c.remaining = c.capacity - (c.enrolled + :delta) " +
+            "WHERE c.id = :id AND c.enrolled + :delta >= 0 AND c.enrolled + :delta <= c.capacity AND c.seatStripes IS NULL")
+    int adjustEnrolled(@Param("id") String id, @Param("delta") Integer delta);
+
+    // 17. 新增：查询课程的座位分片数（0 表示普通课程，empty 表示课程不存在），占座前判断走哪条路径
+    @Query("SELECT COALESCE(c.seatStripes, 0) FROM Course c WHERE c.id = :id")
+    Optional<Integer> findSeatStripes(@Param("id") String id);
+
+    // 18. 新增：加锁读取课程（标记/取消热门课程时使用）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Course c WHERE c.id = :id")
+    Optional<Course> findByIdForUpdate(@Param("id") String id);
+
+    // 19. 新增：全部热门课程ID（再平衡任务使用）
+    @Query("SELECT c.id FROM Course c WHERE c.seatStripes IS NOT NULL")
+    List<String> findHotCourseIds();
+
+    // 20. 新增：删除普通课程（一条 DELETE 完成存在性判断，返回 0 表示课程不存在或为热门课程）
+    @Modifying
+    @Query("DELETE FROM Course c WHERE c.id = :id AND c.seatStripes IS NULL")
+    int deleteIfNotHot(@Param("id") String id);
+
+    // 21. 新增：按ID删除课程并返回删除行数（不像 deleteById 那样先加载实体）
+    @Modifying
+    @Query("DELETE FROM Course c WHERE c.id = :id")
+    int deleteCourseById(@Param("id") String id);
+
+    // 22. 新增：按主键顺序分页读取课程快照（keyset 分页，enrollment-service 预热课程缓存使用）
+    @Query("SELECT new com.cyd.catalogservice.DTO.CourseSnapshotDTO(c.id, c.code, c.title, c.capacity, c.enrolled, " +
+            "c.schedule.dayOfWeek, c.schedule.startTime, c.schedule.endTime) FROM Course c " +
+            "WHERE c.id > :afterId ORDER BY c.id")
+    List<CourseSnapshotDTO> findSnapshotsAfter(@Param("afterId") String afterId, Pageable pageable);
+
+    // 23. 新增：讲师授课课程投影（命中 idx_course_instructor，一条查询读取讲师全部课程的排课、容量与已选人数）
+    @Query("SELECT new com.cyd.catalogservice.DTO.InstructorCourseDTO(c.id, c.code, c.title, " +
+            "c.instructor.id, c.instructor.name, c.instructor.email, " +
+            "c.schedule.dayOfWeek, c.schedule.startTime, c.schedule.endTime, c.capacity, c.enrolled) " +
+            "FROM Course c WHERE c.instructor.id = :instructorId")
+    List<InstructorCourseDTO> findInstructorCourses(@Param("instructorId") String instructorId);
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.cyd.catalogservice.repository;
+
+import com.cyd.catalogservice.model.CourseSeatStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface CourseSeatStripeRepository extends JpaRepository<CourseSeatStripe, String> {
+
+    // 1. 按分片序号顺序加锁读取课程的全部分片（FOR UPDATE，再平衡/取消热门时使用）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CourseSeatStripe s WHERE s.courseId = :courseId ORDER BY s.stripeIndex")
+    List<CourseSeatStripe> findByCourseIdForUpdate(@Param("courseId") String courseId);
+
+    // 2. 在单个分片上占座（该分片剩余份额不足时更新 0 行）
+    // 自带短事务：每次尝试只锁一个分片行，失败后立即释放再尝试下一个分片
+    @Transactional
+    @Modifying
+    @Query("UPDATE CourseSeatStripe s SET s.enrolled = s.enrolled + :count " +
+            "WHERE s.courseId = :courseId AND s.stripeIndex = :index AND s.enrolled + :count <= s.capacity")
+    int reserve(@Param("courseId") String courseId, @Param("index") Integer index, @Param("count") Integer count);
+
+    // 3. 在单个分片上释放名额（该分片已选人数不足时更新 0 行）
+    @Transactional
+    @Modifying
+    @Query("UPDATE CourseSeatStripe s SET s.enrolled = s.enrolled - :count " +
+            "WHERE s.courseId = :courseId AND s.stripeIndex = :index AND s.enrolled >= :count")
+    int release(@Param("courseId") String courseId, @Param("index") Integer index, @Param("count") Integer count);
+
+    // 4. 删除课程的全部分片（删除课程时使用）
+    @Modifying
+    @Query("DELETE FROM CourseSeatStripe s WHERE s.courseId = :courseId")
+    int deleteByCourseId(@Param("courseId") String courseId);
+}
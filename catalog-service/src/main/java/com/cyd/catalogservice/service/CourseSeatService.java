@@ -0,0 +1,324 @@
+package com.cyd.catalogservice.service;
+
+import com.cyd.catalogservice.model.Course;
+import com.cyd.catalogservice.model.CourseSeatStripe;
+import com.cyd.catalogservice.repository.CourseRepository;
+import com.cyd.catalogservice.repository.CourseSeatStripeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 课程座位服务：占座/释放名额
+// 普通课程：courses 表上一条条件 UPDATE；热门课程：容量拆分到 N 个分片行，从随机分片开始逐个尝试条件 UPDATE，
+// 把同一课程的并发写分散到多行；再平衡任务定期把空闲份额重新均分到各分片，并把汇总人数写回 courses 表
+@Service
+public class CourseSeatService {
+    // 分片数上限
+    private static final int MAX_STRIPES = 64;
+    // 普通/热门模式切换期间的最大重试次数
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseSeatStripeRepository stripeRepository;
+
+    @Value("${catalog.hot-courses.default-stripes:8}")
+    private int defaultStripes;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CourseSeatService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // 1. 占座：返回 false 表示名额不足，课程不存在抛出 RuntimeException
+    public boolean reserve(String courseId, int count) {
+        return requireCourse(courseId, tryReserve(courseId, requirePositive(count)));
+    }
+
+    // 2. 释放名额：返回 false 表示已选人数不足以释放，课程不存在抛出 RuntimeException
+    public boolean release(String courseId, int count) {
+        return requireCourse(courseId, tryRelease(courseId, requirePositive(count)));
+    }
+
+    // 3. 相对调整（批量调整接口使用）：delta > 0 占座，delta < 0 释放；课程不存在或越界返回 false
+    public boolean adjust(String courseId, int delta) {
+        Boolean applied = delta > 0 ? tryReserve(courseId, delta) : tryRelease(courseId, -delta);
+        return Boolean.TRUE.equals(applied);
+    }
+
+    // 3-1. 多门课程一次占座（全部成功或全部不占）：按课程ID顺序逐门条件占座，任一门名额不足或课程不存在时
+    // 归还本次已占的名额；返回未能占座的课程ID（为空表示全部成功）
+    // 各门课程仍是独立的短语句，不在一个长事务里持有多门课程（热门课程多个分片）的行锁
+    public List<String> reserveAll(Map<String, Integer> counts) {
+        Map<String, Integer> ordered = new TreeMap<>(counts);
+        if (ordered.isEmpty()) {
+            throw new IllegalArgumentException("Seat reservations must not be empty");
+        }
+        ordered.values().forEach(count -> requirePositive(count == null ? 0 : count));
+        List<String> rejected = new ArrayList<>();
+        Map<String, Integer> reserved = new TreeMap<>();
+        for (Map.Entry<String, Integer> entry : ordered.entrySet()) {
+            if (Boolean.TRUE.equals(tryReserve(entry.getKey(), entry.getValue()))) {
+                reserved.put(entry.getKey(), entry.getValue());
+            } else {
+                rejected.add(entry.getKey());
+                break;
+            }
+        }
+        if (!rejected.isEmpty()) {
+            // 补偿：归还已占名额（释放失败只记录日志，偏差由对账任务修正）
+            reserved.forEach((courseId, count) -> {
+                if (!Boolean.TRUE.equals(tryRelease(courseId, count))) {
+                    System.err.println("Failed to release " + count + " seat(s) for course " + courseId
+                            + " after batch reservation was rejected");
+                }
+            });
+        }
+        return rejected;
+    }
+
+    // 返回 null 表示课程不存在
+    private Boolean tryReserve(String courseId, int count) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Integer stripes = courseRepository.findSeatStripes(courseId).orElse(null);
+            if (stripes == null) {
+                return null;
+            }
+            if (stripes == 0) {
+                if (courseRepository.adjustEnrolled(courseId, count) == 1) {
+                    return true;
+                }
+                // 更新 0 行：名额不足，或课程刚被标记为热门（重新读取模式后重试）
+                if (courseRepository.findSeatStripes(courseId).orElse(0) == 0) {
+                    return false;
+                }
+                continue;
+            }
+            if (reserveOnStripes(courseId, stripes, count)) {
+                return true;
+            }
+            // 单个名额在所有分片都占不到说明课程已满；多个名额可能只是空闲份额分散在各分片，再平衡后重试一次
+            if (count == 1) {
+                return false;
+            }
+            if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> rebalance(courseId)))) {
+                // 已取消热门，按普通课程重试
+                continue;
+            }
+            return reserveOnStripes(courseId, stripes, count);
+        }
+        return false;
+    }
+
+    private Boolean tryRelease(String courseId, int count) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Integer stripes = courseRepository.findSeatStripes(courseId).orElse(null);
+            if (stripes == null) {
+                return null;
+            }
+            if (stripes == 0) {
+                if (courseRepository.adjustEnrolled(courseId, -count) == 1) {
+                    return true;
+                }
+                if (courseRepository.findSeatStripes(courseId).orElse(0) == 0) {
+                    return false;
+                }
+                continue;
+            }
+            int start = ThreadLocalRandom.current().nextInt(stripes);
+            for (int i = 0; i < stripes; i++) {
+                if (stripeRepository.release(courseId, (start + i) % stripes, count) == 1) {
+                    return true;
+                }
+            }
+            // 没有单个分片持有 count 个已选名额：加锁后跨分片释放
+            if (count > 1) {
+                return transactionTemplate.execute(status -> releaseAcrossStripes(courseId, count));
+            }
+            return false;
+        }
+        return false;
+    }
+
+    private boolean reserveOnStripes(String courseId, int stripes, int count) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            if (stripeRepository.reserve(courseId, (start + i) % stripes, count) == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean releaseAcrossStripes(String courseId, int count) {
+        List<CourseSeatStripe> stripes = stripeRepository.findByCourseIdForUpdate(courseId);
+        int total = stripes.stream().mapToInt(CourseSeatStripe::getEnrolled).sum();
+        if (stripes.isEmpty() || total < count) {
+            return false;
+        }
+        int left = count;
+        for (CourseSeatStripe stripe : stripes) {
+            int taken = Math.min(left, stripe.getEnrolled());
+            stripe.setEnrolled(stripe.getEnrolled() - taken);
+            left -= taken;
+        }
+        return true;
+    }
+
+    // 4. 标记热门课程：按当前容量与已选人数均分到 N 个分片
+    @Transactional
+    public Course markHot(String courseId, Integer stripes) {
+        Course course = courseRepository.findByIdForUpdate(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
+        if (course.getSeatStripes() != null) {
+            throw new IllegalArgumentException("Course is already marked hot: " + courseId);
+        }
+        int n = stripes != null ? stripes : defaultStripes;
+        if (n < 1 || n > MAX_STRIPES) {
+            throw new IllegalArgumentException("Stripes must be between 1 and " + MAX_STRIPES);
+        }
+        if (n > course.getCapacity()) {
+            throw new IllegalArgumentException("Stripes " + n + " exceeds course capacity " + course.getCapacity());
+        }
+        // 容量与已选人数按相同方式均分（余数给前几个分片），保证每个分片 enrolled <= capacity
+        int capacity = course.getCapacity();
+        int enrolled = course.getEnrolled();
+        List<CourseSeatStripe> rows = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            rows.add(new CourseSeatStripe(courseId, i,
+                    capacity / n + (i < capacity % n ? 1 : 0),
+                    enrolled / n + (i < enrolled % n ? 1 : 0)));
+        }
+        stripeRepository.saveAll(rows);
+        course.setSeatStripes(n);
+        return courseRepository.save(course);
+    }
+
+    // 5. 取消热门课程：汇总各分片人数写回课程并删除分片（先锁分片再锁课程，与再平衡任务加锁顺序一致）
+    @Transactional
+    public Course unmarkHot(String courseId) {
+        List<CourseSeatStripe> stripes = stripeRepository.findByCourseIdForUpdate(courseId);
+        Course course = courseRepository.findByIdForUpdate(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
+        if (course.getSeatStripes() == null) {
+            throw new IllegalArgumentException("Course is not marked hot: " + courseId);
+        }
+        course.setEnrolled(stripes.stream().mapToInt(CourseSeatStripe::getEnrolled).sum());
+        course.setSeatStripes(null);
+        stripeRepository.deleteAll(stripes);
+        return courseRepository.save(course);
+    }
+
+    // 6. 再平衡单门热门课程（需在事务内调用），返回 false 表示课程已不是热门课程
+    // 先锁分片再读课程，保证读到的容量不早于并发的容量修改
+    public boolean rebalance(String courseId) {
+        List<CourseSeatStripe> stripes = stripeRepository.findByCourseIdForUpdate(courseId);
+        Course course = courseRepository.findById(courseId).orElse(null);
+        if (course == null || course.getSeatStripes() == null || stripes.isEmpty()) {
+            return false;
+        }
+        redistribute(course, stripes);
+        return true;
+    }
+
+    // 6-1. 修改热门课程容量时在同一事务内调用；容量小于已选人数时抛出 IllegalArgumentException
+    public void rebalance(Course course) {
+        List<CourseSeatStripe> stripes = stripeRepository.findByCourseIdForUpdate(course.getId());
+        if (!stripes.isEmpty()) {
+            redistribute(course, stripes);
+        }
+    }
+
+    // 6-2. 对账修正热门课程（需在事务内调用，与再平衡相同先锁分片再读课程）：分片合计仍等于对账读到的 expected 时，
+    // 把与实际人数的差额记到已选最多的分片上（不够扣时依次扣减其他分片），再按容量重新分配份额
+    // 返回 false 表示课程已不是热门课程、期间人数已变化或实际人数超过容量（留待下一轮）
+    public boolean rebalance(String courseId, int expected, int actual) {
+        List<CourseSeatStripe> stripes = stripeRepository.findByCourseIdForUpdate(courseId);
+        Course course = courseRepository.findById(courseId).orElse(null);
+        if (course == null || course.getSeatStripes() == null || stripes.isEmpty()) {
+            return false;
+        }
+        int enrolled = stripes.stream().mapToInt(CourseSeatStripe::getEnrolled).sum();
+        if (enrolled != expected || actual < 0 || actual > course.getCapacity()) {
+            return false;
+        }
+        List<CourseSeatStripe> ordered = new ArrayList<>(stripes);
+        ordered.sort(Comparator.comparingInt(CourseSeatStripe::getEnrolled).reversed());
+        int delta = actual - enrolled;
+        if (delta > 0) {
+            ordered.get(0).setEnrolled(ordered.get(0).getEnrolled() + delta);
+        }
+        for (CourseSeatStripe stripe : ordered) {
+            if (delta >= 0) {
+                break;
+            }
+            int taken = Math.min(stripe.getEnrolled(), -delta);
+            stripe.setEnrolled(stripe.getEnrolled() - taken);
+            delta += taken;
+        }
+        redistribute(course, stripes);
+        return true;
+    }
+
+    // 按课程当前容量重新分配分片份额：每个分片保留已占名额，空闲名额均分；汇总人数写回课程
+    private void redistribute(Course course, List<CourseSeatStripe> stripes) {
+        int enrolled = stripes.stream().mapToInt(CourseSeatStripe::getEnrolled).sum();
+        int free = course.getCapacity() - enrolled;
+        if (free < 0) {
+            throw new IllegalArgumentException("Course capacity " + course.getCapacity()
+                    + " is below enrolled count " + enrolled);
+        }
+        int n = stripes.size();
+        for (int i = 0; i < n; i++) {
+            CourseSeatStripe stripe = stripes.get(i);
+            stripe.setCapacity(stripe.getEnrolled() + free / n + (i < free % n ? 1 : 0));
+        }
+        // 人数未变化时不会产生 UPDATE（@DynamicUpdate + 脏检查）
+        course.setEnrolled(enrolled);
+    }
+
+    // 7. 定时再平衡全部热门课程（每门课程一个短事务）
+    @Scheduled(fixedDelayString = "${catalog.hot-courses.rebalance-interval-millis:1000}")
+    public void rebalanceHotCourses() {
+        for (String courseId : courseRepository.findHotCourseIds()) {
+            try {
+                transactionTemplate.execute(status -> rebalance(courseId));
+            } catch (RuntimeException e) {
+                System.err.println("Seat stripe rebalance failed for course " + courseId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // 8. 删除课程的全部分片（删除课程时在同一事务内调用）
+    public void deleteStripes(String courseId) {
+        stripeRepository.deleteByCourseId(courseId);
+    }
+
+    private static int requirePositive(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Seat count must be positive: " + count);
+        }
+        return count;
+    }
+
+    private static boolean requireCourse(String courseId, Boolean result) {
+        if (result == null) {
+            throw new RuntimeException("Course not found with id: " + courseId);
+        }
+        return result;
+    }
+}
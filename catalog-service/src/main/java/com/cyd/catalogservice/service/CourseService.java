@@ -1,10 +1,15 @@
 package com.cyd.catalogservice.service;
 
 
+import com.cyd.catalogservice.DTO.CoursePatchDTO;
+import com.cyd.catalogservice.DTO.CourseSnapshotDTO;
+import com.cyd.catalogservice.DTO.CourseSummaryDTO;
 import com.cyd.catalogservice.DTO.PageQueryDTO;
 import com.cyd.catalogservice.model.Course;
 import com.cyd.catalogservice.repository.CourseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,14 +18,28 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 public class CourseService {
+    // 课程快照每页最大条数
+    private static final int MAX_SNAPSHOT_PAGE = 1000;
+
     @Autowired
     private CourseRepository courseRepository;
 
+    // 座位服务：占座/释放（普通课程与热门分片课程两条路径）
+    @Autowired
+    private CourseSeatService seatService;
+
+    // 讲师授课负载缓存：课程写入后失效相关讲师
+    @Autowired
+    private TeachingLoadService teachingLoadService;
+
     // 1. 检查课程时间冲突：改用 Repository 自定义查询，删除内存遍历（文档要求：复杂查询用 Repository 方法）
     private void checkTimeConflict(Course course, String excludeId) {
         // 调用 CourseRepository 新增的 findConflictingCourses 方法，直接从数据库查询冲突课程
@@ -42,13 +61,10 @@ public class CourseService {
         }
     }
     // 2. 分页查询课程：改用 JPA 分页（Pageable），删除内存分页逻辑（文档要求：使用 Repository 实现分页）{insert\_element\_1\_}
+    @Transactional(readOnly = true)  // 只读事务：Hibernate 不做脏检查快照与 flush
     public List<Course> getCoursesByPage(PageQueryDTO pageQuery) {
         // 1. 构建分页参数：页码（pageNum-1，JPA 页码从0开始）、每页条数、排序规则（按课程代码升序）
-        Pageable pageable = PageRequest.of(
-                Math.max(pageQuery.getPageNum() - 1, 0),
-                pageQuery.getPageSize(),
-                Sort.by("code").ascending()
-        );
+        Pageable pageable = toPageable(pageQuery);
 
         // 2. 调用 Repository 分页查询方法（若有标题关键字，可改用 findByTitleContainingIgnoreCase）
         Page<Course> coursePage = courseRepository.findAll(pageable);
@@ -57,6 +73,50 @@ public class CourseService {
         return coursePage.getContent();
     }
 
+    // 2-1. 分页查询课程精简视图（fields 选择器命中时使用，只查询 id/code/title）
+    @Transactional(readOnly = true)
+    public List<CourseSummaryDTO> getCourseSummariesByPage(PageQueryDTO pageQuery) {
+        return courseRepository.findSummaries(toPageable(pageQuery)).getContent();
+    }
+
+    // 2-2. 课程快照 keyset 分页：返回主键大于 afterId 的下一页（按主键升序），调用方以最后一条的 id 继续翻页
+    @Transactional(readOnly = true)
+    public List<CourseSnapshotDTO> getCourseSnapshotsAfter(String afterId, int limit) {
+        if (limit < 1 || limit > MAX_SNAPSHOT_PAGE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SNAPSHOT_PAGE);
+        }
+        return courseRepository.findSnapshotsAfter(afterId == null ? "" : afterId, PageRequest.of(0, limit));
+    }
+
+    private Pageable toPageable(PageQueryDTO pageQuery) {
+        return PageRequest.of(
+                Math.max(pageQuery.getPageNum() - 1, 0),
+                pageQuery.getPageSize(),
+                Sort.by("code").ascending()
+        );
+    }
+
+    // 2-2. 查询有空位的课程：按星期、时间窗口（开始时间在 [from, to) 内且在 to 之前结束）与最少剩余名额过滤
+    @Transactional(readOnly = true)
+    public List<Course> findAvailableCourses(String dayOfWeek, String from, String to, int minSeats, PageQueryDTO pageQuery) {
+        if (minSeats <= 0) {
+            throw new IllegalArgumentException("minSeats must be positive: " + minSeats);
+        }
+        Pageable pageable = PageRequest.of(
+                Math.max(pageQuery.getPageNum() - 1, 0),
+                pageQuery.getPageSize(),
+                Sort.by("schedule.startTime").ascending()
+        );
+        return courseRepository.findAvailableCourses(dayOfWeek, from, to, minSeats, pageable).getContent();
+    }
+
+    // 启动时回填 remaining 列为空的历史课程（仅首次升级时有数据需要处理）
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRemaining() {
+        courseRepository.backfillRemaining();
+    }
+
     public Optional<Course> findCourseByCode(String code) {
         //  CourseRepository 有 findByCode 方法，若没有需先在 Repository 中定义
         return courseRepository.findByCode(code);
@@ -66,12 +126,19 @@ public class CourseService {
 
 
     // 3. 查询所有课程：复用 Repository findAll + JPA 排序，删除内存排序（文档要求：数据库层面实现排序）{insert\_element\_2\_}
+    @Transactional(readOnly = true)
     public List<Course> findAllCourses() {
         // 按课程代码升序排序，通过 Sort 参数由数据库执行排序（效率高于内存排序）
         Sort sort = Sort.by("code").ascending();
         return courseRepository.findAll(sort);
     }
 
+    // 3-1. 查询所有课程精简视图（fields 选择器命中时使用）
+    @Transactional(readOnly = true)
+    public List<CourseSummaryDTO> findAllCourseSummaries() {
+        return courseRepository.findAllSummaries(Sort.by("code").ascending());
+    }
+
     // 4. 按ID查询课程：直接调用 Repository 方法（无改造，保持原逻辑）
     public Optional<Course> findCourseById(String id) {
         return courseRepository.findById(id);
@@ -92,7 +159,9 @@ public class CourseService {
 //        course.setId(UUID.randomUUID().toString().replace("-", ""));
 
         // 4. 保存课程（Repository 持久化到数据库）
-        return courseRepository.save(course);
+        Course saved = courseRepository.save(course);
+        teachingLoadService.onCourseChanged(instructorId(saved));
+        return saved;
     }
 
     // 6. 更新课程：保留业务规则，适配 Repository 数据交互（文档要求：保留原有业务规则）{insert\_element\_5\_}
@@ -116,28 +185,104 @@ public class CourseService {
         checkTimeConflict(updatedCourse, id);
 
         // 5. 更新字段并保存（Repository 持久化到数据库）
+        String previousInstructorId = instructorId(existingCourse);
         existingCourse.setTitle(updatedCourse.getTitle());
         existingCourse.setInstructor(updatedCourse.getInstructor());
         existingCourse.setSchedule(updatedCourse.getSchedule());
         existingCourse.setCapacity(updatedCourse.getCapacity());
-        return courseRepository.save(existingCourse);
+        // 6. 热门课程：按新容量重新分配座位分片（容量低于已选人数时拒绝）
+        if (existingCourse.getSeatStripes() != null) {
+            seatService.rebalance(existingCourse);
+        }
+        Course saved = courseRepository.save(existingCourse);
+        teachingLoadService.onCourseChanged(previousInstructorId, instructorId(saved));
+        return saved;
+    }
+
+    // 6-1. 局部更新课程（PATCH）：只修改请求中出现的字段，配合 @DynamicUpdate 只更新变化的列
+    @Transactional
+    public Course patchCourse(String id, CoursePatchDTO patch) {
+        // 1. 查询课程是否存在
+        Course existingCourse = courseRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Course not found with id: " + id));
+
+        // 2. 容量/已选人数合法性：以“请求值优先，否则沿用原值”计算最终结果
+        // 热门课程的已选人数由座位分片维护，不允许直接覆盖
+        if (patch.getEnrolled() != null && existingCourse.getSeatStripes() != null) {
+            throw new IllegalArgumentException("Enrolled count of a hot course is maintained by its seat stripes");
+        }
+        int capacity = patch.getCapacity() != null ? patch.getCapacity() : existingCourse.getCapacity();
+        int enrolled = patch.getEnrolled() != null ? patch.getEnrolled() : existingCourse.getEnrolled();
+        if (enrolled > capacity) {
+            throw new IllegalArgumentException("Enrolled count " + enrolled + " exceeds course capacity " + capacity);
+        }
+
+        // 3. 仅当排课信息确实变化时才做时间冲突检查（避免无谓的 findConflictingCourses 查询）
+        if (patch.getSchedule() != null && !patch.getSchedule().equals(existingCourse.getSchedule())) {
+            Course probe = new Course();
+            probe.setInstructor(patch.getInstructor() != null ? patch.getInstructor() : existingCourse.getInstructor());
+            probe.setSchedule(patch.getSchedule());
+            checkTimeConflict(probe, id);
+            existingCourse.setSchedule(patch.getSchedule());
+        }
+
+        // 4. 应用其余字段（未变化的字段不会被 Hibernate 标记为脏数据）
+        String previousInstructorId = instructorId(existingCourse);
+        if (patch.getTitle() != null) {
+            existingCourse.setTitle(patch.getTitle());
+        }
+        if (patch.getInstructor() != null) {
+            existingCourse.setInstructor(patch.getInstructor());
+        }
+        existingCourse.setCapacity(capacity);
+        existingCourse.setEnrolled(enrolled);
+        if (existingCourse.getSeatStripes() != null && patch.getCapacity() != null) {
+            seatService.rebalance(existingCourse);
+        }
+        Course saved = courseRepository.save(existingCourse);
+        teachingLoadService.onCourseChanged(previousInstructorId, instructorId(saved));
+        return saved;
+    }
+
+    // 6-2. 批量相对调整已选人数（选课 +n / 退课 -n）：每门课程一条条件 UPDATE（热门课程落在某个座位分片上），
+    // 无需先读后写，不会丢失并发更新；各课程独立生效，返回未能调整的课程ID（课程不存在或调整后越界）
+    public List<String> adjustEnrolledCounts(Map<String, Integer> deltas) {
+        List<String> rejected = new ArrayList<>();
+        new TreeMap<>(deltas).forEach((courseId, delta) -> {
+            if (delta == null || delta == 0) {
+                return;
+            }
+            if (!seatService.adjust(courseId, delta)) {
+                rejected.add(courseId);
+            }
+        });
+        return rejected;
     }
 
     // 7. 删除课程：适配 Repository，新增关联检查（文档要求：删除前的关联检查）{insert\_element\_6\_}
     @Transactional  // 新增事务注解：确保删除与关联检查原子性
     public void deleteCourse(String id) {
-        // 1. 检查课程是否存在（Repository 查数据库）
-        if (!courseRepository.existsById(id)) {
-            throw new RuntimeException("Course not found with id: " + id);
-        }
-
-        // 2. （补充）关联检查：若存在选课记录，禁止删除（需注入 EnrollmentRepository，文档要求删除前关联检查）{insert\_element\_7\_}
+        // 1. （补充）关联检查：若存在选课记录，禁止删除（需注入 EnrollmentRepository，文档要求删除前关联检查）{insert\_element\_7\_}
         // if (!enrollmentRepository.findByCourseId(id).isEmpty()) {
         //     throw new IllegalArgumentException("Cannot delete course: It has existing enrollments");
         // }
 
-        // 3. 删除课程（Repository 从数据库删除）
-        courseRepository.deleteById(id);
+        // 2. 普通课程：一条条件 DELETE 完成（不再 existsById + deleteById 先查后删）
+        if (courseRepository.deleteIfNotHot(id) == 1) {
+            teachingLoadService.onCourseDeleted(id);
+            return;
+        }
+
+        // 3. 热门课程（或课程不存在）：先删除座位分片再删除课程，删除 0 行说明课程不存在
+        seatService.deleteStripes(id);
+        if (courseRepository.deleteCourseById(id) == 0) {
+            throw new RuntimeException("Course not found with id: " + id);
+        }
+        teachingLoadService.onCourseDeleted(id);
+    }
+
+    private static String instructorId(Course course) {
+        return course.getInstructor() == null ? null : course.getInstructor().getId();
     }
 
 
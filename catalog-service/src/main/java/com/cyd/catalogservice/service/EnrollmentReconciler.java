@@ -0,0 +1,164 @@
+package com.cyd.catalogservice.service;
+
+import com.cyd.catalogservice.DTO.CourseCountDTO;
+import com.cyd.catalogservice.DTO.ReconcileReportDTO;
+import com.cyd.catalogservice.client.EnrollmentClient;
+import com.cyd.catalogservice.repository.CourseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 选课人数对账：按主键分批读取课程 enrolled，批量向 enrollment-service 查询真实占座人数（ACTIVE + 已结课），
+// 对存在漂移的课程执行 CAS 修正（enrolled 在比对期间被并发修改时跳过，留待下一轮），并记录漂移指标
+// 占座先于 enrollment-service 本地提交，单次观察到的漂移可能只是进行中的选课/退课：
+// 连续两轮观察到相同的（enrolled, 实际人数）才修正，否则记下本轮观察值留待下一轮确认
+// 热门课程的人数在座位分片上：每门课程一个短事务，由 CourseSeatService 在分片锁下修正（不在整批事务里持有分片锁）
+@Service
+public class EnrollmentReconciler {
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private EnrollmentClient enrollmentClient;
+
+    @Autowired
+    private CourseSeatService seatService;
+
+    @Value("${catalog.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${catalog.reconcile.batch-size:1000}")
+    private int batchSize;
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    // 最近一轮对账发现的漂移课程数（Gauge）
+    private final AtomicLong lastDrifted = new AtomicLong();
+    // 上一轮观察到的漂移：课程ID → 观察值（只在持有 running 的对账线程内访问）
+    private Map<String, Drift> lastDrifts = new HashMap<>();
+
+    public EnrollmentReconciler(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("catalog.reconcile.last.drifted", lastDrifted);
+    }
+
+    // 定时对账（上一轮结束后间隔 interval-millis 再执行）
+    @Scheduled(fixedDelayString = "${catalog.reconcile.interval-millis:300000}",
+            initialDelayString = "${catalog.reconcile.initial-delay-millis:60000}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            System.err.println("Enrolled count reconciliation failed: " + e.getMessage());
+        }
+    }
+
+    // 执行一轮对账（同一时刻只允许一轮）
+    public ReconcileReportDTO reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalArgumentException("Reconciliation is already running");
+        }
+        try {
+            return doReconcile();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconcileReportDTO doReconcile() {
+        long start = System.nanoTime();
+        ReconcileReportDTO report = new ReconcileReportDTO();
+        String afterId = "";
+        Map<String, Drift> drifts = new HashMap<>();
+        while (true) {
+            List<CourseCountDTO> page = courseRepository.findCountsAfter(afterId, PageRequest.of(0, batchSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            Map<String, Long> actualCounts = enrollmentClient.countActive(
+                    page.stream().map(CourseCountDTO::getId).toList());
+            // 本批普通课程的修正在同一事务内提交，热门课程逐门修正
+            Map<String, Drift> hotFixes = new HashMap<>();
+            transactionTemplate.executeWithoutResult(status -> reconcilePage(page, actualCounts, drifts, hotFixes, report));
+            hotFixes.forEach((courseId, drift) -> reconcileHot(courseId, drift, report));
+            report.setScanned(report.getScanned() + page.size());
+            afterId = page.get(page.size() - 1).getId();
+        }
+        lastDrifts = drifts;
+        report.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        lastDrifted.set(report.getDrifted());
+        meterRegistry.counter("catalog.reconcile.courses.scanned").increment(report.getScanned());
+        meterRegistry.counter("catalog.reconcile.courses.drifted").increment(report.getDrifted());
+        meterRegistry.counter("catalog.reconcile.courses.fixed").increment(report.getFixed());
+        meterRegistry.counter("catalog.reconcile.cas.misses").increment(report.getCasMisses());
+        meterRegistry.counter("catalog.reconcile.courses.deferred").increment(report.getDeferred());
+        meterRegistry.counter("catalog.reconcile.seats.drift").increment(report.getSeatDrift());
+        meterRegistry.timer("catalog.reconcile.duration").record(report.getDurationMillis(), TimeUnit.MILLISECONDS);
+        return report;
+    }
+
+    private void reconcilePage(List<CourseCountDTO> page, Map<String, Long> actualCounts, Map<String, Drift> drifts,
+                               Map<String, Drift> hotFixes, ReconcileReportDTO report) {
+        for (CourseCountDTO course : page) {
+            int expected = course.getEnrolled() == null ? 0 : course.getEnrolled();
+            int actual = actualCounts.getOrDefault(course.getId(), 0L).intValue();
+            if (expected == actual) {
+                continue;
+            }
+            report.setDrifted(report.getDrifted() + 1);
+            report.setSeatDrift(report.getSeatDrift() + Math.abs(actual - expected));
+            Drift drift = new Drift(expected, actual);
+            if (!drift.equals(lastDrifts.get(course.getId()))) {
+                drifts.put(course.getId(), drift);
+                report.setDeferred(report.getDeferred() + 1);
+                continue;
+            }
+            if (course.getSeatStripes() != null) {
+                hotFixes.put(course.getId(), drift);
+                continue;
+            }
+            if (courseRepository.compareAndSetEnrolled(course.getId(), course.getEnrolled(), actual) == 1) {
+                report.setFixed(report.getFixed() + 1);
+            } else {
+                report.setCasMisses(report.getCasMisses() + 1);
+            }
+        }
+    }
+
+    private void reconcileHot(String courseId, Drift drift, ReconcileReportDTO report) {
+        boolean fixed;
+        try {
+            fixed = Boolean.TRUE.equals(transactionTemplate.execute(
+                    status -> seatService.rebalance(courseId, drift.expected(), drift.actual())));
+        } catch (RuntimeException e) {
+            System.err.println("Enrolled count reconciliation failed for hot course " + courseId + ": " + e.getMessage());
+            fixed = false;
+        }
+        if (fixed) {
+            report.setFixed(report.getFixed() + 1);
+        } else {
+            report.setCasMisses(report.getCasMisses() + 1);
+        }
+    }
+
+    private record Drift(int expected, int actual) {
+    }
+}
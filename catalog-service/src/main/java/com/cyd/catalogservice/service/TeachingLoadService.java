@@ -0,0 +1,121 @@
+package com.cyd.catalogservice.service;
+
+import com.cyd.catalogservice.DTO.InstructorCourseDTO;
+import com.cyd.catalogservice.DTO.TeachingLoadDTO;
+import com.cyd.catalogservice.common.AfterCommit;
+import com.cyd.catalogservice.common.BoundedCache;
+import com.cyd.catalogservice.repository.CourseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+// 讲师授课负载：按讲师缓存在进程内有界缓存中，未命中时一条查询（instructor_id 索引）读取讲师全部课程后在内存汇总
+// 课程写入在事务提交后失效相关讲师；占座/释放不失效（选课高峰每次占座都要进全局锁），
+// totalEnrolled 最多滞后一个 TTL。已缓存讲师的课程记录在 课程ID → 讲师ID 索引中，删除课程时按课程找到需要失效的讲师
+@Service
+public class TeachingLoadService {
+    // 变更戳分段数：加载期间同一分段有写入则放弃回填，避免把加载前的旧结果写进缓存
+    private static final int STAMP_STRIPES = 256;
+
+    private static final Comparator<InstructorCourseDTO> BY_SCHEDULE = Comparator
+            .comparingInt((InstructorCourseDTO course) -> dayOrder(course.getSchedule().getDayOfWeek()))
+            .thenComparing(course -> course.getSchedule().getStartTime(), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(InstructorCourseDTO::getCode);
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    private final BoundedCache<String, TeachingLoadDTO> cache;
+    // 以下状态均在 this 上同步访问
+    // 条目只在课程删除时移除：缓存淘汰后残留的映射最多每门课程一条，失效一个未缓存的讲师没有副作用
+    private final Map<String, String> instructorByCourse = new HashMap<>();
+    private final long[] stamps = new long[STAMP_STRIPES];
+
+    public TeachingLoadService(
+            @Value("${catalog.teaching-load-cache.max-entries:10000}") int maxEntries,
+            @Value("${catalog.teaching-load-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new BoundedCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    // 1. 讲师授课负载：命中缓存直接返回；讲师没有课程时返回 empty
+    @Transactional(readOnly = true)
+    public Optional<TeachingLoadDTO> getTeachingLoad(String instructorId) {
+        TeachingLoadDTO cached = cache.get(instructorId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = stamp(instructorId);
+        List<InstructorCourseDTO> courses = new ArrayList<>(courseRepository.findInstructorCourses(instructorId));
+        if (courses.isEmpty()) {
+            return Optional.empty();
+        }
+        courses.sort(BY_SCHEDULE);
+        TeachingLoadDTO load = TeachingLoadDTO.of(courses);
+        synchronized (this) {
+            if (stamps[stripe(instructorId)] == stamp) {
+                cache.put(instructorId, load);
+                courses.forEach(course -> instructorByCourse.put(course.getId(), instructorId));
+            }
+        }
+        return Optional.of(load);
+    }
+
+    // 2. 课程新增/修改：提交后失效相关讲师（修改讲师时传入新旧两个讲师ID）
+    public void onCourseChanged(String... instructorIds) {
+        List<String> ids = Arrays.stream(instructorIds).filter(Objects::nonNull).distinct().toList();
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                ids.forEach(this::invalidate);
+            }
+        });
+    }
+
+    // 3. 课程删除（按主键，条件删除不会读出讲师）：提交后按索引失效；删除很少发生，
+    // 推进全部变更戳，让并发加载中的旧结果都放弃回填
+    public void onCourseDeleted(String courseId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                for (int i = 0; i < STAMP_STRIPES; i++) {
+                    stamps[i]++;
+                }
+                String instructorId = instructorByCourse.remove(courseId);
+                if (instructorId != null) {
+                    cache.remove(instructorId);
+                }
+            }
+        });
+    }
+
+    private void invalidate(String instructorId) {
+        stamps[stripe(instructorId)]++;
+        cache.remove(instructorId);
+    }
+
+    private synchronized long stamp(String instructorId) {
+        return stamps[stripe(instructorId)];
+    }
+
+    private static int stripe(String instructorId) {
+        return Math.floorMod(instructorId.hashCode(), STAMP_STRIPES);
+    }
+
+    // 按周一到周日排序，无法识别的星期排在最后
+    private static int dayOrder(String dayOfWeek) {
+        try {
+            return DayOfWeek.valueOf(dayOfWeek.trim().toUpperCase()).getValue();
+        } catch (RuntimeException e) {
+            return Integer.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.cyd.catalogservice.trace;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+// datasource-proxy 监听器：把每条语句的耗时计入当前请求的追踪上下文，超过阈值的语句作为慢查询导出
+// 只记录语句文本（参数为 ? 占位符），不记录参数值
+public class SqlTraceListener implements QueryExecutionListener {
+    private final TraceExporter exporter;
+    private final long slowQueryMillis;
+
+    public SqlTraceListener(TraceExporter exporter, long slowQueryMillis) {
+        this.exporter = exporter;
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        boolean slow = elapsed >= slowQueryMillis;
+        String sql = queryInfoList.size() == 1 ? queryInfoList.get(0).getQuery()
+                : String.join("; ", queryInfoList.stream().map(QueryInfo::getQuery).toList());
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) {
+            trace.recordSql(sql, elapsed, slow);
+        }
+        if (slow) {
+            exporter.slowQuery(trace, sql, elapsed, execInfo.isBatch() ? execInfo.getBatchSize() : 1);
+        }
+    }
+}
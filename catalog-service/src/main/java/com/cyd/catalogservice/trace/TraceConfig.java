@@ -0,0 +1,32 @@
+package com.cyd.catalogservice.trace;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+// 用 datasource-proxy 包装应用数据源，每条语句执行后回调 SqlTraceListener（替代 show-sql 全量打印）
+@Configuration
+public class TraceConfig {
+    @Bean
+    static BeanPostProcessor tracingDataSourcePostProcessor(Environment environment, ObjectProvider<TraceExporter> exporter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)
+                        || !environment.getProperty("trace.enabled", Boolean.class, true)) {
+                    return bean;
+                }
+                long slowQueryMillis = environment.getProperty("trace.sql.slow-query-millis", Long.class, 200L);
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new SqlTraceListener(exporter.getObject(), slowQueryMillis))
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,157 @@
+package com.cyd.catalogservice.trace;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 追踪导出：慢查询、N+1、慢请求摘要按 JSON Lines 追加写入本地文件（不依赖任何外部采集服务）
+// 请求线程只把记录放入有界队列，由单个后台线程写文件；队列满时丢弃并计数，不阻塞业务请求
+@Component
+public class TraceExporter {
+    // SQL 文本截断长度
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<String> queue;
+    private final Path file;
+    private final String service;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public TraceExporter(
+            @Value("${trace.export.file:logs/trace-catalog-service.jsonl}") String file,
+            @Value("${trace.export.queue-capacity:10000}") int queueCapacity,
+            @Value("${spring.application.name:catalog-service}") String service) {
+        this.file = Path.of(file);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.service = service;
+        this.writer = new Thread(this::drain, "trace-exporter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // 1. 慢查询（trace 为 null 表示发生在请求之外，如定时任务）
+    public void slowQuery(RequestTrace trace, String sql, long elapsedMillis, int batchSize) {
+        Map<String, Object> record = record("slow-query", trace);
+        record.put("elapsedMs", elapsedMillis);
+        record.put("batchSize", batchSize);
+        record.put("sql", truncate(sql));
+        offer(record);
+    }
+
+    // 2. N+1：同一条语句在一个请求内重复执行
+    public void nPlusOne(RequestTrace trace, String sql, int count) {
+        Map<String, Object> record = record("n-plus-one", trace);
+        record.put("count", count);
+        record.put("sql", truncate(sql));
+        offer(record);
+    }
+
+    // 3. 请求摘要：SQL 次数/耗时、出站调用次数/耗时
+    public void request(RequestTrace trace, int status) {
+        Map<String, Object> record = record("request", trace);
+        record.put("status", status);
+        record.put("durationMs", trace.elapsedMillis());
+        record.put("sqlCount", trace.getSqlCount());
+        record.put("sqlMs", trace.getSqlMillis());
+        record.put("slowQueries", trace.getSlowQueries());
+        record.put("outboundCalls", trace.getOutboundCalls());
+        record.put("outboundMs", trace.getOutboundMillis());
+        offer(record);
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private Map<String, Object> record(String type, RequestTrace trace) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("time", Instant.now().toString());
+        record.put("service", service);
+        record.put("type", type);
+        if (trace != null) {
+            record.put("traceId", trace.getTraceId());
+            record.put("method", trace.getMethod());
+            record.put("path", trace.getPath());
+        }
+        return record;
+    }
+
+    private void offer(Map<String, Object> record) {
+        try {
+            if (!queue.offer(objectMapper.writeValueAsString(record))) {
+                dropped.incrementAndGet();
+            }
+        } catch (JsonProcessingException e) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        List<String> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                String first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<String> lines) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (String line : lines) {
+                    out.write(line);
+                    out.newLine();
+                }
+            }
+        } catch (IOException e) {
+            dropped.addAndGet(lines.size());
+            System.err.println("Failed to write trace file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String truncate(String sql) {
+        return sql.length() <= MAX_SQL_LENGTH ? sql : sql.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+
+    // 关闭时写完队列中剩余的记录
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(5000);
+    }
+}
@@ -0,0 +1,144 @@
+package com.cyd.catalogservice.compression;
+
+import com.cyd.catalogservice.model.Course;
+import com.cyd.catalogservice.model.Instructor;
+import com.cyd.catalogservice.model.ScheduleSlot;
+import com.cyd.catalogservice.repository.CourseRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// 大列表响应的体积预算：序列化字段膨胀（如误输出关联对象）或压缩失效时测试失败；
+// 同时校验小响应不压缩、gzip 请求体可正常解压
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ResponseSizeBudgetTests {
+    private static final int COURSES = 500;
+    // 每门课程的字节预算：未压缩 JSON / gzip 后
+    private static final int RAW_BYTES_PER_COURSE = 450;
+    private static final int GZIP_BYTES_PER_COURSE = 64;
+
+    private static final String[] DAYS = {"MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY"};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < COURSES; i++) {
+            Course course = new Course();
+            course.setCode(String.format("CS%04d", i));
+            course.setTitle("Course " + i);
+            course.setInstructor(new Instructor(String.format("T%03d", i % 50), "Instructor " + i % 50,
+                    String.format("t%03d@example.com", i % 50)));
+            course.setSchedule(new ScheduleSlot(DAYS[i % DAYS.length], "08:00", "09:40", 30));
+            course.setCapacity(30 + i % 20);
+            courses.add(course);
+        }
+        courseRepository.saveAll(courses);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        courseRepository.deleteAll();
+    }
+
+    @Test
+    void courseListingStaysWithinSizeBudget() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get("/api/courses").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+        MockHttpServletResponse gzipped = mockMvc.perform(get("/api/courses").accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br")).andReturn().getResponse();
+
+        byte[] raw = plain.getContentAsByteArray();
+        byte[] compressed = gzipped.getContentAsByteArray();
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(new String(raw, StandardCharsets.UTF_8), new String(gunzip(compressed), StandardCharsets.UTF_8));
+        assertEquals(COURSES, objectMapper.readTree(raw).get("data").size());
+        assertTrue(raw.length <= COURSES * RAW_BYTES_PER_COURSE,
+                "Uncompressed listing is " + raw.length + " bytes, budget " + COURSES * RAW_BYTES_PER_COURSE);
+        assertTrue(compressed.length <= COURSES * GZIP_BYTES_PER_COURSE,
+                "Compressed listing is " + compressed.length + " bytes, budget " + COURSES * GZIP_BYTES_PER_COURSE);
+    }
+
+    @Test
+    void smallResponsesAreNotCompressed() throws Exception {
+        String id = courseRepository.findAll().get(0).getId();
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/courses/{id}", id)
+                .accept(MediaType.APPLICATION_JSON).header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+    }
+
+    @Test
+    void gzipRequestBodyIsDecompressed() throws Exception {
+        Course course = courseRepository.findAll().get(0);
+        byte[] body = gzip(("{\"" + course.getId() + "\": 2}").getBytes(StandardCharsets.UTF_8));
+
+        MockHttpServletResponse response = mockMvc.perform(post("/api/courses/enrolled/adjustments")
+                .contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.CONTENT_ENCODING, "gzip").content(body))
+                .andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertEquals(2, courseRepository.findById(course.getId()).orElseThrow().getEnrolled());
+    }
+
+    @Test
+    void unsupportedRequestEncodingIsRejected() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(post("/api/courses/enrolled/adjustments")
+                .contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.CONTENT_ENCODING, "br").content(new byte[]{1}))
+                .andReturn().getResponse();
+
+        assertEquals(415, response.getStatus());
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
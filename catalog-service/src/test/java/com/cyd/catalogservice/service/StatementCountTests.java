@@ -0,0 +1,134 @@
+package com.cyd.catalogservice.service;
+
+import com.cyd.catalogservice.DTO.TeachingLoadDTO;
+import com.cyd.catalogservice.model.Course;
+import com.cyd.catalogservice.model.Instructor;
+import com.cyd.catalogservice.model.ScheduleSlot;
+import com.cyd.catalogservice.repository.CourseRepository;
+import com.cyd.catalogservice.repository.CourseSeatStripeRepository;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 每个服务方法执行的 SQL 语句数（datasource-proxy 按线程计数），防止删除路径退回“先查后删”的多次往返；
+// 讲师授课负载校验一条查询加载、命中缓存时不访问数据库
+@SpringBootTest
+@ActiveProfiles("h2")
+@Import(StatementCountTests.CountingDataSourceConfig.class)
+class StatementCountTests {
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private CourseSeatService seatService;
+
+    @Autowired
+    private TeachingLoadService teachingLoadService;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseSeatStripeRepository stripeRepository;
+
+    @AfterEach
+    void cleanUp() {
+        stripeRepository.deleteAll();
+        courseRepository.deleteAll();
+    }
+
+    @Test
+    void deleteCourseRunsOneStatement() {
+        Course course = saveCourse("CS901");
+
+        assertEquals(1, countStatements(() -> courseService.deleteCourse(course.getId())));
+        assertFalse(courseRepository.existsById(course.getId()));
+    }
+
+    @Test
+    void deleteHotCourseAlsoDeletesStripes() {
+        Course course = saveCourse("CS902");
+        seatService.markHot(course.getId(), 2);
+
+        assertEquals(3, countStatements(() -> courseService.deleteCourse(course.getId())));
+        assertFalse(courseRepository.existsById(course.getId()));
+        assertTrue(stripeRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void deleteMissingCourseIsReportedWithoutLoadingEntities() {
+        assertEquals(3, countStatements(() ->
+                assertThrows(RuntimeException.class, () -> courseService.deleteCourse("missing"))));
+    }
+
+    @Test
+    void teachingLoadIsOneQueryAndNotInvalidatedBySeatChanges() {
+        Course first = saveCourse("CS903");
+        saveCourse("CS904");
+        AtomicReference<TeachingLoadDTO> load = new AtomicReference<>();
+
+        assertEquals(1, countStatements(() -> load.set(teachingLoadService.getTeachingLoad("T900").orElseThrow())));
+        assertEquals(2, load.get().getCourseCount());
+        assertEquals(200, load.get().getWeeklyMinutes());
+        assertEquals(60, load.get().getTotalCapacity());
+        assertEquals(0, load.get().getTotalEnrolled());
+
+        assertEquals(0, countStatements(() -> teachingLoadService.getTeachingLoad("T900")));
+
+        // 占座不失效缓存：已选人数最多滞后一个 TTL
+        seatService.reserve(first.getId(), 1);
+        assertEquals(0, countStatements(() -> load.set(teachingLoadService.getTeachingLoad("T900").orElseThrow())));
+        assertEquals(0, load.get().getTotalEnrolled());
+    }
+
+    private long countStatements(Runnable action) {
+        QueryCountHolder.clear();
+        action.run();
+        long total = QueryCountHolder.getGrandTotal().getTotal();
+        QueryCountHolder.clear();
+        return total;
+    }
+
+    private Course saveCourse(String code) {
+        Course course = new Course();
+        course.setCode(code);
+        course.setTitle("Test " + code);
+        course.setInstructor(new Instructor("T900", "Test Instructor", "t900@example.com"));
+        course.setSchedule(new ScheduleSlot("MONDAY", "08:00", "09:40", 30));
+        course.setCapacity(30);
+        return courseRepository.save(course);
+    }
+
+    // 用 datasource-proxy 包装应用的数据源，开启按线程的语句计数
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource).name(beanName).countQuery().build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.cyd.enrollmentservice.DTO;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+import java.util.List;
+
+// 归档任务请求：已结束的学期列表（如 2024-FALL）+ 节流参数
+@Data
+public class ArchiveJobRequestDTO {
+    @NotEmpty(message = "Term list cannot be empty")
+    private List<String> terms;
+
+    // 每批迁移条数（单条 INSERT/DELETE 涉及的行数上限）
+    @Positive(message = "Batch size must be positive")
+    @Max(value = 5000, message = "Batch size cannot exceed 5000")
+    private Integer batchSize = 500;
+
+    // 批次之间的暂停时长（毫秒），避免长时间占用主库
+    @PositiveOrZero(message = "Pause must not be negative")
+    private Long pauseMillis = 50L;
+}
@@ -0,0 +1,25 @@
+package com.cyd.enrollmentservice.DTO;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+import java.util.List;
+
+// 批量结课任务请求：课程列表 + 节流参数
+@Data
+public class CompletionJobRequestDTO {
+    @NotEmpty(message = "Course ID list cannot be empty")
+    private List<String> courseIds;
+
+    // 每批更新条数（单条 UPDATE 涉及的行数上限）
+    @Positive(message = "Batch size must be positive")
+    @Max(value = 5000, message = "Batch size cannot exceed 5000")
+    private Integer batchSize = 500;
+
+    // 批次之间的暂停时长（毫秒），避免长时间占用主库
+    @PositiveOrZero(message = "Pause must not be negative")
+    private Long pauseMillis = 50L;
+}
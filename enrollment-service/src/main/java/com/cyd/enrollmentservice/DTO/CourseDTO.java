@@ -0,0 +1,30 @@
+package com.cyd.enrollmentservice.DTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// catalog-service 课程信息的精简视图：只保留选课服务需要的字段，其余字段（讲师、创建时间等）反序列化时忽略
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CourseDTO {
+    private String id;
+    private String code;
+    private String title;
+    private Integer capacity;
+    private Integer enrolled;
+    private Schedule schedule;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Schedule {
+        private String dayOfWeek;
+        private String startTime;
+        private String endTime;
+    }
+}
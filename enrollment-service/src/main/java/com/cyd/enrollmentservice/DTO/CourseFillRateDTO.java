@@ -0,0 +1,16 @@
+package com.cyd.enrollmentservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 课程填充率：active 来自本地聚合表，capacity 来自 catalog-service（不可用时为 null）
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseFillRateDTO {
+    private String courseId;
+    private long active;
+    private Integer capacity;
+    private Double fillRate;
+}
@@ -0,0 +1,17 @@
+package com.cyd.enrollmentservice.DTO;
+
+import com.cyd.enrollmentservice.model.EnrollmentEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 事件拉取结果：nextOffset 为下一次拉取时应传入的 after 参数
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventBatchDTO {
+    private List<EnrollmentEvent> events;
+    private long nextOffset;
+}
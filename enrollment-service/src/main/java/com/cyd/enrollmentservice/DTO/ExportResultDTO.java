@@ -0,0 +1,25 @@
+package com.cyd.enrollmentservice.DTO;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 快照导出结果：每个数据集的时间范围 (since, until]、行数与文件路径
+@Data
+@NoArgsConstructor
+public class ExportResultDTO {
+    private String status;
+    private boolean incremental;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private LocalDateTime until;
+    private Map<String, LocalDateTime> since = new LinkedHashMap<>();
+    private Map<String, Long> rows = new LinkedHashMap<>();
+    private List<String> files = new ArrayList<>();
+    private String message;
+}
@@ -0,0 +1,20 @@
+package com.cyd.enrollmentservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 聚合统计结果：key 为聚合维度（课程ID/专业/年级），active = 选课 - 退课 - 结课
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupStatDTO {
+    private String key;
+    private long enrolled;
+    private long dropped;
+    private long completed;
+
+    public long getActive() {
+        return enrolled - dropped - completed;
+    }
+}
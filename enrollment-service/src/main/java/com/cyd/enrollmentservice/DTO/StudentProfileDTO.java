@@ -0,0 +1,23 @@
+package com.cyd.enrollmentservice.DTO;
+
+import com.cyd.enrollmentservice.model.EnrollmentStatus;
+import com.cyd.enrollmentservice.model.Student;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// 学生档案读模型：学生信息 + 选课摘要（当前在修课程、各状态选课数），供门户档案页一次请求获取
+// 缓存中的实例视为不可变，更新时整体替换
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentProfileDTO {
+    private Student student;
+    // 当前 ACTIVE 状态的课程ID
+    private List<String> activeCourseIds;
+    // 各状态选课数（ACTIVE / DROPPED / COMPLETED）
+    private Map<EnrollmentStatus, Long> statusCounts;
+}
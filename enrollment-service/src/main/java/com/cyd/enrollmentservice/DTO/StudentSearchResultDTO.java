@@ -0,0 +1,17 @@
+package com.cyd.enrollmentservice.DTO;
+
+import com.cyd.enrollmentservice.model.Student;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// 学生检索结果：一页学生（不超过 limit 条）；nextCursor 为下一页应传入的 cursor，没有更多结果时为 null
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentSearchResultDTO {
+    private List<Student> students;
+    private String nextCursor;
+}
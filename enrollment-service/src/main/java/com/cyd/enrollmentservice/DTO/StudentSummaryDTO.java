@@ -0,0 +1,35 @@
+package com.cyd.enrollmentservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Set;
+
+// 学生列表精简视图（JPQL 构造器投影）：只查询 id/studentId/name 三列，结果不是托管实体，Hibernate 不保存脏检查快照
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentSummaryDTO {
+    // 精简视图可覆盖的字段；fields 参数只请求这些字段时走投影查询
+    public static final Set<String> FIELDS = Set.of("id", "studentId", "name");
+
+    private String id;
+    private String studentId;
+    private String name;
+
+    // fields 为空表示返回完整学生信息；fields=summary 或字段全部属于 FIELDS 时返回精简视图
+    public static boolean covers(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return false;
+        }
+        if ("summary".equalsIgnoreCase(fields.trim())) {
+            return true;
+        }
+        return Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .allMatch(FIELDS::contains);
+    }
+}
@@ -0,0 +1,17 @@
+package com.cyd.enrollmentservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// 选课速率：每小时的选课/退课次数
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VelocityPointDTO {
+    private LocalDateTime hour;
+    private long enrolled;
+    private long dropped;
+}
@@ -1,19 +1,42 @@
 package com.cyd.enrollmentservice;
 
+import com.cyd.enrollmentservice.compression.GzipRestTemplateInterceptor;
+import com.cyd.enrollmentservice.trace.TraceRestTemplateInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @SpringBootApplication
+@EnableScheduling  // 每晚定时快照导出、待确认选课的后台确认
 public class EnrollmentServiceApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(EnrollmentServiceApplication.class, args);
     }
     // 注册RestTemplate Bean，用于服务间HTTP调用
+    // 使用 JDK HttpClient 实现：默认的 HttpURLConnection 不支持 PATCH 方法；拦截器把追踪ID传给 catalog-service，
+    // 并对请求/响应体做 gzip 压缩（压缩拦截器放在最后，最贴近网络）
+    // 连接/读取超时：catalog-service 挂起时尽快失败并进入降级路径，而不是占住请求线程
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(TraceRestTemplateInterceptor traceInterceptor,
+                                     GzipRestTemplateInterceptor gzipInterceptor,
+                                     @Value("${catalog-service.connect-timeout-millis:1000}") long connectTimeoutMillis,
+                                     @Value("${catalog-service.read-timeout-millis:3000}") long readTimeoutMillis) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(traceInterceptor);
+        restTemplate.getInterceptors().add(gzipInterceptor);
+        return restTemplate;
     }
 }
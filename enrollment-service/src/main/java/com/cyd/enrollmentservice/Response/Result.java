@@ -27,6 +27,11 @@ public class Result<T> {
         return new Result<>(201, "Created Success", data);
     }
 
+    // 已受理但尚未生效（如降级模式下待确认的选课）
+    public static <T> Result<T> accepted(T data) {
+        return new Result<>(202, "Accepted", data);
+    }
+
     public static <T> Result<T> error(Integer code, String message) {
         return new Result<>(code, message, null);
     }
@@ -0,0 +1,226 @@
+package com.cyd.enrollmentservice.client;
+
+import com.cyd.enrollmentservice.DTO.CourseDTO;
+import com.cyd.enrollmentservice.Response.Result;
+import com.cyd.enrollmentservice.common.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// catalog-service 调用客户端：统一封装 URL、内容协商与异常转换，返回强类型 DTO 而非 Map
+// 连接失败、超时或 5xx 抛出 CatalogUnavailableException，连续 failure-threshold 次失败后在 open-seconds 内直接拒绝后续调用
+// （不再逐个等待超时），调用方据此进入降级路径；4xx 仍按业务错误处理
+// 只有连接阶段的失败（拒绝连接、连接超时、无法解析/路由）才能确定请求未送达，读超时与 5xx 时写操作可能已在对端生效
+@Component
+public class CatalogClient {
+    // 服务间调用优先协商 CBOR（体积更小、解析更快），对端不支持时回退 JSON
+    private static final List<MediaType> ACCEPT_TYPES = List.of(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON);
+
+    private static final ParameterizedTypeReference<Result<CourseDTO>> COURSE_RESULT =
+            new ParameterizedTypeReference<>() {};
+
+    private static final ParameterizedTypeReference<Result<List<String>>> STRING_LIST_RESULT =
+            new ParameterizedTypeReference<>() {};
+
+    private static final ParameterizedTypeReference<Result<List<CourseDTO>>> COURSE_LIST_RESULT =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${catalog-service.url}")
+    private String catalogServiceUrl;
+
+    @Value("${enrollment.degraded.open-seconds:5}")
+    private long openSeconds;
+
+    // 连续失败达到该次数才打开熔断窗口，单次慢调用不影响后续请求
+    @Value("${enrollment.degraded.failure-threshold:3}")
+    private int failureThreshold;
+
+    // 熔断截止时间（毫秒时间戳），之前的调用直接抛出 CatalogUnavailableException
+    private volatile long unavailableUntil;
+    // 连续失败次数，任一调用得到对端应答（含 4xx）即清零
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    // 1. 按ID查询课程：课程不存在（HTTP 404 或 data 为空）返回 empty，其他调用失败抛出 RuntimeException
+    public Optional<CourseDTO> findCourse(String courseId) {
+        ensureAvailable();
+        try {
+            Result<CourseDTO> result = restTemplate.exchange(
+                    catalogServiceUrl + "/api/courses/{id}",
+                    HttpMethod.GET,
+                    new HttpEntity<>(internalHeaders(false)),
+                    COURSE_RESULT,
+                    courseId
+            ).getBody();
+            succeeded();
+            return result == null ? Optional.empty() : Optional.ofNullable(result.getData());
+        } catch (HttpClientErrorException.NotFound e) {
+            succeeded();
+            return Optional.empty();
+        } catch (RestClientException e) {
+            throw failure(e);
+        }
+    }
+
+    // 1-1. 课程快照 keyset 分页：返回主键大于 afterId 的下一页（按主键升序），用于启动预热课程缓存；调用失败抛出 RuntimeException
+    public List<CourseDTO> findCoursesAfter(String afterId, int limit) {
+        ensureAvailable();
+        try {
+            Result<List<CourseDTO>> result = restTemplate.exchange(
+                    catalogServiceUrl + "/api/courses/snapshot?afterId={afterId}&limit={limit}",
+                    HttpMethod.GET,
+                    new HttpEntity<>(internalHeaders(false)),
+                    COURSE_LIST_RESULT,
+                    afterId,
+                    limit
+            ).getBody();
+            succeeded();
+            return result == null || result.getData() == null ? List.of() : result.getData();
+        } catch (RestClientException e) {
+            throw failure(e);
+        }
+    }
+
+    // 2. 占座：catalog-service 以条件更新保证不超过容量（热门课程落在某个座位分片上）
+    // 名额不足（HTTP 409）返回 false，课程不存在（HTTP 404）抛出 ResourceNotFoundException，其他 4xx 抛出 CatalogRequestRejectedException，
+    // 其他调用失败抛出 CatalogUnavailableException
+    public boolean reserveSeats(String courseId, int count) {
+        return seatOperation("/api/courses/{id}/seats/reserve?count={count}", courseId, count);
+    }
+
+    // 2-1. 释放名额（补偿占座）：已选人数不足（HTTP 409）返回 false
+    public boolean releaseSeats(String courseId, int count) {
+        return seatOperation("/api/courses/{id}/seats/release?count={count}", courseId, count);
+    }
+
+    // 2-2. 多门课程一次占座（一次往返，全部成功或全部不占，部分失败由 catalog-service 归还已占名额）
+    // 返回未能占座的课程ID（名额不足或课程不存在），为空表示全部成功；调用失败抛出 RuntimeException
+    public List<String> reserveSeatsBatch(Map<String, Integer> counts) {
+        ensureAvailable();
+        try {
+            Result<List<String>> result = restTemplate.exchange(
+                    catalogServiceUrl + "/api/courses/seats/reserve-batch",
+                    HttpMethod.POST,
+                    new HttpEntity<>(counts, internalHeaders(true)),
+                    STRING_LIST_RESULT
+            ).getBody();
+            succeeded();
+            return result == null || result.getData() == null ? List.of() : result.getData();
+        } catch (RestClientException e) {
+            throw failure(e);
+        }
+    }
+
+    private boolean seatOperation(String path, String courseId, int count) {
+        ensureAvailable();
+        try {
+            restTemplate.exchange(
+                    catalogServiceUrl + path,
+                    HttpMethod.POST,
+                    new HttpEntity<>(internalHeaders(false)),
+                    Void.class,
+                    courseId,
+                    count
+            );
+            succeeded();
+            return true;
+        } catch (HttpClientErrorException.Conflict e) {
+            succeeded();
+            return false;
+        } catch (HttpClientErrorException.NotFound e) {
+            succeeded();
+            throw new ResourceNotFoundException("Course", courseId);
+        } catch (RestClientException e) {
+            throw failure(e);
+        }
+    }
+
+    // 3. 批量相对调整课程已选人数（如退课 {courseId: -1}），返回未能调整的课程ID（课程不存在或越界）
+    public List<String> adjustEnrolledCounts(Map<String, Integer> deltas) {
+        ensureAvailable();
+        try {
+            Result<List<String>> result = restTemplate.exchange(
+                    catalogServiceUrl + "/api/courses/enrolled/adjustments",
+                    HttpMethod.POST,
+                    new HttpEntity<>(deltas, internalHeaders(true)),
+                    STRING_LIST_RESULT
+            ).getBody();
+            succeeded();
+            return result == null || result.getData() == null ? List.of() : result.getData();
+        } catch (RestClientException e) {
+            throw failure(e);
+        }
+    }
+
+    // 4. 熔断窗口外视为可用（窗口结束后的第一次调用即探测）
+    public boolean isAvailable() {
+        return System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    private void ensureAvailable() {
+        if (!isAvailable()) {
+            throw new CatalogUnavailableException("catalog-service unavailable (circuit open)", openSeconds);
+        }
+    }
+
+    private void succeeded() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    // 4xx 是对端的业务应答，不影响可用性；其余（连接失败、超时、5xx）计入连续失败，达到阈值打开熔断窗口
+    private RuntimeException failure(RestClientException e) {
+        if (e instanceof HttpClientErrorException clientError) {
+            succeeded();
+            return new CatalogRequestRejectedException("Failed to call catalog-service: " + e.getMessage(),
+                    clientError.getStatusCode().value());
+        }
+        // 窗口结束后计数不清零：探测调用再失败即重新打开
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            unavailableUntil = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(openSeconds);
+        }
+        return new CatalogUnavailableException("catalog-service unavailable: " + e.getMessage(), openSeconds,
+                !connectFailure(e));
+    }
+
+    // 连接阶段失败：请求确定没有发出（JDK HttpClient 的连接超时为 HttpConnectTimeoutException，读超时为其父类 HttpTimeoutException）
+    private static boolean connectFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException
+                    || cause instanceof UnknownHostException || cause instanceof NoRouteToHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private HttpHeaders internalHeaders(boolean withBody) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(ACCEPT_TYPES);
+        if (withBody) {
+            headers.setContentType(MediaType.APPLICATION_CBOR);
+        }
+        return headers;
+    }
+}
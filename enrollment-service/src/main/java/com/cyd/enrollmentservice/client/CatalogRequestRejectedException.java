@@ -0,0 +1,20 @@
+package com.cyd.enrollmentservice.client;
+
+// catalog-service 以 4xx 拒绝了请求（409、404 由调用处单独处理）：对端已应答且请求未执行，与“不可用”区分
+// 429 表示对端限流，稍后可重试；其余 4xx 对同一请求是确定的结果，重试不会成功
+public class CatalogRequestRejectedException extends RuntimeException {
+    private final int statusCode;
+
+    public CatalogRequestRejectedException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isRetryable() {
+        return statusCode == 429;
+    }
+}
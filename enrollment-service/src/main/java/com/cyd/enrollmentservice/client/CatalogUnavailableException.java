@@ -0,0 +1,26 @@
+package com.cyd.enrollmentservice.client;
+
+// catalog-service 不可用（连接失败、超时、5xx，或熔断窗口内直接拒绝）：与“课程不存在”区分，调用方据此进入降级路径或返回 503
+// requestDelivered 表示请求可能已到达 catalog-service（读超时、5xx）：写操作（占座）可能已经生效，不能当作未执行
+public class CatalogUnavailableException extends RuntimeException {
+    private final long retryAfterSeconds;
+    private final boolean requestDelivered;
+
+    public CatalogUnavailableException(String message, long retryAfterSeconds) {
+        this(message, retryAfterSeconds, false);
+    }
+
+    public CatalogUnavailableException(String message, long retryAfterSeconds, boolean requestDelivered) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.requestDelivered = requestDelivered;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public boolean isRequestDelivered() {
+        return requestDelivered;
+    }
+}
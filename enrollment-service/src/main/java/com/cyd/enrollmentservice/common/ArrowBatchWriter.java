@@ -0,0 +1,136 @@
+package com.cyd.enrollmentservice.common;
+
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+// Arrow IPC 文件写入器（列式、ZSTD 压缩）：逐行写入当前批次，攒满 batchRows 行写出一个 record batch 后复用同一组向量，
+// 内存占用只与批大小有关，与导出总行数无关。时间列按 UTC 存为毫秒时间戳（数据库中为不带时区的本地时间）
+public class ArrowBatchWriter implements AutoCloseable {
+    private final FileChannel channel;
+    private final VectorSchemaRoot root;
+    private final ArrowFileWriter writer;
+    private final int batchRows;
+    private int row;
+    private long totalRows;
+
+    public ArrowBatchWriter(Path file, Schema schema, BufferAllocator allocator, int batchRows,
+                            Map<String, String> metadata) throws IOException {
+        if (batchRows <= 0) {
+            throw new IllegalArgumentException("Batch rows must be positive");
+        }
+        this.batchRows = batchRows;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.root = VectorSchemaRoot.create(schema, allocator);
+        this.writer = new ArrowFileWriter(root, null, channel, metadata, IpcOption.DEFAULT,
+                CommonsCompressionFactory.INSTANCE, CompressionUtil.CodecType.ZSTD);
+        writer.start();
+        root.allocateNew();
+    }
+
+    // 列定义（均可为空）
+    public static Field utf8(String name) {
+        return Field.nullable(name, ArrowType.Utf8.INSTANCE);
+    }
+
+    public static Field int32(String name) {
+        return Field.nullable(name, new ArrowType.Int(32, true));
+    }
+
+    public static Field timestamp(String name) {
+        return Field.nullable(name, new ArrowType.Timestamp(TimeUnit.MILLISECOND, null));
+    }
+
+    public static Field bool(String name) {
+        return Field.nullable(name, ArrowType.Bool.INSTANCE);
+    }
+
+    // 1. 设置当前行的列值（下标与 Schema 中的列顺序一致）
+    public void setString(int column, String value) {
+        VarCharVector vector = (VarCharVector) root.getVector(column);
+        if (value == null) {
+            vector.setNull(row);
+        } else {
+            vector.setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public void setInt(int column, Integer value) {
+        IntVector vector = (IntVector) root.getVector(column);
+        if (value == null) {
+            vector.setNull(row);
+        } else {
+            vector.setSafe(row, value);
+        }
+    }
+
+    public void setTimestamp(int column, LocalDateTime value) {
+        TimeStampMilliVector vector = (TimeStampMilliVector) root.getVector(column);
+        if (value == null) {
+            vector.setNull(row);
+        } else {
+            vector.setSafe(row, value.toInstant(ZoneOffset.UTC).toEpochMilli());
+        }
+    }
+
+    public void setBoolean(int column, boolean value) {
+        ((BitVector) root.getVector(column)).setSafe(row, value ? 1 : 0);
+    }
+
+    // 2. 结束当前行：攒满一批即写出
+    public void endRow() throws IOException {
+        row++;
+        totalRows++;
+        if (row == batchRows) {
+            flush();
+        }
+    }
+
+    public long rows() {
+        return totalRows;
+    }
+
+    private void flush() throws IOException {
+        if (row == 0) {
+            return;
+        }
+        root.setRowCount(row);
+        writer.writeBatch();
+        root.allocateNew();
+        row = 0;
+    }
+
+    // 3. 写出最后一批与文件尾（footer）；异常时同样释放向量内存与文件句柄
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            writer.end();
+        } finally {
+            writer.close();
+            root.close();
+            channel.close();
+        }
+    }
+}
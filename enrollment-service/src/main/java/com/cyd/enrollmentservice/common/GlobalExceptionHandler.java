@@ -2,6 +2,8 @@ package com.cyd.enrollmentservice.common;
 
 
 import com.cyd.enrollmentservice.Response.Result;
+import com.cyd.enrollmentservice.client.CatalogUnavailableException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -15,6 +17,14 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
     }
 
+    // 处理 catalog-service 不可用（未被降级路径消化时）：503 + Retry-After，而不是 404
+    @ExceptionHandler(CatalogUnavailableException.class)
+    public ResponseEntity<Result<Void>> handleCatalogUnavailable(CatalogUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfterSeconds())))
+                .body(Result.error(503, e.getMessage()));
+    }
+
     // 处理参数错误异常（如重复选课、容量已满）
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Result<Void>> handleIllegalArgumentException(IllegalArgumentException e) {
@@ -0,0 +1,92 @@
+package com.cyd.enrollmentservice.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// 幂等键响应存储：同一 Idempotency-Key 的重试直接返回首次的成功响应，不再访问 catalog-service 与数据库
+@Component
+public class IdempotencyStore {
+    // 重放响应的标记头，便于客户端区分
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final BoundedCache<String, Entry> cache;
+    private final long waitMillis;
+
+    public IdempotencyStore(
+            @Value("${enrollment.idempotency.max-entries:10000}") int maxEntries,
+            @Value("${enrollment.idempotency.ttl-seconds:86400}") long ttlSeconds,
+            @Value("${enrollment.idempotency.wait-millis:5000}") long waitMillis) {
+        this.cache = new BoundedCache<>(maxEntries, TimeUnit.SECONDS.toMillis(ttlSeconds));
+        this.waitMillis = waitMillis;
+    }
+
+    // 执行带幂等键的请求：
+    // 1. 首次请求执行 action，仅缓存 2xx 响应（失败响应移除键，允许客户端重试）
+    // 2. 重复请求返回缓存的响应；首次请求仍在处理中时等待其结果
+    // 3. 同一键对应不同请求内容时拒绝（IllegalArgumentException）
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String key, String fingerprint, Supplier<ResponseEntity<T>> action) {
+        Entry created = new Entry(fingerprint, new CompletableFuture<>());
+        Entry existing = cache.putIfAbsent(key, created);
+        if (existing != null) {
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("Idempotency-Key already used for a different request: " + key);
+            }
+            return (ResponseEntity<T>) replay(awaitResponse(existing));
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            cache.remove(key);
+            created.response.completeExceptionally(e);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            cache.remove(key);
+        }
+        created.response.complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> awaitResponse(Entry entry) {
+        try {
+            return entry.response.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request");
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Original request with the same Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ResponseEntity<?> replay(ResponseEntity<?> original) {
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(original.getBody());
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final CompletableFuture<ResponseEntity<?>> response;
+
+        private Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+            this.fingerprint = fingerprint;
+            this.response = response;
+        }
+    }
+}
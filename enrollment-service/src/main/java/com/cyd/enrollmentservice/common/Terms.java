@@ -0,0 +1,40 @@
+package com.cyd.enrollmentservice.common;
+
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 学期编码：<学年起始年>-SPRING / <年>-FALL（2 月至 7 月为春季学期，8 月至次年 1 月为秋季学期）
+public final class Terms {
+    private static final Pattern TERM = Pattern.compile("(\\d{4})-(SPRING|FALL)");
+
+    private Terms() {
+    }
+
+    // 1. 按时间推算所属学期
+    public static String of(LocalDateTime time) {
+        int month = time.getMonthValue();
+        if (month == 1) {
+            return (time.getYear() - 1) + "-FALL";
+        }
+        return time.getYear() + (month <= 7 ? "-SPRING" : "-FALL");
+    }
+
+    public static String current() {
+        return of(LocalDateTime.now());
+    }
+
+    // 2. 学期是否已结束（早于当前学期）；格式不合法抛出 IllegalArgumentException
+    public static boolean isClosed(String term) {
+        return ordinal(term) < ordinal(current());
+    }
+
+    // 学期先后顺序：同一年春季在前、秋季在后
+    private static int ordinal(String term) {
+        Matcher matcher = TERM.matcher(term == null ? "" : term);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid term (expected e.g. 2025-FALL): " + term);
+        }
+        return Integer.parseInt(matcher.group(1)) * 2 + (matcher.group(2).equals("FALL") ? 1 : 0);
+    }
+}
@@ -0,0 +1,159 @@
+package com.cyd.enrollmentservice.compression;
+
+import com.cyd.enrollmentservice.Response.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// HTTP 压缩：解压 gzip 请求体；客户端接受 gzip 时按接口配置的阈值与级别压缩响应
+// 不使用 server.compression：Jackson 分块写出 JSON 时 Tomcat 不知道响应大小，阈值不生效，也不能按接口调整
+// 放在限流过滤器之后，被限流的请求不解压请求体（限流只预读未压缩的小请求体）
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class CompressionFilter extends OncePerRequestFilter {
+    private final CompressionProperties properties;
+    private final List<MediaType> mimeTypes;
+    private final List<Rule> rules = new ArrayList<>();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public CompressionFilter(CompressionProperties properties) {
+        this.properties = properties;
+        this.mimeTypes = properties.getMimeTypes().stream().map(MediaType::parseMediaType).toList();
+        requireLevel("default", properties.getLevel());
+        PathPatternParser parser = new PathPatternParser();
+        properties.getEndpoints().forEach((name, endpoint) -> {
+            if (endpoint.getPath() == null || endpoint.getPath().isBlank()) {
+                throw new IllegalArgumentException("Compression endpoint " + name + " has no path");
+            }
+            if (endpoint.getLevel() != null) {
+                requireLevel(name, endpoint.getLevel());
+            }
+            rules.add(new Rule(endpoint, parser.parse(endpoint.getPath())));
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // 1. 请求体：gzip 解压，其他编码返回 415
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding != null && !encoding.isBlank() && !encoding.trim().equalsIgnoreCase("identity")) {
+            if (!encoding.trim().equalsIgnoreCase("gzip")) {
+                reject(response, encoding);
+                return;
+            }
+            request = new GzipRequestWrapper(request, properties.getMaxRequestSize());
+        }
+        // 2. 响应：客户端接受 gzip、且接口未关闭压缩时包装响应（HEAD 没有响应体）
+        CompressionProperties.Endpoint endpoint = match(request);
+        if (request.getMethod().equals("HEAD") || !acceptsGzip(request)
+                || (endpoint != null && !endpoint.isEnabled())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        int threshold = endpoint != null && endpoint.getMinResponseSize() != null
+                ? endpoint.getMinResponseSize() : properties.getMinResponseSize();
+        int level = endpoint != null && endpoint.getLevel() != null ? endpoint.getLevel() : properties.getLevel();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        GzipResponseWrapper wrapper = new GzipResponseWrapper(response, Math.max(1, threshold), level, this::isCompressible);
+        chain.doFilter(request, wrapper);
+        wrapper.finish();
+    }
+
+    private CompressionProperties.Endpoint match(HttpServletRequest request) {
+        if (rules.isEmpty()) {
+            return null;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (Rule rule : rules) {
+            String method = rule.endpoint.getMethod();
+            if ((method == null || method.isBlank() || method.equalsIgnoreCase(request.getMethod()))
+                    && rule.pattern.matches(path)) {
+                return rule.endpoint;
+            }
+        }
+        return null;
+    }
+
+    // Accept-Encoding 中包含 gzip 或 *，且 q 不为 0
+    static boolean acceptsGzip(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        for (String part : header.split(",")) {
+            String[] tokens = part.split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        rejected = Double.parseDouble(param.substring(2)) == 0;
+                    } catch (NumberFormatException e) {
+                        rejected = true;
+                    }
+                }
+            }
+            if (!rejected) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            return mimeTypes.stream().anyMatch(candidate -> candidate.includes(type));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void reject(HttpServletResponse response, String encoding) throws IOException {
+        response.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                Result.error(415, "Unsupported Content-Encoding: " + encoding));
+    }
+
+    private static void requireLevel(String name, int level) {
+        if (level < 1 || level > 9) {
+            throw new IllegalArgumentException("Compression level for " + name + " must be between 1 and 9: " + level);
+        }
+    }
+
+    private record Rule(CompressionProperties.Endpoint endpoint, PathPattern pattern) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.cyd.enrollmentservice.compression;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 响应压缩配置（enrollment.compression.*）：全局阈值与压缩级别，可按接口（请求方法 + 路径模式）覆盖或关闭
+@Data
+@Component
+@ConfigurationProperties(prefix = "enrollment.compression")
+public class CompressionProperties {
+    private boolean enabled = true;
+    // 响应体达到该字节数才压缩，小响应压缩后收益不抵 CPU 与 gzip 头开销
+    private int minResponseSize = 2048;
+    // gzip 压缩级别（1 最快，9 压缩率最高）
+    private int level = 6;
+    // 只压缩这些内容类型（忽略参数，如 charset）
+    private List<String> mimeTypes = new ArrayList<>(List.of("application/json", "application/cbor", "text/plain"));
+    // gzip 请求体解压后的大小上限，防止压缩炸弹
+    private long maxRequestSize = 10 * 1024 * 1024;
+    // 按接口覆盖，按配置顺序匹配第一条
+    private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    // 调用 catalog-service 的客户端：请求体达到该字节数时 gzip 压缩，并声明接受 gzip 响应
+    private Client client = new Client();
+
+    @Data
+    public static class Endpoint {
+        // 为空表示匹配所有方法
+        private String method;
+        // Spring 路径模式，如 /api/enrollments/course/{courseId}
+        private String path;
+        // false 表示该接口不压缩
+        private boolean enabled = true;
+        // 为空时使用全局配置
+        private Integer minResponseSize;
+        private Integer level;
+    }
+
+    @Data
+    public static class Client {
+        private boolean enabled = true;
+        private int minRequestSize = 2048;
+        private int level = 1;
+    }
+}
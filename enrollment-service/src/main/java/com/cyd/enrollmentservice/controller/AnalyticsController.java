@@ -0,0 +1,64 @@
+package com.cyd.enrollmentservice.controller;
+
+import com.cyd.enrollmentservice.DTO.CourseFillRateDTO;
+import com.cyd.enrollmentservice.DTO.RollupStatDTO;
+import com.cyd.enrollmentservice.DTO.VelocityPointDTO;
+import com.cyd.enrollmentservice.Response.Result;
+import com.cyd.enrollmentservice.service.EnrollmentAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// 教务看板统计接口：全部基于 enrollment_rollups 聚合表查询
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+    @Autowired
+    private EnrollmentAnalyticsService analyticsService;
+
+    // 1. 单门课程填充率（GET /api/analytics/courses/{courseId}）
+    @GetMapping("/courses/{courseId}")
+    public ResponseEntity<Result<CourseFillRateDTO>> getCourseFillRate(@PathVariable String courseId) {
+        try {
+            return ResponseEntity.ok(Result.success(analyticsService.getCourseFillRate(courseId)));
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // 2. 按课程汇总活跃人数（GET /api/analytics/courses）
+    @GetMapping("/courses")
+    public Result<List<RollupStatDTO>> getCourseStats() {
+        return Result.success(analyticsService.summarizeByCourse());
+    }
+
+    // 3. 按专业汇总（GET /api/analytics/majors）
+    @GetMapping("/majors")
+    public Result<List<RollupStatDTO>> getMajorStats() {
+        return Result.success(analyticsService.summarizeByMajor());
+    }
+
+    // 4. 按年级汇总（GET /api/analytics/grades）
+    @GetMapping("/grades")
+    public Result<List<RollupStatDTO>> getGradeStats() {
+        return Result.success(analyticsService.summarizeByGrade());
+    }
+
+    // 5. 选课速率（GET /api/analytics/velocity?from=2025-09-01T08:00:00&to=2025-09-02T08:00:00）
+    @GetMapping("/velocity")
+    public ResponseEntity<Result<List<VelocityPointDTO>>> getVelocity(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        try {
+            return ResponseEntity.ok(Result.success(analyticsService.velocity(from, to)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
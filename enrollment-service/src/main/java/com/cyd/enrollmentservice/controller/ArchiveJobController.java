@@ -0,0 +1,64 @@
+package com.cyd.enrollmentservice.controller;
+
+import com.cyd.enrollmentservice.DTO.ArchiveJobRequestDTO;
+import com.cyd.enrollmentservice.Response.Result;
+import com.cyd.enrollmentservice.model.BatchJob;
+import com.cyd.enrollmentservice.service.EnrollmentCompletionJobService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+// 归档任务与结课任务共用 batch_jobs 表与执行线程，进度查询、暂停、恢复接口语义相同
+@RestController
+@RequestMapping("/api/enrollments/archive-jobs")
+@Validated
+public class ArchiveJobController {
+    @Autowired
+    private EnrollmentCompletionJobService batchJobService;
+
+    // 1. 创建归档任务（POST /api/enrollments/archive-jobs，请求体如 {"terms": ["2024-FALL"]}），后台异步执行
+    @PostMapping
+    public ResponseEntity<Result<BatchJob>> startJob(@Valid @RequestBody ArchiveJobRequestDTO request) {
+        try {
+            BatchJob job = batchJobService.startArchiveJob(request);
+            return new ResponseEntity<>(new Result<>(202, "Accepted", job), HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // 2. 查询任务进度（GET /api/enrollments/archive-jobs/{id}）
+    @GetMapping("/{id}")
+    public Result<BatchJob> getJob(@PathVariable String id) {
+        return batchJobService.findJob(id)
+                .map(Result::success)
+                .orElse(Result.error(404, "Batch job not found with id: " + id));
+    }
+
+    // 3. 暂停任务（POST /api/enrollments/archive-jobs/{id}/pause）
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<Result<BatchJob>> pauseJob(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(Result.success(batchJobService.pauseJob(id)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // 4. 从检查点恢复任务（POST /api/enrollments/archive-jobs/{id}/resume）
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<Result<BatchJob>> resumeJob(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(Result.success(batchJobService.resumeJob(id)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+}
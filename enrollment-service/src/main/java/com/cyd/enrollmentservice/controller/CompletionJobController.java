@@ -0,0 +1,59 @@
+package com.cyd.enrollmentservice.controller;
+
+import com.cyd.enrollmentservice.DTO.CompletionJobRequestDTO;
+import com.cyd.enrollmentservice.Response.Result;
+import com.cyd.enrollmentservice.model.BatchJob;
+import com.cyd.enrollmentservice.service.EnrollmentCompletionJobService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/enrollments/completion-jobs")
+@Validated
+public class CompletionJobController {
+    @Autowired
+    private EnrollmentCompletionJobService completionJobService;
+
+    // 1. 创建批量结课任务（POST /api/enrollments/completion-jobs），后台异步执行，立即返回任务信息
+    @PostMapping
+    public ResponseEntity<Result<BatchJob>> startJob(@Valid @RequestBody CompletionJobRequestDTO request) {
+        BatchJob job = completionJobService.startJob(request);
+        return new ResponseEntity<>(new Result<>(202, "Accepted", job), HttpStatus.ACCEPTED);
+    }
+
+    // 2. 查询任务进度（GET /api/enrollments/completion-jobs/{id}）
+    @GetMapping("/{id}")
+    public Result<BatchJob> getJob(@PathVariable String id) {
+        return completionJobService.findJob(id)
+                .map(Result::success)
+                .orElse(Result.error(404, "Batch job not found with id: " + id));
+    }
+
+    // 3. 暂停任务（POST /api/enrollments/completion-jobs/{id}/pause）
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<Result<BatchJob>> pauseJob(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(Result.success(completionJobService.pauseJob(id)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // 4. 从检查点恢复任务（POST /api/enrollments/completion-jobs/{id}/resume）
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<Result<BatchJob>> resumeJob(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(Result.success(completionJobService.resumeJob(id)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+}
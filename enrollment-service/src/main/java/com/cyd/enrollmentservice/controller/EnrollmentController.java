@@ -2,6 +2,7 @@ package com.cyd.enrollmentservice.controller;
 
 
 import com.cyd.enrollmentservice.Response.Result;
+import com.cyd.enrollmentservice.common.IdempotencyStore;
 import com.cyd.enrollmentservice.model.Enrollment;
 import com.cyd.enrollmentservice.model.EnrollmentStatus;
 import com.cyd.enrollmentservice.service.EnrollmentService;
@@ -13,6 +14,8 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/enrollments")
@@ -21,16 +24,73 @@ public class EnrollmentController {
     @Autowired
     private EnrollmentService enrollmentService;
 
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
     // 1. 学生选课（POST /api/enrollments）- 保留原功能与异常处理
+    // 支持 Idempotency-Key 请求头：超时重试时直接返回首次的成功响应，不重复校验与插入
     @PostMapping
-    public ResponseEntity<Result<Enrollment>> enrollCourse(@Valid @RequestBody Enrollment enrollment) {
+    public ResponseEntity<Result<Enrollment>> enrollCourse(
+            @Valid @RequestBody Enrollment enrollment,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return doEnrollCourse(enrollment);
+        }
+        String fingerprint = enrollment.getCourseId() + "|" + enrollment.getStudentId();
+        try {
+            return idempotencyStore.execute(idempotencyKey, fingerprint, () -> doEnrollCourse(enrollment));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            // 首次请求仍在处理中
+            return new ResponseEntity<>(Result.error(409, e.getMessage()), HttpStatus.CONFLICT);
+        }
+    }
+
+    // catalog-service 不可用时暂收为 PENDING 并返回 202（后台确认后转为 ACTIVE，名额不足时删除）；
+    // 无法降级时 CatalogUnavailableException 交给 GlobalExceptionHandler（503 + Retry-After，幂等键不缓存，客户端可重试），其他异常同样由其映射为 404
+    private ResponseEntity<Result<Enrollment>> doEnrollCourse(Enrollment enrollment) {
         try {
             Enrollment savedEnrollment = enrollmentService.enrollCourse(enrollment);
+            if (savedEnrollment.getStatus() == EnrollmentStatus.PENDING) {
+                return new ResponseEntity<>(Result.accepted(savedEnrollment), HttpStatus.ACCEPTED);
+            }
             return new ResponseEntity<>(Result.created(savedEnrollment), HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
-        } catch (RuntimeException e) {
-            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // 1-1. 批量选课（POST /api/enrollments/student/{studentId}/batch，请求体为课程ID数组）
+    // 全部成功或全部失败：任一课程已满/不存在/已选过返回 400；支持 Idempotency-Key（指纹为学号+课程ID集合）
+    @PostMapping("/student/{studentId}/batch")
+    public ResponseEntity<Result<List<Enrollment>>> enrollCourses(
+            @PathVariable String studentId,
+            @RequestBody List<String> courseIds,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return doEnrollCourses(studentId, courseIds);
+        }
+        String fingerprint = studentId + "|" + courseIds.stream().map(String::valueOf).sorted().distinct()
+                .collect(Collectors.joining(","));
+        try {
+            return idempotencyStore.execute(idempotencyKey, fingerprint, () -> doEnrollCourses(studentId, courseIds));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(Result.error(409, e.getMessage()), HttpStatus.CONFLICT);
+        }
+    }
+
+    private ResponseEntity<Result<List<Enrollment>>> doEnrollCourses(String studentId, List<String> courseIds) {
+        try {
+            List<Enrollment> enrollments = enrollmentService.enrollCourses(studentId, courseIds);
+            if (enrollments.get(0).getStatus() == EnrollmentStatus.PENDING) {
+                return new ResponseEntity<>(Result.accepted(enrollments), HttpStatus.ACCEPTED);
+            }
+            return new ResponseEntity<>(Result.created(enrollments), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
         }
     }
 
@@ -40,6 +100,24 @@ public class EnrollmentController {
         try {
             enrollmentService.dropCourse(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (IllegalArgumentException e) {
+            // 记录已退课/已结课
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // 2-1. 批量退课（POST /api/enrollments/student/{studentId}/drop，请求体为选课记录ID数组）
+    // 一个事务内完成，任一记录不可退则整体返回 400；成功返回已退课的记录ID
+    @PostMapping("/student/{studentId}/drop")
+    public ResponseEntity<Result<List<String>>> dropCourses(
+            @PathVariable String studentId,
+            @RequestBody List<String> enrollmentIds) {
+        try {
+            return ResponseEntity.ok(Result.success(enrollmentService.dropCourses(studentId, enrollmentIds)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
         }
@@ -53,14 +131,13 @@ public class EnrollmentController {
     }
 
     // 4. 按课程ID查询选课记录（GET /api/enrollments/course/{courseId}）- 保留原功能
+    // 默认只查主表（当前学期等未归档记录），includeArchived=true 时合并已归档的历史记录
     @GetMapping("/course/{courseId}")
-    public ResponseEntity<Result<List<Enrollment>>> getEnrollmentsByCourseId(@PathVariable String courseId) {
-        try {
-            List<Enrollment> enrollments = enrollmentService.findEnrollmentsByCourseId(courseId);
-            return new ResponseEntity<>(Result.success(enrollments), HttpStatus.OK);
-        } catch (RuntimeException e) {
-            return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
-        }
+    public ResponseEntity<Result<List<Enrollment>>> getEnrollmentsByCourseId(
+            @PathVariable String courseId,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
+        List<Enrollment> enrollments = enrollmentService.findEnrollmentsByCourseId(courseId, includeArchived);
+        return new ResponseEntity<>(Result.success(enrollments), HttpStatus.OK);
     }
 
 //    // 4-1. 课程+状态组合查询（适配任务三组合查询要求（{insert\_element\_10\_}））
@@ -78,16 +155,30 @@ public class EnrollmentController {
 //    }
 
     // 5. 按学生学号查询选课记录（GET /api/enrollments/student/{studentId}）- 保留原功能
+    // 默认只查主表，includeArchived=true 时合并已归档的历史记录
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<Result<List<Enrollment>>> getEnrollmentsByStudentId(@PathVariable String studentId) {
+    public ResponseEntity<Result<List<Enrollment>>> getEnrollmentsByStudentId(
+            @PathVariable String studentId,
+            @RequestParam(defaultValue = "false") boolean includeArchived) {
         try {
-            List<Enrollment> enrollments = enrollmentService.findEnrollmentsByStudentId(studentId);
+            List<Enrollment> enrollments = enrollmentService.findEnrollmentsByStudentId(studentId, includeArchived);
             return new ResponseEntity<>(Result.success(enrollments), HttpStatus.OK);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(Result.error(404, e.getMessage()), HttpStatus.NOT_FOUND);
         }
     }
 
+    // 4-2. 批量统计课程占座人数（ACTIVE + 已结课，POST /api/enrollments/active-counts，请求体为课程ID数组）
+    // 供 catalog-service 对账任务分批拉取，没有占座记录的课程不出现在结果中（视为 0）
+    @PostMapping("/active-counts")
+    public ResponseEntity<Result<Map<String, Long>>> countActiveByCourseIds(@RequestBody List<String> courseIds) {
+        try {
+            return ResponseEntity.ok(Result.success(enrollmentService.countActiveByCourseIds(courseIds)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // 5-1. 学生+状态组合查询（适配任务三组合查询要求（{insert\_element\_11\_}））
     @GetMapping("/student/{studentId}/status")
     public ResponseEntity<Result<List<Enrollment>>> getEnrollmentsByStudentIdAndStatus(
@@ -0,0 +1,34 @@
+package com.cyd.enrollmentservice.controller;
+
+import com.cyd.enrollmentservice.DTO.EventBatchDTO;
+import com.cyd.enrollmentservice.Response.Result;
+import com.cyd.enrollmentservice.service.EnrollmentEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/enrollments/events")
+public class EnrollmentEventController {
+    @Autowired
+    private EnrollmentEventService eventService;
+
+    // 1. 按偏移量拉取选课事件（GET /api/enrollments/events?after=0&limit=100&waitMs=25000）
+    // 消费方保存返回的 nextOffset，下次作为 after 传入；暂无新事件时请求最多挂起 waitMs 毫秒
+    @GetMapping
+    public ResponseEntity<Result<EventBatchDTO>> pollEvents(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(defaultValue = "25000") long waitMs
+    ) {
+        try {
+            return ResponseEntity.ok(Result.success(eventService.poll(after, limit, waitMs)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
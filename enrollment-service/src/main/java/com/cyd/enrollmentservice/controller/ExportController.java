@@ -0,0 +1,35 @@
+package com.cyd.enrollmentservice.controller;
+
+import com.cyd.enrollmentservice.DTO.ExportResultDTO;
+import com.cyd.enrollmentservice.Response.Result;
+import com.cyd.enrollmentservice.service.EnrollmentExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+    @Autowired
+    private EnrollmentExportService exportService;
+
+    // 1. 触发快照导出（POST /api/exports?incremental=true），后台执行，已有导出在运行时返回 409
+    @PostMapping
+    public ResponseEntity<Result<Void>> startExport(@RequestParam(defaultValue = "true") boolean incremental) {
+        try {
+            exportService.startExport(incremental);
+            return new ResponseEntity<>(new Result<>(202, "Accepted", null), HttpStatus.ACCEPTED);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(Result.error(409, e.getMessage()), HttpStatus.CONFLICT);
+        }
+    }
+
+    // 2. 最近一次导出的结果（GET /api/exports/latest）
+    @GetMapping("/latest")
+    public ResponseEntity<Result<ExportResultDTO>> latestExport() {
+        return exportService.lastResult()
+                .map(result -> ResponseEntity.ok(Result.success(result)))
+                .orElse(new ResponseEntity<>(Result.error(404, "No export has run yet"), HttpStatus.NOT_FOUND));
+    }
+}
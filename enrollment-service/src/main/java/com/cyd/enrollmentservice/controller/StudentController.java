@@ -1,8 +1,12 @@
 package com.cyd.enrollmentservice.controller;
 
 
+import com.cyd.enrollmentservice.DTO.StudentProfileDTO;
+import com.cyd.enrollmentservice.DTO.StudentSearchResultDTO;
+import com.cyd.enrollmentservice.DTO.StudentSummaryDTO;
 import com.cyd.enrollmentservice.Response.Result;
 import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.service.StudentProfileService;
 import com.cyd.enrollmentservice.service.StudentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +25,9 @@ public class StudentController {
     @Autowired
     private StudentService studentService;
 
+    @Autowired
+    private StudentProfileService profileService;
+
     // 1. 创建学生（POST /api/students）- 保留原功能与异常处理
     @PostMapping
     public ResponseEntity<Result<Student>> createStudent(@Valid @RequestBody Student student) {
@@ -33,9 +40,12 @@ public class StudentController {
         }
     }
 
-    // 2. 查询所有学生（GET /api/students）- 保留原功能
+    // 2. 查询所有学生（GET /api/students）- 保留原功能；fields=studentId,name 或 fields=summary 时只返回精简视图
     @GetMapping
-    public Result<List<Student>> getAllStudents() {
+    public Result<List<?>> getAllStudents(@RequestParam(required = false) String fields) {
+        if (StudentSummaryDTO.covers(fields)) {
+            return Result.success(studentService.findAllStudentSummaries());
+        }
         List<Student> students = studentService.findAllStudents();
         return Result.success(students);
     }
@@ -56,28 +66,63 @@ public class StudentController {
                 .orElse(Result.error(404, "Student not found with studentId: " + studentId));
     }
 
+    // 4-1. 学生档案（学生信息 + 在读课程ID + 各状态选课数），优先从读模型缓存返回
+    @GetMapping("/studentId/{studentId}/profile")
+    public ResponseEntity<Result<StudentProfileDTO>> getStudentProfile(@PathVariable String studentId) {
+        return profileService.getProfile(studentId)
+                .map(profile -> new ResponseEntity<>(Result.success(profile), HttpStatus.OK))
+                .orElse(new ResponseEntity<>(Result.error(404, "Student not found with studentId: " + studentId), HttpStatus.NOT_FOUND));
+    }
+
     // 5. 按专业分页查询学生（新增，适配任务三按专业筛选要求（{insert\_element\_22\_}））
     @GetMapping("/major/{major}")
-    public Result<Page<Student>> getStudentsByMajor(
+    public Result<Page<?>> getStudentsByMajor(
             @PathVariable String major,
             @RequestParam(defaultValue = "1") int pageNum,
-            @RequestParam(defaultValue = "10") int pageSize
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(required = false) String fields
     ) {
+        if (StudentSummaryDTO.covers(fields)) {
+            return Result.success(studentService.findStudentSummariesByMajor(major, pageNum, pageSize));
+        }
         Page<Student> studentPage = studentService.findStudentsByMajor(major, pageNum, pageSize);
         return Result.success(studentPage);
     }
 
     // 6. 按年级分页查询学生（新增，适配任务三按年级筛选要求（{insert\_element\_23\_}））
     @GetMapping("/grade/{grade}")
-    public Result<Page<Student>> getStudentsByGrade(
+    public Result<Page<?>> getStudentsByGrade(
             @PathVariable Integer grade,
             @RequestParam(defaultValue = "1") int pageNum,
-            @RequestParam(defaultValue = "10") int pageSize
+            @RequestParam(defaultValue = "10") int pageSize,
+            @RequestParam(required = false) String fields
     ) {
+        if (StudentSummaryDTO.covers(fields)) {
+            return Result.success(studentService.findStudentSummariesByGrade(grade, pageNum, pageSize));
+        }
         Page<Student> studentPage = studentService.findStudentsByGrade(grade, pageNum, pageSize);
         return Result.success(studentPage);
     }
 
+    // 6-1. 学生检索（GET /api/students/search?namePrefix=&emailDomain=&major=&grade=&cursor=&limit=）：条件任意组合，
+    // 结果按 keyset 分页，nextCursor 传回 cursor 取下一页；limit 超出范围或游标无效返回 400
+    @GetMapping("/search")
+    public ResponseEntity<Result<StudentSearchResultDTO>> searchStudents(
+            @RequestParam(required = false) String namePrefix,
+            @RequestParam(required = false) String emailDomain,
+            @RequestParam(required = false) String major,
+            @RequestParam(required = false) Integer grade,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            return ResponseEntity.ok(Result.success(
+                    studentService.searchStudents(namePrefix, emailDomain, major, grade, cursor, limit)));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Result.error(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     // 7. 更新学生信息（PUT /api/students/{id}）- 保留原功能与异常处理
     @PutMapping("/{id}")
     public ResponseEntity<Result<Student>> updateStudent(
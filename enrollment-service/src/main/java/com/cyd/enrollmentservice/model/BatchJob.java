@@ -0,0 +1,77 @@
+package com.cyd.enrollmentservice.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Entity
+// 只更新变化的列：执行线程写检查点时不会覆盖并发的暂停操作写入的 status
+@DynamicUpdate
+@Table(
+        name = "batch_jobs",
+        indexes = @Index(columnList = "status", name = "idx_batch_job_status")
+)
+// 后台批处理任务及其检查点：每批处理与检查点更新在同一事务内提交，中断后可从检查点继续
+public class BatchJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private BatchJobType type;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private BatchJobStatus status;
+
+    // 任务范围：逗号分隔的课程ID列表（归档任务为学期列表）
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String scope;
+
+    // 检查点：当前处理到的课程（学期）下标，以及其中最后处理的记录ID
+    @Column(name = "cursor_index", nullable = false)
+    private int cursorIndex;
+
+    @Column(name = "cursor_id")
+    private String cursorId;
+
+    // 进度：预计总数（启动时统计）与已处理数
+    @Column(nullable = false)
+    private long total;
+
+    @Column(nullable = false)
+    private long processed;
+
+    // 节流参数：每批条数与批次间暂停时长
+    @Column(name = "batch_size", nullable = false)
+    private int batchSize;
+
+    @Column(name = "pause_millis", nullable = false)
+    private long pauseMillis;
+
+    @Column(length = 500)
+    private String message;
+
+    @Column(name = "created_at", updatable = false, nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
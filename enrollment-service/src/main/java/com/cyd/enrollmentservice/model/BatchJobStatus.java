@@ -0,0 +1,9 @@
+package com.cyd.enrollmentservice.model;
+
+// 后台批处理任务状态
+public enum BatchJobStatus {
+    RUNNING,    // 执行中（服务重启后自动从检查点继续）
+    PAUSED,     // 已暂停（可手动恢复）
+    COMPLETED,  // 已完成
+    FAILED      // 执行失败（可手动恢复）
+}
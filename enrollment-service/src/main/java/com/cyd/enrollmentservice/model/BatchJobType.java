@@ -0,0 +1,7 @@
+package com.cyd.enrollmentservice.model;
+
+// 后台批处理任务类型
+public enum BatchJobType {
+    COMPLETION,  // 结课：ACTIVE -> COMPLETED
+    ARCHIVE      // 归档：已结束学期的非 ACTIVE 记录迁入 enrollments_archive
+}
@@ -1,6 +1,7 @@
 package com.cyd.enrollmentservice.model;
 
 
+import com.cyd.enrollmentservice.common.Terms;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -25,7 +26,13 @@ import java.time.LocalDateTime;
                 @Index(columnList = "course_id", name = "idx_enrollment_course"),
                 @Index(columnList = "student_id", name = "idx_enrollment_student"),
                 @Index(columnList = "course_id, status", name = "idx_enrollment_course_status"),
-                @Index(columnList = "student_id,status", name = "idx_enrollment_student_status")
+                @Index(columnList = "student_id,status", name = "idx_enrollment_student_status"),
+                // 归档任务按学期分批扫描
+                @Index(columnList = "term, id", name = "idx_enrollment_term"),
+                // 快照增量导出按选课时间水位读取
+                @Index(columnList = "enroll_time", name = "idx_enrollment_enroll_time"),
+                // 降级暂收的待确认记录按选课时间顺序确认
+                @Index(columnList = "status, enroll_time", name = "idx_enrollment_status_time")
         }
 )
 public class Enrollment {
@@ -53,13 +60,21 @@ public class Enrollment {
    // @CreationTimestamp  // Hibernate自动填充选课时间，无需手动set
     @Column(name = "enroll_time", updatable = false,nullable = false)  // 禁止更新选课时间
     private LocalDateTime enrollTime;
+
+    // 所属学期（如 2025-FALL），按选课时间推算；已结束学期的记录由归档任务迁入 enrollments_archive
+    @Column(length = 20)
+    private String term;
     // -------------------------- @PrePersist 回调方法 --------------------------
     @PrePersist
     public void prePersist() {
         // 1. 填充“选课时间”为当前时间（时间戳）
         this.enrollTime = LocalDateTime.now();
-        // 2. 填充“默认状态”为 ACTIVE（已选课，文档隐含“默认选课状态为有效”的需求）
-        this.status = EnrollmentStatus.ACTIVE;
+        // 2. 填充“默认状态”为 ACTIVE（已选课，文档隐含“默认选课状态为有效”的需求）；降级暂收时由服务层设为 PENDING
+        if (this.status != EnrollmentStatus.PENDING) {
+            this.status = EnrollmentStatus.ACTIVE;
+        }
+        // 3. 填充“所属学期”
+        this.term = Terms.of(this.enrollTime);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.cyd.enrollmentservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "enrollments_archive",
+        // 历史记录只按学生/课程查询（显式要求读取历史时），不再参与选课校验，因此不设唯一约束
+        indexes = {
+                @Index(columnList = "student_id, term", name = "idx_enrollment_archive_student"),
+                @Index(columnList = "course_id, term", name = "idx_enrollment_archive_course")
+        }
+)
+// 已结束学期的选课记录：归档任务按批从 enrollments 迁入，主表只保留当前学期等热数据
+public class EnrollmentArchive {
+    // 沿用原选课记录ID
+    @Id
+    private String id;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private EnrollmentStatus status;
+
+    @Column(name = "enroll_time", nullable = false)
+    private LocalDateTime enrollTime;
+
+    @Column(nullable = false, length = 20)
+    private String term;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // 转换为选课记录（合并查询历史时与主表记录使用同一响应结构）
+    public Enrollment toEnrollment() {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setId(id);
+        enrollment.setCourseId(courseId);
+        enrollment.setStudentId(studentId);
+        enrollment.setStatus(status);
+        enrollment.setEnrollTime(enrollTime);
+        enrollment.setTerm(term);
+        return enrollment;
+    }
+}
@@ -0,0 +1,56 @@
+package com.cyd.enrollmentservice.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(
+        name = "enrollment_events",
+        indexes = {
+                @Index(columnList = "course_id", name = "idx_event_course"),
+                @Index(columnList = "event_offset", name = "uk_event_offset", unique = true)
+        }
+)
+// 选课事件日志（只追加，发件箱）：业务事务内只插入事件（自增主键，偏移量为空），不加任何全局锁；
+// 发布任务在事件提交后按主键顺序分配偏移量（单调递增、无空洞），下游只读取已分配偏移量的事件
+public class EnrollmentEvent {
+    // 自增主键（插入顺序），只用于发布时排序，不对外暴露
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @JsonIgnore
+    private Long id;
+
+    // 事件偏移量（发布时分配，未发布时为空；唯一索引同时用于按偏移量读取与查找未发布事件）
+    @Column(name = "event_offset")
+    private Long eventOffset;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private EnrollmentEventType type;
+
+    @Column(name = "enrollment_id", nullable = false)
+    private String enrollmentId;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(name = "student_id", nullable = false)
+    private String studentId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    public EnrollmentEvent(EnrollmentEventType type, Enrollment enrollment, LocalDateTime occurredAt) {
+        this.type = type;
+        this.enrollmentId = enrollment.getId();
+        this.courseId = enrollment.getCourseId();
+        this.studentId = enrollment.getStudentId();
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,9 @@
+package com.cyd.enrollmentservice.model;
+
+// 选课事件类型：与选课状态流转一一对应
+public enum EnrollmentEventType {
+    ENROLLED,   // 选课
+    DROPPED,    // 退课
+    COMPLETED,  // 结课
+    REJECTED    // 待确认选课确认失败（名额不足或课程已删除），选课记录已删除
+}
@@ -0,0 +1,54 @@
+package com.cyd.enrollmentservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+        name = "enrollment_rollups",
+        // 聚合维度唯一：同一课程 + 专业 + 年级 + 小时只有一行计数（同时作为按课程查询的索引）
+        uniqueConstraints = @UniqueConstraint(
+                columnNames = {"course_id", "major", "grade", "bucket_hour"},
+                name = "uk_rollup_dimension"
+        ),
+        indexes = {
+                @Index(columnList = "major, grade", name = "idx_rollup_major_grade"),
+                @Index(columnList = "grade", name = "idx_rollup_grade"),
+                @Index(columnList = "bucket_hour", name = "idx_rollup_bucket")
+        }
+)
+public class EnrollmentRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "course_id", nullable = false)
+    private String courseId;
+
+    @Column(nullable = false, length = 50)
+    private String major;
+
+    @Column(nullable = false)
+    private Integer grade;
+
+    // 事件发生的小时（截断到整点），用于统计选课速率
+    @Column(name = "bucket_hour", nullable = false)
+    private LocalDateTime bucketHour;
+
+    // 该小时内的选课/退课/结课次数（增量累加）
+    @Column(name = "enrolled_count", nullable = false)
+    private long enrolledCount;
+
+    @Column(name = "dropped_count", nullable = false)
+    private long droppedCount;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+}
@@ -4,5 +4,6 @@ package com.cyd.enrollmentservice.model;
 public enum EnrollmentStatus {
     ACTIVE,    // 已选课（活跃状态）
     DROPPED,   // 已退课
-    COMPLETED  // 已结课（可选，根据业务扩展）
+    COMPLETED, // 已结课（可选，根据业务扩展）
+    PENDING    // 待确认：catalog-service 不可用时按最近的课程快照暂收，恢复后由后台任务占座确认（名额不足时删除记录）
 }
\ No newline at end of file
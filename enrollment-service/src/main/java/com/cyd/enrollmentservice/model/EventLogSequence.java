@@ -0,0 +1,26 @@
+package com.cyd.enrollmentservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 事件日志偏移量序列：只有发布任务在自己的短事务内对该行加写锁并递增（多实例的发布串行执行），
+// 保证偏移量按发布提交顺序可见；业务事务不再访问该行
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "event_log_sequences")
+public class EventLogSequence {
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    // 下一个可分配的偏移量
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
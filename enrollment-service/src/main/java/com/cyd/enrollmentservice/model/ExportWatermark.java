@@ -0,0 +1,34 @@
+package com.cyd.enrollmentservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "export_watermarks")
+// 快照导出水位：每个数据集（enrollments / students）上次导出覆盖到的时间，增量导出只读取水位之后的记录
+public class ExportWatermark {
+    // 数据集名称
+    @Id
+    @Column(length = 50)
+    private String dataset;
+
+    // 已导出的时间上界（enroll_time / created_at）
+    @Column(nullable = false)
+    private LocalDateTime watermark;
+
+    @Column(name = "last_file", length = 500)
+    private String lastFile;
+
+    @Column(name = "last_rows", nullable = false)
+    private long lastRows;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
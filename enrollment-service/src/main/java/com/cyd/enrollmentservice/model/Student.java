@@ -2,6 +2,7 @@ package com.cyd.enrollmentservice.model;
 
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -10,6 +11,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Data
 @NoArgsConstructor
@@ -22,8 +24,15 @@ import java.time.LocalDateTime;
                 @UniqueConstraint(columnNames = "email", name = "uk_student_email")
         },
         indexes = {
-                @Index(columnList = "major", name = "idx_student_major"),
-                @Index(columnList = "grade", name = "idx_student_grade")
+                // 学生检索：等值条件 + 学号组成复合索引，按学号 keyset 分页时直接沿索引顺序读取；姓名前缀按（姓名, 学号）范围扫描
+                // （原单列索引 idx_student_major / idx_student_grade 是 major_sid / grade_sid 的前缀，已移除）
+                @Index(columnList = "major, grade, student_id", name = "idx_student_major_grade_sid"),
+                @Index(columnList = "major, student_id", name = "idx_student_major_sid"),
+                @Index(columnList = "grade, student_id", name = "idx_student_grade_sid"),
+                @Index(columnList = "email_domain, student_id", name = "idx_student_email_domain_sid"),
+                @Index(columnList = "name, student_id", name = "idx_student_name_sid"),
+                // 快照增量导出按创建时间水位读取
+                @Index(columnList = "created_at", name = "idx_student_created_at")
         }
 )
 public class Student {
@@ -63,6 +72,12 @@ public class Student {
     @Column(name = "created_at", updatable = false,nullable = false)  // 数据库字段名标准化，禁止更新
     private LocalDateTime createdAt;
 
+    // 邮箱域名（小写，如 example.com）：由 email 派生，供按域名检索走索引；不对外序列化
+    // 列允许为空，升级前已有的学生由 StudentEmailDomainBackfill 启动时补齐
+    @JsonIgnore
+    @Column(name = "email_domain", length = 100)
+    private String emailDomain;
+
    // -------------------------- @PrePersist 回调方法 --------------------------
     // 作用：在 Student 实体被首次保存到数据库（insert）之前，自动执行此方法
     @PrePersist
@@ -73,5 +88,21 @@ public class Student {
         // if (this.major == null) {
         //     this.major = "未分配";
         // }
+        this.emailDomain = domainOf(this.email);
+    }
+
+    // 更新前同步邮箱域名
+    @PreUpdate
+    public void preUpdate() {
+        this.emailDomain = domainOf(this.email);
+    }
+
+    // 取 @ 之后的部分并转小写；没有 @ 时返回 null
+    public static String domainOf(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        return at < 0 ? null : email.substring(at + 1).trim().toLowerCase(Locale.ROOT);
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.cyd.enrollmentservice.ratelimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// 请求体预读：限流需要按请求体中的学号分桶时，先读出至多 maxBytes + 1 字节供解析，
+// 后续处理读到的仍是完整请求体（已读部分 + 原始流剩余部分），超过上限的请求体不解析
+class PeekedBodyRequestWrapper extends HttpServletRequestWrapper {
+    private final byte[] head;
+    private final boolean complete;
+    private ServletInputStream stream;
+    private BufferedReader reader;
+
+    PeekedBodyRequestWrapper(HttpServletRequest request, int maxBytes) throws IOException {
+        super(request);
+        this.head = request.getInputStream().readNBytes(maxBytes + 1);
+        this.complete = head.length <= maxBytes;
+    }
+
+    // 完整请求体；超过上限时返回 null
+    byte[] peekedBody() {
+        return complete ? head : null;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (reader != null) {
+            throw new IllegalStateException("getReader() has already been called for this request");
+        }
+        return body();
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            if (stream != null) {
+                throw new IllegalStateException("getInputStream() has already been called for this request");
+            }
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            reader = new BufferedReader(new InputStreamReader(body(), charset));
+        }
+        return reader;
+    }
+
+    private ServletInputStream body() throws IOException {
+        if (stream == null) {
+            InputStream in = complete ? new ByteArrayInputStream(head)
+                    : new SequenceInputStream(new ByteArrayInputStream(head), super.getInputStream());
+            stream = new ReplayStream(in);
+        }
+        return stream;
+    }
+
+    private static class ReplayStream extends ServletInputStream {
+        private final InputStream in;
+        private boolean finished;
+
+        ReplayStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            finished = n < 0;
+            return n;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            throw new UnsupportedOperationException("Non-blocking reads are not supported for peeked request bodies");
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.cyd.enrollmentservice.ratelimit;
+
+import com.cyd.enrollmentservice.Response.Result;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 选课接口限流：请求经过所有匹配的策略（按学号、按客户端IP），任一策略令牌不足即返回 429 + Retry-After
+// 先检查全部匹配策略再取令牌，被拒绝的请求不消耗其他策略的令牌
+// 按学号分桶而路径中没有学号时（POST /api/enrollments），从 JSON 请求体的 studentId 字段读取
+// 放在追踪过滤器之后，被拒绝的请求同样带追踪ID
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimitProperties properties;
+    private final List<Rule> rules = new ArrayList<>();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        PathPatternParser parser = new PathPatternParser();
+        properties.getPolicies().forEach((name, policy) -> {
+            if (policy.getPath() == null || policy.getPath().isBlank()) {
+                throw new IllegalArgumentException("Rate limit policy " + name + " has no path");
+            }
+            Rule rule = new Rule(name, policy, parser.parse(policy.getPath()),
+                    new TokenBucketLimiter(policy.getCapacity(), policy.getRefillPerSecond(), properties.getMaxKeysPerPolicy()),
+                    Counter.builder("enrollment.ratelimit.requests").tag("policy", name).tag("outcome", "allowed").register(meterRegistry),
+                    Counter.builder("enrollment.ratelimit.requests").tag("policy", name).tag("outcome", "rejected").register(meterRegistry));
+            meterRegistry.gauge("enrollment.ratelimit.keys", Tags.of("policy", name),
+                    rule.limiter, TokenBucketLimiter::size);
+            meterRegistry.more().counter("enrollment.ratelimit.evictions", Tags.of("policy", name),
+                    rule.limiter, TokenBucketLimiter::evictions);
+            meterRegistry.more().counter("enrollment.ratelimit.overflow", Tags.of("policy", name),
+                    rule.limiter, TokenBucketLimiter::overflowed);
+            rules.add(rule);
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || rules.isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        long now = System.nanoTime();
+        // 1. 匹配策略并计算分桶键（需要请求体中的学号时预读请求体，后续处理使用包装后的请求）
+        List<Match> matches = new ArrayList<>();
+        for (Rule rule : rules) {
+            String method = rule.policy.getMethod();
+            if (method != null && !method.isBlank() && !method.equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            PathPattern.PathMatchInfo match = rule.pattern.matchAndExtract(path);
+            if (match == null) {
+                continue;
+            }
+            String studentId = match.getUriVariables().get("studentId");
+            if (rule.policy.getKey() == RateLimitProperties.KeyType.STUDENT && (studentId == null || studentId.isBlank())) {
+                if (!(request instanceof PeekedBodyRequestWrapper) && readableBody(request)) {
+                    request = new PeekedBodyRequestWrapper(request, properties.getMaxBodyBytes());
+                }
+                studentId = studentIdFromBody(request);
+            }
+            matches.add(new Match(rule, studentId != null && !studentId.isBlank()
+                    ? "student:" + studentId : "client:" + clientAddress(request)));
+        }
+        // 2. 先检查全部策略，任一不足即拒绝，不取任何令牌
+        for (Match match : matches) {
+            long waitNanos = match.rule.limiter.check(match.key, now);
+            if (waitNanos > 0) {
+                match.rule.rejected.increment();
+                reject(response, match.rule.name, waitNanos);
+                return;
+            }
+        }
+        // 3. 再逐条取令牌；检查后被并发请求取走而不足时，归还本请求已取的令牌
+        for (int i = 0; i < matches.size(); i++) {
+            Match match = matches.get(i);
+            long waitNanos = match.rule.limiter.tryAcquire(match.key, now);
+            if (waitNanos > 0) {
+                for (int j = 0; j < i; j++) {
+                    matches.get(j).rule.limiter.release(matches.get(j).key);
+                }
+                match.rule.rejected.increment();
+                reject(response, match.rule.name, waitNanos);
+                return;
+            }
+        }
+        matches.forEach(match -> match.rule.allowed.increment());
+        chain.doFilter(request, response);
+    }
+
+    // 只预读未压缩的 JSON 请求体（压缩请求体由后面的压缩过滤器解压，这里按客户端IP分桶）
+    private boolean readableBody(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding != null && !encoding.isBlank() && !encoding.trim().equalsIgnoreCase("identity")) {
+            return false;
+        }
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                    && request.getContentLengthLong() <= properties.getMaxBodyBytes();
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    // 请求体中的 studentId；没有预读、请求体过大或无法解析时返回 null（退回按客户端IP）
+    private String studentIdFromBody(HttpServletRequest request) {
+        if (!(request instanceof PeekedBodyRequestWrapper peeked) || peeked.peekedBody() == null) {
+            return null;
+        }
+        try {
+            JsonNode studentId = objectMapper.readTree(peeked.peekedBody()).path("studentId");
+            return studentId.isTextual() ? studentId.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String clientAddress(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    // 429：Retry-After 取整到秒（至少 1 秒），响应体与其他接口一致使用 Result 结构
+    private void reject(HttpServletResponse response, String policy, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                Result.error(429, "Too many requests (" + policy + "), retry after " + retryAfter + "s"));
+    }
+
+    private record Match(Rule rule, String key) {
+    }
+
+    private record Rule(String name, RateLimitProperties.Policy policy, PathPattern pattern, TokenBucketLimiter limiter,
+                        Counter allowed, Counter rejected) {
+    }
+}
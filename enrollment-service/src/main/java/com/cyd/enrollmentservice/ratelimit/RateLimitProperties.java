@@ -0,0 +1,43 @@
+package com.cyd.enrollmentservice.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 限流配置（enrollment.rate-limit.*）：每条策略按 请求方法 + 路径模式 匹配接口，按学号或客户端IP分桶
+@Data
+@Component
+@ConfigurationProperties(prefix = "enrollment.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // 每条策略最多保留的分桶数，超出后清理空闲分桶，仍满时新键共用一个溢出桶
+    private int maxKeysPerPolicy = 100000;
+    // 部署在可信反向代理后时开启，按 X-Forwarded-For 第一个地址识别客户端
+    private boolean trustForwardedFor = false;
+    // 按请求体中的学号分桶时最多预读的请求体字节数，超过时按客户端IP分桶
+    private int maxBodyBytes = 8192;
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Data
+    public static class Policy {
+        // 为空表示匹配所有方法
+        private String method;
+        // Spring 路径模式，如 /api/enrollments/student/{studentId}/**
+        private String path;
+        private KeyType key = KeyType.CLIENT;
+        // 桶容量（允许的突发请求数）
+        private int capacity;
+        // 每秒补充令牌数（稳态速率）
+        private double refillPerSecond;
+    }
+
+    public enum KeyType {
+        // 按客户端IP分桶
+        CLIENT,
+        // 按路径变量 studentId 分桶；路径中没有学号时读取 JSON 请求体的 studentId 字段，仍没有时退回按客户端IP
+        STUDENT
+    }
+}
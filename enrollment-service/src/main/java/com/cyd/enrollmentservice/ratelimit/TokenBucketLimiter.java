@@ -0,0 +1,109 @@
+package com.cyd.enrollmentservice.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 单条限流策略的分桶集合：每个键一个令牌桶，无锁实现
+// 令牌桶以“理论到达时间”（TAT，桶内令牌按稳态速率全部补满的时刻）表示，状态只有一个 long，用 CAS 更新：
+// 每次请求把 TAT 推后一个令牌间隔，推后后超出 now + 桶容量 × 间隔 即为令牌不足，超出部分就是需要等待的时长
+// TAT 不晚于当前时间的桶已补满，与新建的桶等价，可直接淘汰
+public class TokenBucketLimiter {
+    // 分桶数达到上限时，最多每秒清理一次空闲分桶
+    private static final long SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    // 分桶数已满且没有空闲分桶可清理时，新键共用此桶（按单个键的额度限流，宁严勿松）
+    private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+    private final AtomicLong nextSweepAt = new AtomicLong(System.nanoTime());
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+
+    public TokenBucketLimiter(int capacity, double refillPerSecond, int maxKeys) {
+        if (capacity <= 0 || refillPerSecond <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("Rate limit capacity, refill rate and key limit must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = intervalNanos * capacity;
+        this.maxKeys = maxKeys;
+    }
+
+    // 1. 取一个令牌：成功返回 0，令牌不足返回需要等待的纳秒数
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = bucketFor(key, nowNanos);
+        }
+        while (true) {
+            long tat = bucket.get();
+            // nanoTime 只能比较差值
+            long next = (tat - nowNanos > 0 ? tat : nowNanos) + intervalNanos;
+            long excess = next - nowNanos - burstNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // 1-1. 只检查不取令牌：返回值含义同 tryAcquire（多条策略先全部检查，避免前面的策略白白扣掉令牌）
+    public long check(String key, long nowNanos) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            return 0;
+        }
+        long tat = bucket.get();
+        long excess = (tat - nowNanos > 0 ? tat : nowNanos) + intervalNanos - nowNanos - burstNanos;
+        return Math.max(0, excess);
+    }
+
+    // 1-2. 归还一个刚取到的令牌（后面的策略拒绝了同一请求时调用）；分桶已被清理或共用溢出桶时不归还（宁严勿松）
+    public void release(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.addAndGet(-intervalNanos);
+        }
+    }
+
+    private AtomicLong bucketFor(String key, long nowNanos) {
+        if (buckets.size() >= maxKeys) {
+            sweep(nowNanos);
+            if (buckets.size() >= maxKeys) {
+                overflowed.incrementAndGet();
+                return overflow;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+    }
+
+    // 2. 清理已补满的空闲分桶（与并发请求竞争时，被清理的键最多多得一个令牌）
+    private void sweep(long nowNanos) {
+        long due = nextSweepAt.get();
+        if (nowNanos - due < 0 || !nextSweepAt.compareAndSet(due, nowNanos + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> {
+            if (bucket.get() - nowNanos <= 0) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public long overflowed() {
+        return overflowed.get();
+    }
+}
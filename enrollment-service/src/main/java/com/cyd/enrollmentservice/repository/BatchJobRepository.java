@@ -0,0 +1,15 @@
+package com.cyd.enrollmentservice.repository;
+
+import com.cyd.enrollmentservice.model.BatchJob;
+import com.cyd.enrollmentservice.model.BatchJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BatchJobRepository extends JpaRepository<BatchJob, String> {
+
+    // 1. 按状态查询任务（启动时恢复中断的 RUNNING 任务）
+    List<BatchJob> findByStatus(BatchJobStatus status);
+}
@@ -0,0 +1,36 @@
+package com.cyd.enrollmentservice.repository;
+
+import com.cyd.enrollmentservice.model.EnrollmentArchive;
+import com.cyd.enrollmentservice.model.EnrollmentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EnrollmentArchiveRepository extends JpaRepository<EnrollmentArchive, String> {
+
+    // 1. 按学号查询历史选课记录（命中 idx_enrollment_archive_student）
+    List<EnrollmentArchive> findByStudentId(String studentId);
+
+    // 2. 按课程ID查询历史选课记录（命中 idx_enrollment_archive_course）
+    List<EnrollmentArchive> findByCourseId(String courseId);
+
+    // 3. 把主表中的一批记录复制到归档表（一条 INSERT ... SELECT，不把实体加载到内存）
+    @Modifying
+    @Query("INSERT INTO EnrollmentArchive (id, courseId, studentId, status, enrollTime, term, archivedAt) " +
+            "SELECT e.id, e.courseId, e.studentId, e.status, e.enrollTime, e.term, LOCAL DATETIME " +
+            "FROM Enrollment e WHERE e.id IN :ids")
+    int copyFromEnrollments(@Param("ids") Collection<String> ids);
+
+    // 4. 批量统计多门课程某状态的归档人数（按课程分组，命中 idx_enrollment_archive_course），返回 [courseId, count]
+    @Query("SELECT a.courseId, COUNT(a) FROM EnrollmentArchive a WHERE a.courseId IN :courseIds AND a.status = :status GROUP BY a.courseId")
+    List<Object[]> countGroupByCourseId(
+            @Param("courseIds") Collection<String> courseIds,
+            @Param("status") EnrollmentStatus status
+    );
+}
@@ -0,0 +1,21 @@
+package com.cyd.enrollmentservice.repository;
+
+import com.cyd.enrollmentservice.model.EnrollmentEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EnrollmentEventRepository extends JpaRepository<EnrollmentEvent, Long> {
+
+    // 1. 从指定偏移量之后顺序读取事件（主键范围扫描）
+    List<EnrollmentEvent> findByEventOffsetGreaterThanOrderByEventOffsetAsc(Long after, Pageable pageable);
+
+    // 2. 按主键顺序读取一批未发布（偏移量为空）的已提交事件（命中 uk_event_offset，二级索引自带主键）
+    List<EnrollmentEvent> findByEventOffsetIsNullOrderByIdAsc(Pageable pageable);
+
+    // 3. 是否存在未发布事件（发布任务开启事务前的快速检查）
+    boolean existsByEventOffsetIsNull();
+}
@@ -3,11 +3,16 @@ package com.cyd.enrollmentservice.repository;
 
 import com.cyd.enrollmentservice.model.Enrollment;
 import com.cyd.enrollmentservice.model.EnrollmentStatus;
-import org.apache.ibatis.annotations.Param;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -59,4 +64,111 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, String>
             @Param("courseId") String courseId,
             @Param("status") EnrollmentStatus status
     );
+
+    // 12-1. 新增：批量统计多门课程某状态的人数（按课程分组，命中 idx_enrollment_course_status），返回 [courseId, count]
+    @Query("SELECT e.courseId, COUNT(e) FROM Enrollment e WHERE e.courseId IN :courseIds AND e.status = :status GROUP BY e.courseId")
+    List<Object[]> countGroupByCourseId(
+            @Param("courseIds") Collection<String> courseIds,
+            @Param("status") EnrollmentStatus status
+    );
+
+    // 12-2. 新增：批量统计多门课程若干状态的合计人数（按课程分组），返回 [courseId, count]
+    @Query("SELECT e.courseId, COUNT(e) FROM Enrollment e WHERE e.courseId IN :courseIds AND e.status IN :statuses GROUP BY e.courseId")
+    List<Object[]> countGroupByCourseIdAndStatusIn(
+            @Param("courseIds") Collection<String> courseIds,
+            @Param("statuses") Collection<EnrollmentStatus> statuses
+    );
+
+    // 13. 新增：统计多门课程某状态的记录数（批量结课任务估算总量）
+    long countByCourseIdInAndStatus(Collection<String> courseIds, EnrollmentStatus status);
+
+    // 14. 新增：按主键顺序加锁读取某课程一批指定状态的记录（FOR UPDATE，命中 idx_enrollment_course_status）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Enrollment e WHERE e.courseId = :courseId AND e.status = :status AND e.id > :afterId ORDER BY e.id")
+    List<Enrollment> findBatchForUpdate(
+            @Param("courseId") String courseId,
+            @Param("status") EnrollmentStatus status,
+            @Param("afterId") String afterId,
+            Pageable pageable
+    );
+
+    // 15. 新增：集合式状态流转（仅更新仍处于 fromStatus 的记录，返回实际更新行数）
+    @Modifying
+    @Query("UPDATE Enrollment e SET e.status = :toStatus WHERE e.id IN :ids AND e.status = :fromStatus")
+    int transitionStatus(
+            @Param("ids") Collection<String> ids,
+            @Param("fromStatus") EnrollmentStatus fromStatus,
+            @Param("toStatus") EnrollmentStatus toStatus
+    );
+
+    // 15-1. 新增：某学生全部选课记录的课程ID与状态（只查两列，学生档案读模型使用），返回 [courseId, status]
+    @Query("SELECT e.courseId, e.status FROM Enrollment e WHERE e.studentId = :studentId")
+    List<Object[]> findCourseStatusByStudentId(@Param("studentId") String studentId);
+
+    // 15-2. 新增：按学号查询选课记录，学生存在性判断并入同一条查询（学生表 LEFT JOIN 选课记录）
+    // 结果为空表示学生不存在；学生存在但没有选课记录时返回一个 null 元素
+    @Query("SELECT e FROM Student s LEFT JOIN Enrollment e ON e.studentId = s.studentId WHERE s.studentId = :studentId")
+    List<Enrollment> findByExistingStudentId(@Param("studentId") String studentId);
+
+    // 15-3. 新增：同上，附加状态条件（状态放在 JOIN 条件中，保证学生存在时至少返回一行）
+    @Query("SELECT e FROM Student s LEFT JOIN Enrollment e ON e.studentId = s.studentId AND e.status = :status " +
+            "WHERE s.studentId = :studentId")
+    List<Enrollment> findByExistingStudentIdAndStatus(
+            @Param("studentId") String studentId,
+            @Param("status") EnrollmentStatus status
+    );
+
+    // 15-4. 新增：某学生已选过的课程（在给定课程范围内），批量选课一次完成重复校验
+    @Query("SELECT e.courseId FROM Enrollment e WHERE e.studentId = :studentId AND e.courseId IN :courseIds")
+    List<String> findCourseIdsByStudentIdAndCourseIdIn(
+            @Param("studentId") String studentId,
+            @Param("courseIds") Collection<String> courseIds
+    );
+
+    // 16. 新增：加锁读取某学生指定的一批选课记录（FOR UPDATE，按主键顺序加锁，供批量退课使用）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Enrollment e WHERE e.studentId = :studentId AND e.id IN :ids AND e.status = :status ORDER BY e.id")
+    List<Enrollment> findByStudentForUpdate(
+            @Param("studentId") String studentId,
+            @Param("ids") Collection<String> ids,
+            @Param("status") EnrollmentStatus status
+    );
+
+    // 17. 新增：尚未填充学期的历史记录ID（term 列新增前创建），按主键分批回填
+    @Query("SELECT e.id FROM Enrollment e WHERE e.term IS NULL ORDER BY e.id")
+    List<String> findIdsWithoutTerm(Pageable pageable);
+
+    // 17-1. 新增：按选课时间回填学期（与 Terms.of 规则一致：2-7 月为春季，8 月至次年 1 月为秋季）
+    @Modifying
+    @Query("UPDATE Enrollment e SET e.term = CONCAT(" +
+            "CAST(CASE WHEN MONTH(e.enrollTime) = 1 THEN YEAR(e.enrollTime) - 1 ELSE YEAR(e.enrollTime) END AS String), " +
+            "CASE WHEN MONTH(e.enrollTime) BETWEEN 2 AND 7 THEN '-SPRING' ELSE '-FALL' END) " +
+            "WHERE e.id IN :ids AND e.term IS NULL")
+    int backfillTerm(@Param("ids") Collection<String> ids);
+
+    // 18. 新增：统计若干学期中可归档（非 excludedStatus）的记录数（归档任务估算总量）
+    long countByTermInAndStatusNot(Collection<String> terms, EnrollmentStatus excludedStatus);
+
+    // 18-1. 新增：按主键顺序加锁读取某学期一批可归档的记录（FOR UPDATE，命中 idx_enrollment_term）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Enrollment e WHERE e.term = :term AND e.status <> :excludedStatus AND e.id > :afterId ORDER BY e.id")
+    List<Enrollment> findArchiveBatchForUpdate(
+            @Param("term") String term,
+            @Param("excludedStatus") EnrollmentStatus excludedStatus,
+            @Param("afterId") String afterId,
+            Pageable pageable
+    );
+
+    // 18-2. 新增：按主键批量删除（归档后从主表移除，一条 DELETE）
+    @Modifying
+    @Query("DELETE FROM Enrollment e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<String> ids);
+
+    // 19. 新增：按选课时间顺序读取一批某状态的记录（待确认选课先到先确认，命中 idx_enrollment_status_time）
+    List<Enrollment> findByStatusOrderByEnrollTimeAsc(EnrollmentStatus status, Pageable pageable);
+
+    // 20. 新增：按状态条件删除单条记录（待确认选课确认失败时删除，已被退课或确认时删除 0 行）
+    @Modifying
+    @Query("DELETE FROM Enrollment e WHERE e.id = :id AND e.status = :status")
+    int deleteByIdAndStatus(@Param("id") String id, @Param("status") EnrollmentStatus status);
 }
\ No newline at end of file
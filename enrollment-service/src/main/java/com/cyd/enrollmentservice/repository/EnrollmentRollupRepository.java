@@ -0,0 +1,66 @@
+package com.cyd.enrollmentservice.repository;
+
+import com.cyd.enrollmentservice.DTO.RollupStatDTO;
+import com.cyd.enrollmentservice.DTO.VelocityPointDTO;
+import com.cyd.enrollmentservice.model.EnrollmentRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EnrollmentRollupRepository extends JpaRepository<EnrollmentRollup, Long> {
+
+    // 1. 增量累加某个维度行的计数（行不存在时返回 0，由调用方先插入空行再重试）
+    @Modifying
+    @Query("UPDATE EnrollmentRollup r SET " +
+            "r.enrolledCount = r.enrolledCount + :enrolled, " +
+            "r.droppedCount = r.droppedCount + :dropped, " +
+            "r.completedCount = r.completedCount + :completed " +
+            "WHERE r.courseId = :courseId AND r.major = :major AND r.grade = :grade AND r.bucketHour = :bucketHour")
+    int increment(
+            @Param("courseId") String courseId,
+            @Param("major") String major,
+            @Param("grade") Integer grade,
+            @Param("bucketHour") LocalDateTime bucketHour,
+            @Param("enrolled") long enrolled,
+            @Param("dropped") long dropped,
+            @Param("completed") long completed
+    );
+
+    // 2. 单门课程的汇总（命中 uk_rollup_dimension 前缀）
+    @Query("SELECT new com.cyd.enrollmentservice.DTO.RollupStatDTO(r.courseId, " +
+            "SUM(r.enrolledCount), SUM(r.droppedCount), SUM(r.completedCount)) " +
+            "FROM EnrollmentRollup r WHERE r.courseId = :courseId GROUP BY r.courseId")
+    Optional<RollupStatDTO> summarizeCourse(@Param("courseId") String courseId);
+
+    // 3. 按课程汇总
+    @Query("SELECT new com.cyd.enrollmentservice.DTO.RollupStatDTO(r.courseId, " +
+            "SUM(r.enrolledCount), SUM(r.droppedCount), SUM(r.completedCount)) " +
+            "FROM EnrollmentRollup r GROUP BY r.courseId ORDER BY r.courseId")
+    List<RollupStatDTO> summarizeByCourse();
+
+    // 4. 按专业汇总
+    @Query("SELECT new com.cyd.enrollmentservice.DTO.RollupStatDTO(r.major, " +
+            "SUM(r.enrolledCount), SUM(r.droppedCount), SUM(r.completedCount)) " +
+            "FROM EnrollmentRollup r GROUP BY r.major ORDER BY r.major")
+    List<RollupStatDTO> summarizeByMajor();
+
+    // 5. 按年级汇总
+    @Query("SELECT new com.cyd.enrollmentservice.DTO.RollupStatDTO(CAST(r.grade AS String), " +
+            "SUM(r.enrolledCount), SUM(r.droppedCount), SUM(r.completedCount)) " +
+            "FROM EnrollmentRollup r GROUP BY r.grade ORDER BY r.grade")
+    List<RollupStatDTO> summarizeByGrade();
+
+    // 6. 选课速率：时间窗口内每小时的选课/退课次数（命中 idx_rollup_bucket）
+    @Query("SELECT new com.cyd.enrollmentservice.DTO.VelocityPointDTO(r.bucketHour, " +
+            "SUM(r.enrolledCount), SUM(r.droppedCount)) " +
+            "FROM EnrollmentRollup r WHERE r.bucketHour >= :from AND r.bucketHour < :to " +
+            "GROUP BY r.bucketHour ORDER BY r.bucketHour")
+    List<VelocityPointDTO> velocity(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,20 @@
+package com.cyd.enrollmentservice.repository;
+
+import com.cyd.enrollmentservice.model.EventLogSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface EventLogSequenceRepository extends JpaRepository<EventLogSequence, String> {
+
+    // 1. 加写锁读取序列行（SELECT ... FOR UPDATE），锁持有到当前事务结束（仅发布任务使用）
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM EventLogSequence s WHERE s.name = :name")
+    Optional<EventLogSequence> findForUpdate(@Param("name") String name);
+}
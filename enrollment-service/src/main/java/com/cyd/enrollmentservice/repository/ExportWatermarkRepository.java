@@ -0,0 +1,9 @@
+package com.cyd.enrollmentservice.repository;
+
+import com.cyd.enrollmentservice.model.ExportWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExportWatermarkRepository extends JpaRepository<ExportWatermark, String> {
+}
@@ -1,18 +1,25 @@
 package com.cyd.enrollmentservice.repository;
 
 
+import com.cyd.enrollmentservice.DTO.StudentSummaryDTO;
 import com.cyd.enrollmentservice.model.Student;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 // 继承 JpaRepository<实体类, 主键类型>，自动获得基础 CRUD 方法
-public interface StudentRepository extends JpaRepository<Student, String> {
+public interface StudentRepository extends JpaRepository<Student, String>, JpaSpecificationExecutor<Student> {
 
     // 1. 保留原“按学号查询学生”方法（任务三要求：按学号唯一查询（{insert\_element\_0\_}））
     Optional<Student> findByStudentId(String studentId);
@@ -35,5 +42,40 @@ public interface StudentRepository extends JpaRepository<Student, String> {
     // 7. 新增：按专业+年级组合筛选学生（任务三扩展要求：多条件组合查询，适配复杂业务场景）
     List<Student> findByMajorAndGrade(String major, Integer grade);
 
+    // 7-1. 新增：按学号批量查询（批处理任务一次性加载一批学生的专业/年级）
+    List<Student> findByStudentIdIn(Collection<String> studentIds);
+
+    // 8. 新增：学生精简视图投影（仅查询 id/studentId/name，不加载其他列，也不生成托管实体）
+    @Query("SELECT new com.cyd.enrollmentservice.DTO.StudentSummaryDTO(s.id, s.studentId, s.name) FROM Student s")
+    List<StudentSummaryDTO> findAllSummaries(Sort sort);
+
+    // 9. 新增：按专业分页查询精简视图
+    @Query(value = "SELECT new com.cyd.enrollmentservice.DTO.StudentSummaryDTO(s.id, s.studentId, s.name) " +
+            "FROM Student s WHERE s.major = :major",
+            countQuery = "SELECT COUNT(s) FROM Student s WHERE s.major = :major")
+    Page<StudentSummaryDTO> findSummariesByMajor(@Param("major") String major, Pageable pageable);
+
+    // 10. 新增：按年级分页查询精简视图
+    @Query(value = "SELECT new com.cyd.enrollmentservice.DTO.StudentSummaryDTO(s.id, s.studentId, s.name) " +
+            "FROM Student s WHERE s.grade = :grade",
+            countQuery = "SELECT COUNT(s) FROM Student s WHERE s.grade = :grade")
+    Page<StudentSummaryDTO> findSummariesByGrade(@Param("grade") Integer grade, Pageable pageable);
+
+    // 11. 新增：删除没有任何选课记录（含已归档记录）的学生（关联检查与删除在同一条 DELETE 中完成），返回 0 表示学生不存在或有选课记录
+    @Modifying
+    @Query("DELETE FROM Student s WHERE s.id = :id " +
+            "AND NOT EXISTS (SELECT 1 FROM Enrollment e WHERE e.studentId = s.studentId) " +
+            "AND NOT EXISTS (SELECT 1 FROM EnrollmentArchive a WHERE a.studentId = s.studentId)")
+    int deleteIfNoEnrollments(@Param("id") String id);
+
+    // 12. 新增：补齐邮箱域名（升级前创建的学生 email_domain 为空），一次最多更新 batchSize 个学生，返回更新行数
+    // （MySQL 不允许 IN 子查询带 LIMIT 或直接引用被更新表，外包一层派生表）
+    @Modifying
+    @Query(value = "UPDATE students SET email_domain = LOWER(SUBSTRING(email, LOCATE('@', email) + 1)) " +
+            "WHERE student_id IN (SELECT student_id FROM (SELECT student_id FROM students " +
+            "WHERE email_domain IS NULL ORDER BY student_id LIMIT :batchSize) batch)",
+            nativeQuery = true)
+    int backfillEmailDomains(@Param("batchSize") int batchSize);
+
     // 注：原内存实现中的 save/findAll/findById/deleteById 方法，JpaRepository 已默认实现，无需重复编写
 }
\ No newline at end of file
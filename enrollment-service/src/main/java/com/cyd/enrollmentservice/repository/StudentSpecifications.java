@@ -0,0 +1,53 @@
+package com.cyd.enrollmentservice.repository;
+
+import com.cyd.enrollmentservice.model.Student;
+import org.springframework.data.jpa.domain.Specification;
+
+// 学生检索条件：每个条件都是索引列上的等值或前缀范围谓词（不对列套函数），由调用方按需组合
+public final class StudentSpecifications {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private StudentSpecifications() {
+    }
+
+    public static Specification<Student> majorEquals(String major) {
+        return (root, query, cb) -> cb.equal(root.get("major"), major);
+    }
+
+    public static Specification<Student> gradeEquals(Integer grade) {
+        return (root, query, cb) -> cb.equal(root.get("grade"), grade);
+    }
+
+    // 域名已在写入时转为小写，调用方传入小写值
+    public static Specification<Student> emailDomainEquals(String emailDomain) {
+        return (root, query, cb) -> cb.equal(root.get("emailDomain"), emailDomain);
+    }
+
+    // 姓名前缀：LIKE 'prefix%'，转义通配符后可走 (name, student_id) 索引范围扫描
+    public static Specification<Student> nameStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("name"), escapeLike(prefix) + "%", LIKE_ESCAPE);
+    }
+
+    // keyset：学号大于上一页最后一条
+    public static Specification<Student> studentIdAfter(String studentId) {
+        return (root, query, cb) -> cb.greaterThan(root.get("studentId"), studentId);
+    }
+
+    // keyset：按（姓名, 学号）排序时位于上一页最后一条之后
+    public static Specification<Student> nameAndStudentIdAfter(String name, String studentId) {
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("name"), name),
+                cb.and(cb.equal(root.get("name"), name), cb.greaterThan(root.get("studentId"), studentId)));
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.DTO.CourseDTO;
+import com.cyd.enrollmentservice.client.CatalogClient;
+import com.cyd.enrollmentservice.client.CatalogUnavailableException;
+import com.cyd.enrollmentservice.common.BoundedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// 本地课程缓存：catalog-service 课程信息（容量、排课时间等）的进程内副本，启动时批量预热，未命中时按ID回源
+// enrolled 为写入缓存时的快照，只用于展示；占座/释放始终以 catalog-service 的条件更新为准
+// 条目超过 ttl-seconds 后按ID回源刷新，但在缓存中再保留 stale-seconds：catalog-service 不可用时返回这份过期副本（降级读取）
+@Service
+public class CourseCacheService {
+    @Autowired
+    private CatalogClient catalogClient;
+
+    private final long ttlMillis;
+    private final BoundedCache<String, CachedCourse> cache;
+
+    public CourseCacheService(
+            @Value("${enrollment.course-cache.max-entries:20000}") int maxEntries,
+            @Value("${enrollment.course-cache.ttl-seconds:1800}") long ttlSeconds,
+            @Value("${enrollment.course-cache.stale-seconds:86400}") long staleSeconds) {
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.cache = new BoundedCache<>(maxEntries, TimeUnit.SECONDS.toMillis(ttlSeconds + staleSeconds));
+    }
+
+    // 1. 按ID查询课程：未过期直接返回，否则调用 catalog-service 并回填（课程不存在时移除）
+    // catalog-service 不可用时返回保留期内的过期副本，没有副本则抛出 CatalogUnavailableException
+    public Optional<CourseDTO> findCourse(String courseId) {
+        CachedCourse cached = cache.get(courseId);
+        if (cached != null && System.currentTimeMillis() < cached.loadedAt + ttlMillis) {
+            return Optional.of(cached.course);
+        }
+        Optional<CourseDTO> course;
+        try {
+            course = catalogClient.findCourse(courseId);
+        } catch (CatalogUnavailableException e) {
+            if (cached != null) {
+                return Optional.of(cached.course);
+            }
+            throw e;
+        }
+        if (course.isPresent()) {
+            cache.put(courseId, new CachedCourse(course.get(), System.currentTimeMillis()));
+        } else {
+            cache.remove(courseId);
+        }
+        return course;
+    }
+
+    // 2. 批量写入（启动预热）
+    public void putAll(List<CourseDTO> courses) {
+        long now = System.currentTimeMillis();
+        for (CourseDTO course : courses) {
+            cache.put(course.getId(), new CachedCourse(course, now));
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private record CachedCourse(CourseDTO course, long loadedAt) {
+    }
+}
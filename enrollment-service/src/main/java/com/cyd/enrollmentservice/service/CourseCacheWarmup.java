@@ -0,0 +1,117 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.DTO.CourseDTO;
+import com.cyd.enrollmentservice.client.CatalogClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 启动预热：按主键分页拉取 catalog-service 全部课程写入本地课程缓存，避免扩容后首批请求全部回源
+// ApplicationRunner 执行完毕后 Spring Boot 才发布 ACCEPTING_TRAFFIC，因此预热期间就绪探针（/actuator/health/readiness）不会通过；
+// catalog-service 不可用时按间隔重试，超过 timeout-seconds 仍未完成则以冷缓存继续启动（未命中按ID回源），不无限期阻塞扩容
+@Component
+public class CourseCacheWarmup implements ApplicationRunner, HealthIndicator {
+    public enum State { PENDING, WARMING, WARM, COLD, DISABLED }
+
+    @Autowired
+    private CatalogClient catalogClient;
+
+    @Autowired
+    private CourseCacheService courseCache;
+
+    @Value("${enrollment.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${enrollment.warmup.page-size:500}")
+    private int pageSize;
+
+    @Value("${enrollment.warmup.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    @Value("${enrollment.warmup.retry-interval-millis:1000}")
+    private long retryIntervalMillis;
+
+    private volatile State state = State.PENDING;
+    private volatile String message;
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong durationMillis = new AtomicLong();
+
+    public CourseCacheWarmup(MeterRegistry meterRegistry) {
+        meterRegistry.gauge("enrollment.course.cache.warmup.entries", entries);
+        meterRegistry.gauge("enrollment.course.cache.warmup.duration.millis", durationMillis);
+        meterRegistry.gauge("enrollment.course.cache.size", this, warmup -> warmup.courseCache.size());
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!enabled) {
+            state = State.DISABLED;
+            return;
+        }
+        state = State.WARMING;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        String afterId = "";
+        while (true) {
+            // 1. 超时：以已加载的部分继续启动
+            if (System.nanoTime() >= deadline) {
+                state = State.COLD;
+                message = "Timed out after " + timeoutSeconds + "s" + (message == null ? "" : " (" + message + ")");
+                break;
+            }
+            // 2. 拉取下一页，失败时从同一位置重试
+            List<CourseDTO> page;
+            try {
+                page = catalogClient.findCoursesAfter(afterId, pageSize);
+            } catch (RuntimeException e) {
+                message = e.getMessage();
+                System.err.println("Course cache warm-up failed, retrying: " + e.getMessage());
+                Thread.sleep(retryIntervalMillis);
+                continue;
+            }
+            courseCache.putAll(page);
+            entries.addAndGet(page.size());
+            pages.incrementAndGet();
+            // 3. 不足一页说明已到末尾
+            if (page.size() < pageSize) {
+                state = State.WARM;
+                message = null;
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
+        }
+        durationMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (state == State.COLD) {
+            System.err.println("Course cache warm-up incomplete, continuing with " + entries.get() + " courses: " + message);
+        }
+    }
+
+    // 健康详情：预热状态、条数、页数、耗时（纳入 readiness 分组，预热中返回 OUT_OF_SERVICE）
+    @Override
+    public Health health() {
+        Health.Builder builder = state == State.PENDING || state == State.WARMING ? Health.outOfService() : Health.up();
+        builder.withDetail("state", state)
+                .withDetail("entries", entries.get())
+                .withDetail("pages", pages.get())
+                .withDetail("durationMillis", durationMillis.get())
+                .withDetail("cacheSize", courseCache.size());
+        if (message != null) {
+            builder.withDetail("message", message);
+        }
+        return builder.build();
+    }
+
+    public State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,135 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.DTO.CourseDTO;
+import com.cyd.enrollmentservice.DTO.CourseFillRateDTO;
+import com.cyd.enrollmentservice.DTO.RollupStatDTO;
+import com.cyd.enrollmentservice.DTO.VelocityPointDTO;
+import com.cyd.enrollmentservice.model.EnrollmentRollup;
+import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.repository.EnrollmentRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+// 选课统计：选课/退课/结课发生时增量更新 (课程, 专业, 年级, 小时) 聚合行，看板查询只读聚合表，不扫描 enrollments
+@Service
+public class EnrollmentAnalyticsService {
+    @Autowired
+    private EnrollmentRollupRepository rollupRepository;
+
+    // 课程容量从本地课程缓存读取（启动预热，未命中回源 catalog-service）
+    @Autowired
+    private CourseCacheService courseCache;
+
+    // 独立事务模板：首次出现的维度行在独立事务中插入，避免唯一键冲突污染业务事务
+    private final TransactionTemplate requiresNewTemplate;
+
+    public EnrollmentAnalyticsService(PlatformTransactionManager transactionManager) {
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // 1. 记录一次选课（在选课事务内调用，与选课记录同时提交或回滚）
+    @Transactional
+    public void recordEnroll(String courseId, Student student) {
+        apply(courseId, student.getMajor(), student.getGrade(), 1, 0, 0);
+    }
+
+    // 2. 记录一次退课
+    @Transactional
+    public void recordDrop(String courseId, Student student) {
+        recordDrops(courseId, student, 1);
+    }
+
+    // 2-1. 记录同一学生在某课程的退课人数（批量退课按课程合并后调用）
+    @Transactional
+    public void recordDrops(String courseId, Student student, long count) {
+        if (count > 0) {
+            apply(courseId, student.getMajor(), student.getGrade(), 0, count, 0);
+        }
+    }
+
+    // 3. 记录批量结课（同一课程 + 专业 + 年级的结课人数）
+    @Transactional
+    public void recordCompletions(String courseId, String major, Integer grade, long count) {
+        if (count > 0) {
+            apply(courseId, major, grade, 0, 0, count);
+        }
+    }
+
+    private void apply(String courseId, String major, Integer grade, long enrolled, long dropped, long completed) {
+        LocalDateTime bucketHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        int updated = rollupRepository.increment(courseId, major, grade, bucketHour, enrolled, dropped, completed);
+        if (updated == 0) {
+            // 维度行不存在：独立事务插入全 0 行（并发插入时唯一键冲突直接忽略），再在当前事务中累加
+            createRowIfAbsent(courseId, major, grade, bucketHour);
+            rollupRepository.increment(courseId, major, grade, bucketHour, enrolled, dropped, completed);
+        }
+    }
+
+    private void createRowIfAbsent(String courseId, String major, Integer grade, LocalDateTime bucketHour) {
+        try {
+            requiresNewTemplate.executeWithoutResult(status -> rollupRepository.saveAndFlush(
+                    new EnrollmentRollup(null, courseId, major, grade, bucketHour, 0, 0, 0)));
+        } catch (DataIntegrityViolationException e) {
+            // 其他请求已插入同一维度行，直接复用
+        }
+    }
+
+    // 4. 课程填充率：活跃人数来自聚合表，容量来自 catalog-service（不可用时只返回人数）
+    @Transactional(readOnly = true)
+    public CourseFillRateDTO getCourseFillRate(String courseId) {
+        long active = rollupRepository.summarizeCourse(courseId)
+                .map(RollupStatDTO::getActive)
+                .orElse(0L);
+        Integer capacity = null;
+        try {
+            capacity = courseCache.findCourse(courseId)
+                    .map(CourseDTO::getCapacity)
+                    .orElseThrow(() -> new RuntimeException("Course not found with id: " + courseId));
+        } catch (RuntimeException e) {
+            if (active == 0) {
+                throw e;
+            }
+            System.err.println("Failed to load course capacity for fill rate: " + e.getMessage());
+        }
+        Double fillRate = capacity == null || capacity == 0 ? null : (double) active / capacity;
+        return new CourseFillRateDTO(courseId, active, capacity, fillRate);
+    }
+
+    // 5. 按课程/专业/年级汇总
+    @Transactional(readOnly = true)
+    public List<RollupStatDTO> summarizeByCourse() {
+        return rollupRepository.summarizeByCourse();
+    }
+
+    @Transactional(readOnly = true)
+    public List<RollupStatDTO> summarizeByMajor() {
+        return rollupRepository.summarizeByMajor();
+    }
+
+    @Transactional(readOnly = true)
+    public List<RollupStatDTO> summarizeByGrade() {
+        return rollupRepository.summarizeByGrade();
+    }
+
+    // 6. 选课速率：默认最近 24 小时
+    @Transactional(readOnly = true)
+    public List<VelocityPointDTO> velocity(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime end = Optional.ofNullable(to).orElse(LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1));
+        LocalDateTime start = Optional.ofNullable(from).orElse(end.minusHours(24));
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        return rollupRepository.velocity(start, end);
+    }
+}
@@ -0,0 +1,285 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.DTO.ArchiveJobRequestDTO;
+import com.cyd.enrollmentservice.DTO.CompletionJobRequestDTO;
+import com.cyd.enrollmentservice.common.Terms;
+import com.cyd.enrollmentservice.model.BatchJob;
+import com.cyd.enrollmentservice.model.BatchJobStatus;
+import com.cyd.enrollmentservice.model.BatchJobType;
+import com.cyd.enrollmentservice.model.Enrollment;
+import com.cyd.enrollmentservice.model.EnrollmentEventType;
+import com.cyd.enrollmentservice.model.EnrollmentStatus;
+import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.repository.BatchJobRepository;
+import com.cyd.enrollmentservice.repository.EnrollmentArchiveRepository;
+import com.cyd.enrollmentservice.repository.EnrollmentRepository;
+import com.cyd.enrollmentservice.repository.StudentRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// 批量结课任务：按课程分批把 ACTIVE 选课记录集合式更新为 COMPLETED
+// 每批在独立事务内完成“加锁读取 -> UPDATE -> 事件/统计 -> 检查点”，批次间暂停以免压垮主库
+// 归档任务复用同一套检查点/暂停/恢复机制：按学期分批把已结束学期的记录迁入 enrollments_archive
+@Service
+public class EnrollmentCompletionJobService {
+    // 学期回填每批条数
+    private static final int TERM_BACKFILL_BATCH = 1000;
+
+    @Autowired
+    private BatchJobRepository jobRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private EnrollmentArchiveRepository archiveRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentEventService eventService;
+
+    @Autowired
+    private EnrollmentAnalyticsService analyticsService;
+
+    @Autowired
+    private StudentProfileService profileService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // 单线程执行：同一时刻只运行一个批处理任务，进一步限制对主库的压力
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "enrollment-batch-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 本实例已提交执行的任务，避免重复提交
+    private final Set<String> scheduledJobs = ConcurrentHashMap.newKeySet();
+
+    public EnrollmentCompletionJobService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // 1. 创建并启动结课任务
+    public BatchJob startJob(CompletionJobRequestDTO request) {
+        List<String> courseIds = request.getCourseIds().stream().distinct().sorted().toList();
+        BatchJob job = new BatchJob();
+        job.setType(BatchJobType.COMPLETION);
+        job.setStatus(BatchJobStatus.RUNNING);
+        job.setScope(String.join(",", courseIds));
+        job.setBatchSize(request.getBatchSize());
+        job.setPauseMillis(request.getPauseMillis());
+        job.setTotal(enrollmentRepository.countByCourseIdInAndStatus(courseIds, EnrollmentStatus.ACTIVE));
+        BatchJob saved = jobRepository.save(job);
+        schedule(saved.getId());
+        return saved;
+    }
+
+    // 1-1. 创建并启动归档任务：只允许已结束的学期，且只迁移非 ACTIVE 记录（未结课的记录先执行结课任务）
+    public BatchJob startArchiveJob(ArchiveJobRequestDTO request) {
+        List<String> terms = request.getTerms().stream().distinct().sorted().toList();
+        for (String term : terms) {
+            if (!Terms.isClosed(term)) {
+                throw new IllegalArgumentException("Only closed terms can be archived, current term is " + Terms.current() + ": " + term);
+            }
+        }
+        BatchJob job = new BatchJob();
+        job.setType(BatchJobType.ARCHIVE);
+        job.setStatus(BatchJobStatus.RUNNING);
+        job.setScope(String.join(",", terms));
+        job.setBatchSize(request.getBatchSize());
+        job.setPauseMillis(request.getPauseMillis());
+        job.setTotal(enrollmentRepository.countByTermInAndStatusNot(terms, EnrollmentStatus.ACTIVE));
+        BatchJob saved = jobRepository.save(job);
+        schedule(saved.getId());
+        return saved;
+    }
+
+    // 2. 查询任务进度
+    public Optional<BatchJob> findJob(String jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    // 3. 暂停任务：执行线程在下一批开始前读取到 PAUSED 状态后退出
+    public BatchJob pauseJob(String jobId) {
+        BatchJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Batch job not found with id: " + jobId));
+        if (job.getStatus() != BatchJobStatus.RUNNING) {
+            throw new IllegalArgumentException("Only running jobs can be paused, current status: " + job.getStatus());
+        }
+        job.setStatus(BatchJobStatus.PAUSED);
+        return jobRepository.save(job);
+    }
+
+    // 4. 从检查点恢复已暂停或失败的任务
+    public BatchJob resumeJob(String jobId) {
+        BatchJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Batch job not found with id: " + jobId));
+        if (job.getStatus() == BatchJobStatus.COMPLETED) {
+            throw new IllegalArgumentException("Batch job already completed: " + jobId);
+        }
+        job.setStatus(BatchJobStatus.RUNNING);
+        job.setMessage(null);
+        BatchJob saved = jobRepository.save(job);
+        schedule(saved.getId());
+        return saved;
+    }
+
+    // 5. 服务启动后继续执行上次中断（仍为 RUNNING）的任务；先在同一执行线程上回填历史记录的学期，再恢复任务
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        executor.submit(this::backfillTerms);
+        jobRepository.findByStatus(BatchJobStatus.RUNNING)
+                .forEach(job -> schedule(job.getId()));
+    }
+
+    // 回填 term 列新增前创建的记录（仅首次升级时有数据需要处理），每批一个短事务
+    private void backfillTerms() {
+        try {
+            Integer count;
+            do {
+                count = transactionTemplate.execute(status -> {
+                    List<String> ids = enrollmentRepository.findIdsWithoutTerm(PageRequest.of(0, TERM_BACKFILL_BATCH));
+                    return ids.isEmpty() ? 0 : enrollmentRepository.backfillTerm(ids);
+                });
+            } while (count != null && count > 0);
+        } catch (RuntimeException e) {
+            System.err.println("Failed to backfill enrollment terms: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void schedule(String jobId) {
+        if (scheduledJobs.add(jobId)) {
+            executor.submit(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    scheduledJobs.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void run(String jobId) {
+        try {
+            while (true) {
+                BatchJob job = jobRepository.findById(jobId).orElse(null);
+                if (job == null || job.getStatus() != BatchJobStatus.RUNNING) {
+                    return;
+                }
+                boolean hasMore = Boolean.TRUE.equals(transactionTemplate.execute(status -> processBatch(jobId)));
+                if (!hasMore) {
+                    return;
+                }
+                if (job.getPauseMillis() > 0) {
+                    Thread.sleep(job.getPauseMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            jobRepository.findById(jobId).ifPresent(job -> {
+                job.setStatus(BatchJobStatus.FAILED);
+                job.setMessage(e.getMessage());
+                jobRepository.save(job);
+            });
+            System.err.println("Batch job " + jobId + " failed: " + e.getMessage());
+        }
+    }
+
+    // 处理一批：返回是否还有剩余数据
+    private boolean processBatch(String jobId) {
+        BatchJob job = jobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Batch job not found with id: " + jobId));
+        List<String> scope = Arrays.asList(job.getScope().split(","));
+        if (job.getCursorIndex() >= scope.size()) {
+            job.setStatus(BatchJobStatus.COMPLETED);
+            jobRepository.save(job);
+            return false;
+        }
+
+        String item = scope.get(job.getCursorIndex());
+        String afterId = job.getCursorId() == null ? "" : job.getCursorId();
+        int fetched = job.getType() == BatchJobType.ARCHIVE
+                ? archiveBatch(job, item, afterId)
+                : completeBatch(job, item, afterId);
+        // 本课程（学期）已处理完：移动到下一项
+        if (fetched < job.getBatchSize()) {
+            job.setCursorIndex(job.getCursorIndex() + 1);
+            job.setCursorId(null);
+        }
+        jobRepository.save(job);
+        return true;
+    }
+
+    // 结课一批：ACTIVE -> COMPLETED，返回本批读取的记录数
+    private int completeBatch(BatchJob job, String courseId, String afterId) {
+        List<Enrollment> batch = enrollmentRepository.findBatchForUpdate(
+                courseId, EnrollmentStatus.ACTIVE, afterId, PageRequest.of(0, job.getBatchSize()));
+        if (!batch.isEmpty()) {
+            List<String> ids = batch.stream().map(Enrollment::getId).toList();
+            int updated = enrollmentRepository.transitionStatus(ids, EnrollmentStatus.ACTIVE, EnrollmentStatus.COMPLETED);
+            eventService.appendAll(EnrollmentEventType.COMPLETED, batch);
+            profileService.onEnrollmentsChanged(batch, EnrollmentStatus.ACTIVE, EnrollmentStatus.COMPLETED);
+            recordCompletions(courseId, batch);
+            job.setProcessed(job.getProcessed() + updated);
+            job.setCursorId(ids.get(ids.size() - 1));
+        }
+        return batch.size();
+    }
+
+    // 归档一批：加锁读取 -> INSERT ... SELECT 复制到归档表 -> DELETE 主表记录，返回本批读取的记录数
+    private int archiveBatch(BatchJob job, String term, String afterId) {
+        List<Enrollment> batch = enrollmentRepository.findArchiveBatchForUpdate(
+                term, EnrollmentStatus.ACTIVE, afterId, PageRequest.of(0, job.getBatchSize()));
+        if (!batch.isEmpty()) {
+            List<String> ids = batch.stream().map(Enrollment::getId).toList();
+            archiveRepository.copyFromEnrollments(ids);
+            int deleted = enrollmentRepository.deleteByIdIn(ids);
+            profileService.onEnrollmentsArchived(batch);
+            job.setProcessed(job.getProcessed() + deleted);
+            job.setCursorId(ids.get(ids.size() - 1));
+        }
+        return batch.size();
+    }
+
+    // 按 (专业, 年级) 汇总本批结课人数，写入统计聚合表
+    private void recordCompletions(String courseId, List<Enrollment> batch) {
+        Map<String, Student> students = studentRepository.findByStudentIdIn(
+                        batch.stream().map(Enrollment::getStudentId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Student::getStudentId, Function.identity()));
+        Map<String, Map<Integer, Long>> countsByMajorGrade = batch.stream()
+                .map(enrollment -> students.get(enrollment.getStudentId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(Student::getMajor,
+                        Collectors.groupingBy(Student::getGrade, Collectors.counting())));
+        countsByMajorGrade.forEach((major, byGrade) -> byGrade.forEach((grade, count) ->
+                analyticsService.recordCompletions(courseId, major, grade, count)));
+    }
+}
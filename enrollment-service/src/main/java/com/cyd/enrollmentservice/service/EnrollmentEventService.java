@@ -0,0 +1,199 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.DTO.EventBatchDTO;
+import com.cyd.enrollmentservice.common.AfterCommit;
+import com.cyd.enrollmentservice.model.Enrollment;
+import com.cyd.enrollmentservice.model.EnrollmentEvent;
+import com.cyd.enrollmentservice.model.EnrollmentEventType;
+import com.cyd.enrollmentservice.model.EventLogSequence;
+import com.cyd.enrollmentservice.repository.EnrollmentEventRepository;
+import com.cyd.enrollmentservice.repository.EventLogSequenceRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 选课事件日志（发件箱）：选课/退课/结课在同一事务内只插入事件（自增主键，无偏移量），写事务之间不争用任何全局锁；
+// 发布任务（事务提交后触发，另有定时兜底）在独立短事务内锁定序列行，按主键顺序为已提交的事件分配连续偏移量；
+// 下游（计费、LMS、看板）按偏移量长轮询拉取，只能看到已发布的事件，不会跳过晚提交的事件
+@Service
+public class EnrollmentEventService {
+    private static final String SEQUENCE_NAME = "enrollment-events";
+    private static final int MAX_LIMIT = 500;
+    private static final long MAX_WAIT_MILLIS = 30_000;
+    // 单次等待上限：多实例部署时其他实例发布的事件无法通知本实例，按该间隔重新查询
+    private static final long RECHECK_MILLIS = 1_000;
+    // 每个发布事务最多分配的事件数
+    private static final int PUBLISH_BATCH = 500;
+
+    @Autowired
+    private EnrollmentEventRepository eventRepository;
+
+    @Autowired
+    private EventLogSequenceRepository sequenceRepository;
+
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate requiresNewTemplate;
+
+    // 长轮询等待者的通知对象；latestOffset 为本实例已发布的最大偏移量
+    private final Object monitor = new Object();
+    private volatile long latestOffset = -1;
+
+    // 发布线程：提交后触发的发布在此执行，不占用请求线程；已排队时不再重复提交
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "enrollment-event-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean publishQueued = new AtomicBoolean();
+
+    public EnrollmentEventService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate = new TransactionTemplate(transactionManager);
+        this.requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // 1. 追加单条事件（在选课/退课事务内调用）
+    @Transactional
+    public void append(EnrollmentEventType type, Enrollment enrollment) {
+        appendAll(type, List.of(enrollment));
+    }
+
+    // 2. 批量追加事件：只插入未发布的事件，提交后触发发布
+    @Transactional
+    public void appendAll(EnrollmentEventType type, List<Enrollment> enrollments) {
+        if (enrollments.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<EnrollmentEvent> events = new ArrayList<>(enrollments.size());
+        for (Enrollment enrollment : enrollments) {
+            events.add(new EnrollmentEvent(type, enrollment, now));
+        }
+        eventRepository.saveAll(events);
+        AfterCommit.run(this::requestPublish);
+    }
+
+    private void requestPublish() {
+        if (publishQueued.compareAndSet(false, true)) {
+            try {
+                publisher.execute(() -> {
+                    publishQueued.set(false);
+                    publishPending();
+                });
+            } catch (RejectedExecutionException e) {
+                // 正在关闭，由下次启动后的定时发布处理
+                publishQueued.set(false);
+            }
+        }
+    }
+
+    // 3. 发布全部未发布事件（每批一个短事务）；定时执行兜底：触发丢失、或其他实例提交后未来得及发布的事件
+    @Scheduled(fixedDelayString = "${enrollment.events.publish-interval-millis:1000}")
+    public void publishPending() {
+        try {
+            int published = PUBLISH_BATCH;
+            // 没有未发布事件时不开启发布事务、不加锁
+            while (published == PUBLISH_BATCH && eventRepository.existsByEventOffsetIsNull()) {
+                Integer count = transactionTemplate.execute(status -> publishBatch());
+                published = count == null ? 0 : count;
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to publish enrollment events: " + e.getMessage());
+        }
+    }
+
+    // 先锁序列行再读取未发布事件：一致性读快照在加锁之后建立，并发发布已编号的事件不会被再编号一次；偏移量按主键顺序连续分配
+    private int publishBatch() {
+        EventLogSequence sequence = lockSequence();
+        List<EnrollmentEvent> events = eventRepository.findByEventOffsetIsNullOrderByIdAsc(PageRequest.of(0, PUBLISH_BATCH));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        long offset = sequence.getNextValue();
+        for (EnrollmentEvent event : events) {
+            event.setEventOffset(offset++);
+        }
+        sequence.setNextValue(offset);
+
+        long publishedOffset = offset - 1;
+        AfterCommit.run(() -> notifyWaiters(publishedOffset));
+        return events.size();
+    }
+
+    private EventLogSequence lockSequence() {
+        return sequenceRepository.findForUpdate(SEQUENCE_NAME).orElseGet(() -> {
+            // 首次使用：独立事务插入序列行（并发插入时唯一键冲突直接忽略），再加锁读取
+            try {
+                requiresNewTemplate.executeWithoutResult(status ->
+                        sequenceRepository.saveAndFlush(new EventLogSequence(SEQUENCE_NAME, 1L)));
+            } catch (DataIntegrityViolationException e) {
+                // 其他实例已创建
+            }
+            return sequenceRepository.findForUpdate(SEQUENCE_NAME)
+                    .orElseThrow(() -> new IllegalStateException("Event log sequence is missing"));
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+    }
+
+    private void notifyWaiters(long publishedOffset) {
+        synchronized (monitor) {
+            if (publishedOffset > latestOffset) {
+                latestOffset = publishedOffset;
+            }
+            monitor.notifyAll();
+        }
+    }
+
+    // 4. 长轮询拉取：读取 after 之后已发布的事件；暂无新事件时最多等待 waitMillis
+    public EventBatchDTO poll(long after, int limit, long waitMillis) {
+        if (after < 0) {
+            throw new IllegalArgumentException("Offset must not be negative: " + after);
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        long deadline = System.currentTimeMillis() + Math.min(Math.max(waitMillis, 0), MAX_WAIT_MILLIS);
+
+        List<EnrollmentEvent> events = read(after, pageSize);
+        while (events.isEmpty()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            try {
+                synchronized (monitor) {
+                    if (latestOffset <= after) {
+                        monitor.wait(Math.min(remaining, RECHECK_MILLIS));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            events = read(after, pageSize);
+        }
+        long nextOffset = events.isEmpty() ? after : events.get(events.size() - 1).getEventOffset();
+        return new EventBatchDTO(events, nextOffset);
+    }
+
+    private List<EnrollmentEvent> read(long after, int limit) {
+        return eventRepository.findByEventOffsetGreaterThanOrderByEventOffsetAsc(after, PageRequest.of(0, limit));
+    }
+}
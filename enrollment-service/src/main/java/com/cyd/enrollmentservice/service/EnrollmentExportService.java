@@ -0,0 +1,284 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.DTO.CourseDTO;
+import com.cyd.enrollmentservice.DTO.ExportResultDTO;
+import com.cyd.enrollmentservice.common.ArrowBatchWriter;
+import com.cyd.enrollmentservice.model.ExportWatermark;
+import com.cyd.enrollmentservice.repository.ExportWatermarkRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 报表快照导出：选课记录（关联学生，课程信息取自本地课程缓存）与学生表流式写入本地 Arrow IPC 文件（列式、ZSTD 压缩）
+// JDBC 按 fetch-size 游标读取、按批写出，内存占用与表大小无关；增量导出按 enroll_time / created_at 水位只读取新增记录
+// 课程数据在 catalog-service 的库中，无法在 SQL 中关联，按课程ID从课程缓存补齐（每次导出内按课程去重）
+@Service
+public class EnrollmentExportService {
+    private static final String ENROLLMENTS = "enrollments";
+    private static final String STUDENTS = "students";
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // 主表选课记录关联学生；全量导出另外 UNION ALL 归档表（增量导出的水位之后不会有归档记录）
+    private static final String ENROLLMENT_COLUMNS =
+            "SELECT e.id, e.term, e.status, e.enroll_time, e.course_id, e.student_id, s.name, s.major, s.grade, %s AS archived " +
+            "FROM %s e LEFT JOIN students s ON s.student_id = e.student_id " +
+            "WHERE e.enroll_time > ? AND e.enroll_time <= ?";
+    private static final String LIVE_ENROLLMENTS_SQL = String.format(ENROLLMENT_COLUMNS, "FALSE", "enrollments");
+    private static final String ALL_ENROLLMENTS_SQL = LIVE_ENROLLMENTS_SQL + " UNION ALL "
+            + String.format(ENROLLMENT_COLUMNS, "TRUE", "enrollments_archive");
+    private static final String STUDENTS_SQL =
+            "SELECT id, student_id, name, major, grade, created_at FROM students WHERE created_at > ? AND created_at <= ?";
+
+    private static final Schema ENROLLMENT_SCHEMA = new Schema(List.of(
+            ArrowBatchWriter.utf8("enrollment_id"), ArrowBatchWriter.utf8("term"), ArrowBatchWriter.utf8("status"),
+            ArrowBatchWriter.timestamp("enroll_time"), ArrowBatchWriter.utf8("course_id"), ArrowBatchWriter.utf8("course_code"),
+            ArrowBatchWriter.utf8("course_title"), ArrowBatchWriter.utf8("student_id"), ArrowBatchWriter.utf8("student_name"),
+            ArrowBatchWriter.utf8("major"), ArrowBatchWriter.int32("grade"), ArrowBatchWriter.bool("archived")));
+    private static final Schema STUDENT_SCHEMA = new Schema(List.of(
+            ArrowBatchWriter.utf8("id"), ArrowBatchWriter.utf8("student_id"), ArrowBatchWriter.utf8("name"),
+            ArrowBatchWriter.utf8("major"), ArrowBatchWriter.int32("grade"), ArrowBatchWriter.timestamp("created_at")));
+
+    @Autowired
+    private ExportWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private CourseCacheService courseCache;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path exportDir;
+    private final int batchRows;
+    private final long maxMemoryBytes;
+    private final long watermarkLagSeconds;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile ExportResultDTO lastResult;
+
+    // 单线程执行：导出是长时间的顺序扫描，同一时刻只运行一个
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "enrollment-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EnrollmentExportService(
+            DataSource dataSource,
+            @Value("${enrollment.export.dir:exports}") String exportDir,
+            @Value("${enrollment.export.fetch-size:1000}") int fetchSize,
+            @Value("${enrollment.export.batch-rows:8192}") int batchRows,
+            @Value("${enrollment.export.max-memory-mb:256}") long maxMemoryMb,
+            @Value("${enrollment.export.watermark-lag-seconds:300}") long watermarkLagSeconds) {
+        // 独立的 JdbcTemplate：设置 fetch size 逐批读取（MySQL 需在连接串中开启 useCursorFetch）
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.exportDir = Path.of(exportDir);
+        this.batchRows = batchRows;
+        this.maxMemoryBytes = maxMemoryMb * 1024 * 1024;
+        this.watermarkLagSeconds = watermarkLagSeconds;
+    }
+
+    // 1. 手动触发导出（后台执行）；已有导出在运行时抛出 IllegalStateException
+    public void startExport(boolean incremental) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An export is already running");
+        }
+        submit(incremental);
+    }
+
+    // 2. 每晚定时增量导出（已有导出在运行时跳过本次）
+    // 同样交给导出线程执行：调度线程池只有一个线程，导出期间不能阻塞待确认选课等其他定时任务
+    @Scheduled(cron = "${enrollment.export.cron:0 0 2 * * *}")
+    public void scheduledExport() {
+        if (running.compareAndSet(false, true)) {
+            submit(true);
+        }
+    }
+
+    // 3. 最近一次导出的结果（运行中时 status 为 RUNNING）
+    public Optional<ExportResultDTO> lastResult() {
+        return Optional.ofNullable(lastResult);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(boolean incremental) {
+        executor.submit(() -> {
+            try {
+                runExport(incremental);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    private void runExport(boolean incremental) {
+        ExportResultDTO result = new ExportResultDTO();
+        result.setStatus("RUNNING");
+        result.setIncremental(incremental);
+        result.setStartedAt(LocalDateTime.now());
+        // 上界比当前时间滞后一段：选课时间在提交前生成，避免晚提交的记录落在已导出的水位之前
+        LocalDateTime until = result.getStartedAt().minusSeconds(watermarkLagSeconds);
+        result.setUntil(until);
+        // 运行期间对外展示占位结果，完成后整体替换（结果对象只由导出线程修改）
+        ExportResultDTO placeholder = new ExportResultDTO();
+        placeholder.setStatus("RUNNING");
+        placeholder.setIncremental(incremental);
+        placeholder.setStartedAt(result.getStartedAt());
+        placeholder.setUntil(until);
+        lastResult = placeholder;
+        String suffix = (incremental ? "incr-" : "full-") + FILE_TIME.format(result.getStartedAt()) + ".arrow";
+        try (BufferAllocator allocator = new RootAllocator(maxMemoryBytes)) {
+            Files.createDirectories(exportDir);
+            // 1. 选课记录（全量导出包含归档表）
+            LocalDateTime enrollmentsSince = incremental ? watermark(ENROLLMENTS) : BEGINNING;
+            LocalDateTime enrollmentsUntil = latest(enrollmentsSince, until);
+            Map<String, Optional<CourseDTO>> courses = new HashMap<>();
+            Path enrollmentsFile = exportDir.resolve(ENROLLMENTS + "-" + suffix);
+            long enrollmentRows = incremental
+                    ? write(enrollmentsFile, ENROLLMENT_SCHEMA, allocator, enrollmentsSince, enrollmentsUntil, LIVE_ENROLLMENTS_SQL, 1,
+                            (writer, rs) -> writeEnrollment(writer, rs, courses))
+                    : write(enrollmentsFile, ENROLLMENT_SCHEMA, allocator, enrollmentsSince, enrollmentsUntil, ALL_ENROLLMENTS_SQL, 2,
+                            (writer, rs) -> writeEnrollment(writer, rs, courses));
+            // 2. 学生
+            LocalDateTime studentsSince = incremental ? watermark(STUDENTS) : BEGINNING;
+            LocalDateTime studentsUntil = latest(studentsSince, until);
+            Path studentsFile = exportDir.resolve(STUDENTS + "-" + suffix);
+            long studentRows = write(studentsFile, STUDENT_SCHEMA, allocator, studentsSince, studentsUntil, STUDENTS_SQL, 1,
+                    this::writeStudent);
+            // 3. 两个文件都写完后再推进水位，失败时下次从原水位重新导出
+            saveWatermark(ENROLLMENTS, enrollmentsUntil, enrollmentsFile, enrollmentRows);
+            saveWatermark(STUDENTS, studentsUntil, studentsFile, studentRows);
+
+            result.getSince().put(ENROLLMENTS, enrollmentsSince);
+            result.getSince().put(STUDENTS, studentsSince);
+            result.getRows().put(ENROLLMENTS, enrollmentRows);
+            result.getRows().put(STUDENTS, studentRows);
+            result.getFiles().add(enrollmentsFile.toString());
+            result.getFiles().add(studentsFile.toString());
+            result.setStatus("COMPLETED");
+        } catch (IOException | RuntimeException e) {
+            result.setStatus("FAILED");
+            result.setMessage(e.getMessage());
+            System.err.println("Enrollment export failed: " + e.getMessage());
+        }
+        result.setFinishedAt(LocalDateTime.now());
+        lastResult = result;
+    }
+
+    // 流式读取 (since, until] 范围内的记录写入临时文件，完成后原子改名，读取方不会看到写了一半的文件
+    // ranges 为 SQL 中 (since, until] 条件出现的次数（UNION ALL 的每个分支各一次）
+    private long write(Path file, Schema schema, BufferAllocator allocator, LocalDateTime since, LocalDateTime until,
+                       String sql, int ranges, RowWriter rowWriter) throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        Map<String, String> metadata = Map.of("since", since.toString(), "until", until.toString());
+        try {
+            long rows;
+            try (ArrowBatchWriter writer = new ArrowBatchWriter(partial, schema, allocator, batchRows, metadata)) {
+                Object[] args = new Object[ranges * 2];
+                for (int i = 0; i < ranges; i++) {
+                    args[i * 2] = Timestamp.valueOf(since);
+                    args[i * 2 + 1] = Timestamp.valueOf(until);
+                }
+                jdbcTemplate.query(sql, rs -> {
+                    try {
+                        rowWriter.write(writer, rs);
+                        writer.endRow();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, args);
+                rows = writer.rows();
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return rows;
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(partial);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+    }
+
+    private void writeEnrollment(ArrowBatchWriter writer, ResultSet rs, Map<String, Optional<CourseDTO>> courses)
+            throws SQLException {
+        String courseId = rs.getString("course_id");
+        Optional<CourseDTO> course = courses.computeIfAbsent(courseId, this::findCourse);
+        writer.setString(0, rs.getString("id"));
+        writer.setString(1, rs.getString("term"));
+        writer.setString(2, rs.getString("status"));
+        writer.setTimestamp(3, rs.getObject("enroll_time", LocalDateTime.class));
+        writer.setString(4, courseId);
+        writer.setString(5, course.map(CourseDTO::getCode).orElse(null));
+        writer.setString(6, course.map(CourseDTO::getTitle).orElse(null));
+        writer.setString(7, rs.getString("student_id"));
+        writer.setString(8, rs.getString("name"));
+        writer.setString(9, rs.getString("major"));
+        writer.setInt(10, rs.getObject("grade", Integer.class));
+        writer.setBoolean(11, rs.getBoolean("archived"));
+    }
+
+    private void writeStudent(ArrowBatchWriter writer, ResultSet rs) throws SQLException {
+        writer.setString(0, rs.getString("id"));
+        writer.setString(1, rs.getString("student_id"));
+        writer.setString(2, rs.getString("name"));
+        writer.setString(3, rs.getString("major"));
+        writer.setInt(4, rs.getObject("grade", Integer.class));
+        writer.setTimestamp(5, rs.getObject("created_at", LocalDateTime.class));
+    }
+
+    // 课程信息缺失（已删除或 catalog-service 不可用）时课程列留空，不中断导出
+    private Optional<CourseDTO> findCourse(String courseId) {
+        try {
+            return courseCache.findCourse(courseId);
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    // 两次导出间隔小于水位滞后时间时上界不早于水位，避免水位回退导致重复导出
+    private static LocalDateTime latest(LocalDateTime since, LocalDateTime until) {
+        return until.isBefore(since) ? since : until;
+    }
+
+    private LocalDateTime watermark(String dataset) {
+        return watermarkRepository.findById(dataset).map(ExportWatermark::getWatermark).orElse(BEGINNING);
+    }
+
+    private void saveWatermark(String dataset, LocalDateTime until, Path file, long rows) {
+        watermarkRepository.save(new ExportWatermark(dataset, until, file.toString(), rows, LocalDateTime.now()));
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ArrowBatchWriter writer, ResultSet rs) throws SQLException;
+    }
+}
@@ -1,140 +1,317 @@
 package com.cyd.enrollmentservice.service;
 
 
+import com.cyd.enrollmentservice.DTO.CourseDTO;
+import com.cyd.enrollmentservice.client.CatalogClient;
+import com.cyd.enrollmentservice.client.CatalogUnavailableException;
+import com.cyd.enrollmentservice.common.AfterCommit;
 import com.cyd.enrollmentservice.common.ResourceNotFoundException;
 import com.cyd.enrollmentservice.model.Enrollment;
+import com.cyd.enrollmentservice.model.EnrollmentEventType;
 import com.cyd.enrollmentservice.model.EnrollmentStatus;
 import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.repository.EnrollmentArchiveRepository;
 import com.cyd.enrollmentservice.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class EnrollmentService {
+    // 批量统计接口单次最多课程数
+    private static final int MAX_COUNT_BATCH = 5000;
+    // 批量退课单次最多记录数
+    private static final int MAX_DROP_BATCH = 100;
+    // 批量选课单次最多课程数
+    private static final int MAX_ENROLL_BATCH = 20;
+
     @Autowired
     private EnrollmentRepository enrollmentRepository;
 
+    // 已结束学期的归档记录（仅在显式要求读取历史时查询）
+    @Autowired
+    private EnrollmentArchiveRepository archiveRepository;
+
+    // catalog-service 客户端（封装地址、CBOR内容协商与强类型响应）
     @Autowired
-    private RestTemplate restTemplate;
+    private CatalogClient catalogClient;
+
+    // 本地课程缓存（校验课程存在性时优先命中，启动时预热）
+    @Autowired
+    private CourseCacheService courseCache;
 
     @Autowired
     private StudentService studentService;
-    // 2. 新增：从配置文件读取catalog-service地址（避免硬编码，{insert\_element\_2\_}）
-    @Value("${catalog-service.url}")
-    private String catalogServiceUrl;
 
-    // 1. 学生选课（核心业务逻辑：校验+级联更新）
+    // 选课统计聚合（选课/退课时在同一事务内增量更新聚合表）
+    @Autowired
+    private EnrollmentAnalyticsService analyticsService;
+
+    // 选课事件日志（状态流转时在同一事务内追加事件）
+    @Autowired
+    private EnrollmentEventService eventService;
+
+    // 学生档案读模型（状态流转提交后同步更新缓存中的选课摘要）
+    @Autowired
+    private StudentProfileService profileService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 降级模式：catalog-service 不可用时按课程快照暂收选课（PENDING），恢复后由 ProvisionalEnrollmentConfirmer 确认
+    @Value("${enrollment.degraded.enabled:true}")
+    private boolean degradedEnabled;
+
+    // 暂收时允许超出快照容量的名额数（快照过期、并发暂收与多实例竞争的余量），确认时超出部分被拒绝
+    @Value("${enrollment.degraded.oversell-budget:2}")
+    private int oversellBudget;
+
+    // 1. 学生选课（核心业务逻辑：校验+占座）
+    // 容量由 catalog-service 占座接口的条件更新保证（热门课程分散到座位分片），不再“先查人数、再回写 enrolled+1”
     @Transactional
     public Enrollment enrollCourse(Enrollment enrollment) {
         String courseId = enrollment.getCourseId();
         String studentId = enrollment.getStudentId();
 
-        // 校验1：调用catalog-service验证课程是否存在+获取课程信息（{insert\_element\_3\_}）
-        String courseApiUrl = catalogServiceUrl + "/api/courses/" + courseId;
-        Map<String, Object> courseData; // 存储catalog-service返回的课程数据（JSON转Map）
-        try {
-            // 调用catalog-service的GET接口，获取课程信息（含capacity、enrolled）
-            courseData = restTemplate.getForObject(courseApiUrl, Map.class);
-            // 假设catalog-service返回格式为{data: {id: "xxx", capacity: 60, enrolled: 10, ...}}（需与catalog-service接口响应一致）
-            if (courseData == null || courseData.get("data") == null) {
-                throw new RuntimeException("Course not found with id: " + courseId);
-            }
-            courseData = (Map<String, Object>) courseData.get("data");
-        } catch (HttpClientErrorException e) {
-            // 捕获404异常：课程不存在（{insert\_element\_4\_}）
-            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-                throw new RuntimeException("Course not found with id: " + courseId);
-            }
-            // 其他HTTP异常（如catalog-service宕机）
-            throw new RuntimeException("Failed to call catalog-service: " + e.getMessage());
-        }
-        // 校验2：学生是否存在（保留原逻辑，需确保StudentService是本地服务）
+        // 校验1：学生是否存在（保留原逻辑，需确保StudentService是本地服务）
         Student student = studentService.findStudentByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found with studentId: " + studentId));
 
-        // 校验3：是否重复选课（保留原逻辑，符合{insert\_element\_5\_}的重复检查）
+        // 校验2：是否重复选课（保留原逻辑，符合{insert\_element\_5\_}的重复检查）
         if (enrollmentRepository.existsByCourseIdAndStudentId(courseId, studentId)) {
             throw new IllegalArgumentException("Duplicate enrollment: Student " + studentId + " already enrolled in Course " + courseId);
         }
 
-        // 校验4：课程容量是否已满（从catalog-service返回的courseData中获取capacity和enrolled，{insert\_element\_6\_}）
-        Integer courseCapacity = (Integer) courseData.get("capacity");
-        Integer currentEnrolled = (Integer) courseData.get("enrolled");
-        if (currentEnrolled >= courseCapacity) {
-            throw new IllegalArgumentException("Course capacity exceeded: Current enrolled " + currentEnrolled + ", Capacity " + courseCapacity);
+        // 校验3：向catalog-service占座（课程不存在抛出ResourceNotFoundException；catalog-service 连接失败时转为降级暂收）
+        boolean reserved;
+        try {
+            reserved = catalogClient.reserveSeats(courseId, 1);
+        } catch (CatalogUnavailableException e) {
+            return enrollProvisionally(List.of(enrollment), e).get(0);
+        }
+        if (!reserved) {
+            throw new IllegalArgumentException("Course capacity exceeded: " + courseId);
         }
+        // 本地事务回滚（如并发重复选课触发唯一约束）时归还已占名额
+        AfterCommit.onRollback(() -> releaseSeat(courseId));
 
         // 执行选课：设置默认状态（保留原逻辑，符合{insert\_element\_7\_}的ACTIVE状态）
         enrollment.setStatus(EnrollmentStatus.ACTIVE);
         Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        analyticsService.recordEnroll(courseId, student);
+        eventService.append(EnrollmentEventType.ENROLLED, savedEnrollment);
+        profileService.onEnrollmentChanged(studentId, courseId, null, EnrollmentStatus.ACTIVE);
+        return savedEnrollment;
+    }
 
-        // 级联更新：调用catalog-service更新课程已选人数（enrolled+1，{insert\_element\_8\_}）
-        updateCourseEnrolledCount(courseId, currentEnrolled + 1);
+    // 1-1. 批量选课（整张课表：讲授/实验/习题课一起选）：全部成功或全部失败
+    // 学生校验、重复校验各一条查询；catalog-service 一次调用占全部名额（任一门已满由其归还已占名额）；
+    // 选课记录一次批量插入（hibernate.jdbc.batch_size）。本地事务回滚时一次调用归还全部名额
+    @Transactional
+    public List<Enrollment> enrollCourses(String studentId, List<String> courseIds) {
+        Set<String> ids = new LinkedHashSet<>(courseIds);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("Course IDs must not be empty");
+        }
+        if (ids.size() > MAX_ENROLL_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_ENROLL_BATCH + " courses per request");
+        }
+        if (ids.stream().anyMatch(id -> id == null || id.isBlank())) {
+            throw new IllegalArgumentException("Course ID cannot be blank");
+        }
+        Student student = studentService.findStudentByStudentId(studentId)
+                .orElseThrow(() -> new RuntimeException("Student not found with studentId: " + studentId));
 
-        return savedEnrollment;
+        // 1. 重复选课校验（一条查询）
+        List<String> duplicates = enrollmentRepository.findCourseIdsByStudentIdAndCourseIdIn(studentId, ids);
+        if (!duplicates.isEmpty()) {
+            throw new IllegalArgumentException("Duplicate enrollment: Student " + studentId + " already enrolled in Courses " + duplicates);
+        }
+
+        List<Enrollment> enrollments = ids.stream().map(courseId -> {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setCourseId(courseId);
+            enrollment.setStudentId(studentId);
+            enrollment.setStatus(EnrollmentStatus.ACTIVE);
+            return enrollment;
+        }).toList();
+
+        // 2. 一次调用占全部名额：任一门名额不足或不存在则整体拒绝（catalog-service 已归还本次占的名额）
+        // catalog-service 连接失败时整张课表一起降级暂收（同样全部成功或全部失败）
+        Map<String, Integer> seats = new HashMap<>();
+        ids.forEach(courseId -> seats.put(courseId, 1));
+        List<String> rejected;
+        try {
+            rejected = catalogClient.reserveSeatsBatch(seats);
+        } catch (CatalogUnavailableException e) {
+            return enrollProvisionally(enrollments, e);
+        }
+        if (!rejected.isEmpty()) {
+            throw new IllegalArgumentException("Course capacity exceeded or course not found: " + rejected);
+        }
+        Map<String, Integer> releases = new HashMap<>();
+        ids.forEach(courseId -> releases.put(courseId, -1));
+        AfterCommit.onRollback(() -> releaseSeats(releases));
+
+        // 3. 批量插入选课记录，统计聚合、事件日志与学生档案同一事务内更新
+        List<Enrollment> saved = enrollmentRepository.saveAll(enrollments);
+        ids.forEach(courseId -> analyticsService.recordEnroll(courseId, student));
+        eventService.appendAll(EnrollmentEventType.ENROLLED, saved);
+        profileService.onEnrollmentsChanged(saved, null, EnrollmentStatus.ACTIVE);
+        return saved;
     }
-    // 新增工具方法：调用catalog-service更新课程已选人数（{insert\_element\_9\_}）
-    private void updateCourseEnrolledCount(String courseId, int newEnrolledCount) {
-        String updateApiUrl = catalogServiceUrl + "/api/courses/" + courseId;
-        // 构造更新数据：仅传递enrolled字段（符合catalog-service的PUT接口要求）
-        Map<String, Object> updateData = Map.of("enrolled", newEnrolledCount);
+
+    // 1-2. 降级暂收：catalog-service 不可用时按本地课程快照（可能已过期）的容量判断，记录为 PENDING，不占座
+    // 占用人数 = max(快照已选人数, 本地 ACTIVE 数) + 本地 PENDING 数，须小于 容量 + oversell-budget；任一课程超出则整体拒绝
+    // 统计聚合与事件日志在确认为 ACTIVE 时才记录；未开启降级或没有课程快照时抛出原异常（503）
+    // 占座请求可能已送达（读超时、5xx）时不暂收：对端可能已占座，确认时会再占一个名额；直接返回 503 由客户端重试，
+    // 可能多占的名额由 catalog-service 对账任务修正（归还同样无法确认是否占过，可能把别人的名额减掉）
+    private List<Enrollment> enrollProvisionally(List<Enrollment> enrollments, CatalogUnavailableException cause) {
+        if (!degradedEnabled || cause.isRequestDelivered()) {
+            throw cause;
+        }
+        List<String> courseIds = enrollments.stream().map(Enrollment::getCourseId).toList();
+        Map<String, CourseDTO> snapshots = new HashMap<>();
+        for (String courseId : courseIds) {
+            snapshots.put(courseId, courseCache.findCourse(courseId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Course", courseId)));
+        }
+        Map<String, Long> active = countByCourse(courseIds, EnrollmentStatus.ACTIVE);
+        Map<String, Long> pending = countByCourse(courseIds, EnrollmentStatus.PENDING);
+        List<String> full = courseIds.stream().filter(courseId -> {
+            CourseDTO snapshot = snapshots.get(courseId);
+            long enrolled = snapshot.getEnrolled() == null ? 0 : snapshot.getEnrolled();
+            long capacity = snapshot.getCapacity() == null ? 0 : snapshot.getCapacity();
+            long occupied = Math.max(enrolled, active.getOrDefault(courseId, 0L)) + pending.getOrDefault(courseId, 0L);
+            return occupied >= capacity + oversellBudget;
+        }).toList();
+        if (!full.isEmpty()) {
+            throw new IllegalArgumentException("Course capacity exceeded: " + String.join(", ", full));
+        }
+
+        enrollments.forEach(enrollment -> enrollment.setStatus(EnrollmentStatus.PENDING));
+        List<Enrollment> saved = enrollmentRepository.saveAll(enrollments);
+        profileService.onEnrollmentsChanged(saved, null, EnrollmentStatus.PENDING);
+        AfterCommit.run(() -> meterRegistry.counter("enrollment.provisional", "outcome", "accepted").increment(saved.size()));
+        return saved;
+    }
+
+    private Map<String, Long> countByCourse(List<String> courseIds, EnrollmentStatus status) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : enrollmentRepository.countGroupByCourseId(courseIds, status)) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    // 新增工具方法：批量相对调整已选人数归还名额（退课、补偿批量占座），失败只记录日志（偏差由 catalog-service 对账任务修正）
+    private void releaseSeats(Map<String, Integer> deltas) {
         try {
-            // 调用catalog-service的PUT接口，更新课程已选人数
-            restTemplate.put(updateApiUrl, updateData);
+            List<String> rejected = catalogClient.adjustEnrolledCounts(deltas);
+            if (!rejected.isEmpty()) {
+                System.err.println("Catalog rejected seat release for courses: " + rejected);
+            }
         } catch (Exception e) {
-            // 文档要求：更新失败不影响主流程，仅记录日志（{insert\_element\_10\_}）
-            System.err.println("Failed to update course enrolled count: " + e.getMessage());
-            // 生产环境建议用日志框架（如SLF4J）记录，而非System.err
-            // log.error("Failed to update course enrolled count for course {}: {}", courseId, e.getMessage());
+            System.err.println("Failed to release seats for courses " + deltas.keySet() + ": " + e.getMessage());
+        }
+    }
+
+    // 新增工具方法：归还名额，失败只记录日志（偏差由 catalog-service 对账任务修正）
+    private void releaseSeat(String courseId) {
+        try {
+            catalogClient.releaseSeats(courseId, 1);
+        } catch (Exception e) {
+            System.err.println("Failed to release seat for course " + courseId + ": " + e.getMessage());
         }
     }
 
 
     // 2. 学生退课（级联更新课程已选人数）
+    // 快速路径：一条条件 UPDATE（仅 ACTIVE → DROPPED）完成状态校验与更新，catalog-service 侧只做一次相对减 1，不再先查课程
     @Transactional
     public void dropCourse(String enrollmentId) {
-        // 校验选课记录是否存在（保留原逻辑）
+        // 1. 条件更新：记录不存在或已非 ACTIVE 时更新 0 行，此时才查询一次用于区分错误原因
+        if (enrollmentRepository.transitionStatus(List.of(enrollmentId), EnrollmentStatus.ACTIVE, EnrollmentStatus.DROPPED) == 0) {
+            Enrollment existing = enrollmentRepository.findById(enrollmentId)
+                    .orElseThrow(() -> new RuntimeException("Enrollment not found with id: " + enrollmentId));
+            // 待确认的暂收记录：未占座、未计入统计与事件日志，只需改状态（确认任务随后的条件更新会落空）
+            if (existing.getStatus() == EnrollmentStatus.PENDING
+                    && enrollmentRepository.transitionStatus(List.of(enrollmentId), EnrollmentStatus.PENDING, EnrollmentStatus.DROPPED) == 1) {
+                profileService.onEnrollmentChanged(existing.getStudentId(), existing.getCourseId(),
+                        EnrollmentStatus.PENDING, EnrollmentStatus.DROPPED);
+                return;
+            }
+            throw new IllegalArgumentException("Enrollment is not active (status: " + existing.getStatus() + "): " + enrollmentId);
+        }
+
+        // 2. 按主键读取课程ID/学号（事件日志与统计聚合需要）
         Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
                 .orElseThrow(() -> new RuntimeException("Enrollment not found with id: " + enrollmentId));
+        studentService.findStudentByStudentId(enrollment.getStudentId())
+                .ifPresent(student -> analyticsService.recordDrop(enrollment.getCourseId(), student));
+        eventService.append(EnrollmentEventType.DROPPED, enrollment);
+        profileService.onEnrollmentChanged(enrollment.getStudentId(), enrollment.getCourseId(),
+                EnrollmentStatus.ACTIVE, EnrollmentStatus.DROPPED);
 
-        // 校验：是否已退课（避免重复退课）
-        if (enrollment.getStatus() == EnrollmentStatus.DROPPED) {
-            throw new IllegalArgumentException("Enrollment already dropped: " + enrollmentId);
+        // 3. 事务提交后再通知 catalog-service 相对减 1（回滚时不会误减）
+        releaseSeatsAfterCommit(Map.of(enrollment.getCourseId(), -1));
+    }
+
+    // 2-1. 批量退课：同一学生的多条选课记录在一个事务内完成（全部成功或全部失败）
+    @Transactional
+    public List<String> dropCourses(String studentId, List<String> enrollmentIds) {
+        Set<String> ids = new LinkedHashSet<>(enrollmentIds);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("Enrollment IDs must not be empty");
         }
+        if (ids.size() > MAX_DROP_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_DROP_BATCH + " enrollments per request");
+        }
+        Student student = studentService.findStudentByStudentId(studentId)
+                .orElseThrow(() -> new RuntimeException("Student not found with studentId: " + studentId));
 
-        // 退课：更新状态（保留原逻辑）
-        enrollment.setStatus(EnrollmentStatus.DROPPED);
-        enrollmentRepository.save(enrollment);
+        // 1. 加锁读取该学生仍为 ACTIVE 的记录，任一记录不存在/不属于该学生/非 ACTIVE 则整体拒绝
+        List<Enrollment> active = enrollmentRepository.findByStudentForUpdate(studentId, ids, EnrollmentStatus.ACTIVE);
+        if (active.size() != ids.size()) {
+            Set<String> droppable = active.stream().map(Enrollment::getId).collect(Collectors.toSet());
+            List<String> invalid = ids.stream().filter(id -> !droppable.contains(id)).toList();
+            throw new IllegalArgumentException("Enrollments not active for student " + studentId + ": " + invalid);
+        }
 
-        // 级联更新：调用catalog-service获取当前已选人数，再减1（{insert\_element\_11\_}）
-        String courseId = enrollment.getCourseId();
-        String courseApiUrl = catalogServiceUrl + "/api/courses/" + courseId;
-        try {
-            // 1. 先获取课程当前已选人数
-            Map<String, Object> courseData = restTemplate.getForObject(courseApiUrl, Map.class);
-            if (courseData == null || courseData.get("data") == null) {
-                throw new RuntimeException("Course not found with id: " + courseId);
-            }
-            courseData = (Map<String, Object>) courseData.get("data");
-            Integer currentEnrolled = (Integer) courseData.get("enrolled");
+        // 2. 一条集合式 UPDATE 完成状态流转
+        List<String> droppedIds = active.stream().map(Enrollment::getId).toList();
+        enrollmentRepository.transitionStatus(droppedIds, EnrollmentStatus.ACTIVE, EnrollmentStatus.DROPPED);
 
-            // 2. 计算新的已选人数（避免为负）
-            int newEnrolledCount = Math.max(0, currentEnrolled - 1);
+        // 3. 统计聚合与事件日志（按课程合并）
+        Map<String, Long> perCourse = active.stream()
+                .collect(Collectors.groupingBy(Enrollment::getCourseId, Collectors.counting()));
+        perCourse.forEach((courseId, count) -> analyticsService.recordDrops(courseId, student, count));
+        eventService.appendAll(EnrollmentEventType.DROPPED, active);
+        profileService.onEnrollmentsChanged(active, EnrollmentStatus.ACTIVE, EnrollmentStatus.DROPPED);
 
-            // 3. 调用catalog-service更新人数
-            updateCourseEnrolledCount(courseId, newEnrolledCount);
-        } catch (Exception e) {
-            // 同样，更新失败仅记录日志，不影响退课主流程
-            System.err.println("Failed to update course enrolled count when dropping: " + e.getMessage());
-        }
+        // 4. 提交后一次调用批量相对调整各课程已选人数
+        Map<String, Integer> deltas = new HashMap<>();
+        perCourse.forEach((courseId, count) -> deltas.put(courseId, -count.intValue()));
+        releaseSeatsAfterCommit(deltas);
+        return droppedIds;
+    }
+
+    // 新增工具方法：事务提交后批量相对调整 catalog-service 已选人数
+    // 调用失败或被拒绝只记录日志，不影响已提交的退课；偏差由 catalog-service 对账任务修正
+    private void releaseSeatsAfterCommit(Map<String, Integer> deltas) {
+        AfterCommit.run(() -> releaseSeats(deltas));
     }
 
     // 3. 查询所有选课记录（保留原功能，适配Repository）
@@ -152,27 +329,37 @@ public class EnrollmentService {
     // 4. 按课程ID查询选课记录（改造：HTTP调用catalog-service校验课程，保留查询功能）
     public List<Enrollment> findEnrollmentsByCourseId(String courseId) {
         // 改造点1：调用catalog-service验证课程是否存在（替换原courseService）
-        String courseApiUrl = catalogServiceUrl + "/api/courses/" + courseId;
+        // 改造点2：课程不存在（404或data为空）抛出统一的“资源不存在”异常；调用失败由客户端抛出RuntimeException
+        // 降级：catalog-service 不可用且课程缓存中没有副本时，有选课记录即说明课程存在，直接返回；没有记录无法区分，抛出 503
+        Optional<CourseDTO> course;
         try {
-            // 调用catalog-service的GET接口，仅需验证课程存在（无需完整课程数据）
-            restTemplate.getForObject(courseApiUrl, Map.class);
-            // 若接口返回200，则课程存在；若返回404，会抛HttpClientErrorException
-        } catch (HttpClientErrorException e) {
-            // 改造点2：捕获404异常，抛出统一的“资源不存在”异常
-            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
-                throw new ResourceNotFoundException("Course", courseId); // 自定义异常，需提前创建
+            course = courseCache.findCourse(courseId);
+        } catch (CatalogUnavailableException e) {
+            List<Enrollment> enrollments = enrollmentRepository.findByCourseId(courseId);
+            if (enrollments.isEmpty()) {
+                throw e;
             }
-            // 改造点3：处理其他HTTP异常（如catalog-service宕机）
-            throw new RuntimeException("Failed to verify course from catalog-service: " + e.getMessage());
-        } catch (Exception e) {
-            // 兜底处理：网络异常、接口响应格式错误等
-            throw new RuntimeException("Error verifying course existence: " + e.getMessage());
+            return enrollments;
+        }
+        if (course.isEmpty()) {
+            throw new ResourceNotFoundException("Course", courseId);
         }
 
         // 保留原逻辑：查询该课程下所有选课记录（选课服务的核心职责，）
         return enrollmentRepository.findByCourseId(courseId);
     }
 
+    // 4-1. 按课程ID查询，可选合并已归档的历史记录（主表在前，归档记录在后）
+    public List<Enrollment> findEnrollmentsByCourseId(String courseId, boolean includeArchived) {
+        List<Enrollment> live = findEnrollmentsByCourseId(courseId);
+        if (!includeArchived) {
+            return live;
+        }
+        List<Enrollment> all = new ArrayList<>(live);
+        archiveRepository.findByCourseId(courseId).forEach(archived -> all.add(archived.toEnrollment()));
+        return all;
+    }
+
 //    // 4-1. 课程+状态组合查询（任务三要求按课程、状态组合查询（{insert\_element\_7\_}），复用Repository方法）
 //    public List<Enrollment> findEnrollmentsByCourseIdAndStatus(String courseId, EnrollmentStatus status) {
 //        courseService.findCourseById(courseId)
@@ -181,18 +368,53 @@ public class EnrollmentService {
 //    }
 
     // 5. 按学生学号查询选课记录（保留原功能，适配Repository）
+    // 学生存在性校验并入查询本身（一条 SQL），不再先单独查询学生
     public List<Enrollment> findEnrollmentsByStudentId(String studentId) {
-        // 保留原校验逻辑
-        studentService.findStudentByStudentId(studentId)
-                .orElseThrow(() -> new RuntimeException("Student not found with studentId: " + studentId));
-        return enrollmentRepository.findByStudentId(studentId);
+        return requireStudentRows(studentId, enrollmentRepository.findByExistingStudentId(studentId));
+    }
+
+    // 5-2. 按学号查询，可选合并已归档的历史记录（默认只查主表）
+    public List<Enrollment> findEnrollmentsByStudentId(String studentId, boolean includeArchived) {
+        List<Enrollment> live = findEnrollmentsByStudentId(studentId);
+        if (!includeArchived) {
+            return live;
+        }
+        List<Enrollment> all = new ArrayList<>(live);
+        archiveRepository.findByStudentId(studentId).forEach(archived -> all.add(archived.toEnrollment()));
+        return all;
     }
 
     // 5-1. 学生+状态组合查询（任务三要求按学生、状态组合查询（{insert\_element\_8\_}），复用Repository方法）
     public List<Enrollment> findEnrollmentsByStudentIdAndStatus(String studentId, EnrollmentStatus status) {
-        studentService.findStudentByStudentId(studentId)
-                .orElseThrow(() -> new RuntimeException("Student not found with studentId: " + studentId));
-        return enrollmentRepository.findByStudentIdAndStatus(studentId, status);
+        return requireStudentRows(studentId, enrollmentRepository.findByExistingStudentIdAndStatus(studentId, status));
+    }
+
+    // 新增工具方法：LEFT JOIN 结果为空表示学生不存在；去掉“学生存在但无选课记录”时的 null 行
+    private static List<Enrollment> requireStudentRows(String studentId, List<Enrollment> rows) {
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Student not found with studentId: " + studentId);
+        }
+        return rows.stream().filter(Objects::nonNull).toList();
+    }
+
+    // 5-2. 批量统计课程占座人数（供 catalog-service 对账使用），没有占座记录的课程不出现在结果中
+    // 结课不归还名额，catalog-service 的 enrolled 包含已结课（含已归档）的记录：占座人数 = ACTIVE + COMPLETED + 归档的 COMPLETED
+    public Map<String, Long> countActiveByCourseIds(List<String> courseIds) {
+        if (courseIds.size() > MAX_COUNT_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_COUNT_BATCH + " course IDs per request");
+        }
+        Map<String, Long> counts = new HashMap<>();
+        if (courseIds.isEmpty()) {
+            return counts;
+        }
+        for (Object[] row : enrollmentRepository.countGroupByCourseIdAndStatusIn(
+                courseIds, List.of(EnrollmentStatus.ACTIVE, EnrollmentStatus.COMPLETED))) {
+            counts.merge((String) row[0], (Long) row[1], Long::sum);
+        }
+        for (Object[] row : archiveRepository.countGroupByCourseId(courseIds, EnrollmentStatus.COMPLETED)) {
+            counts.merge((String) row[0], (Long) row[1], Long::sum);
+        }
+        return counts;
     }
 
     // 6. 校验学生是否有选课记录（供学生Service删除学生时使用）- 保留原功能
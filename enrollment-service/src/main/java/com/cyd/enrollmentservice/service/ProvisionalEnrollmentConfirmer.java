@@ -0,0 +1,148 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.client.CatalogClient;
+import com.cyd.enrollmentservice.client.CatalogRequestRejectedException;
+import com.cyd.enrollmentservice.client.CatalogUnavailableException;
+import com.cyd.enrollmentservice.common.ResourceNotFoundException;
+import com.cyd.enrollmentservice.model.Enrollment;
+import com.cyd.enrollmentservice.model.EnrollmentEventType;
+import com.cyd.enrollmentservice.model.EnrollmentStatus;
+import com.cyd.enrollmentservice.repository.EnrollmentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// 待确认选课的后台确认：catalog-service 恢复后按选课时间顺序逐条占座，成功转为 ACTIVE（此时才记录统计聚合与事件日志），
+// 名额不足、课程已删除或占座请求被其他 4xx 拒绝（重试也不会成功）时删除记录（不占住（课程, 学号）唯一键，学生可重新选课），结果记入事件日志（REJECTED）与学生档案；catalog-service 仍不可用或限流（429）时结束本轮，等下一轮再试
+// （占座请求可能已送达时对端可能已占座，下一轮重试会多占一个名额，由 catalog-service 对账任务修正）
+// 多实例同时确认同一条记录时由 PENDING → ACTIVE 条件更新决出一个，其余实例（以及学生已退掉的记录）归还各自占的名额
+@Component
+public class ProvisionalEnrollmentConfirmer {
+    // 确认结果（指标 enrollment.provisional 的 outcome 标签）
+    private static final String CONFIRMED = "confirmed";
+    private static final String REJECTED = "rejected";
+
+    @Autowired
+    private CatalogClient catalogClient;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private EnrollmentAnalyticsService analyticsService;
+
+    @Autowired
+    private EnrollmentEventService eventService;
+
+    @Autowired
+    private StudentProfileService profileService;
+
+    @Value("${enrollment.degraded.enabled:true}")
+    private boolean enabled;
+
+    @Value("${enrollment.degraded.confirm-batch-size:100}")
+    private int batchSize;
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public ProvisionalEnrollmentConfirmer(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("enrollment.catalog.available", this,
+                confirmer -> confirmer.catalogClient.isAvailable() ? 1 : 0);
+    }
+
+    // 1. 定时确认一批待确认记录；熔断窗口内直接跳过
+    @Scheduled(fixedDelayString = "${enrollment.degraded.confirm-interval-millis:10000}")
+    public void confirmPending() {
+        if (!enabled || !catalogClient.isAvailable()) {
+            return;
+        }
+        List<Enrollment> pending = enrollmentRepository.findByStatusOrderByEnrollTimeAsc(
+                EnrollmentStatus.PENDING, PageRequest.of(0, batchSize));
+        for (Enrollment enrollment : pending) {
+            if (!confirm(enrollment)) {
+                return;
+            }
+        }
+    }
+
+    // 2. 确认单条记录：先占座，再在独立事务中条件更新状态；catalog-service 不可用或限流时返回 false
+    boolean confirm(Enrollment enrollment) {
+        String courseId = enrollment.getCourseId();
+        boolean reserved;
+        try {
+            reserved = catalogClient.reserveSeats(courseId, 1);
+        } catch (CatalogUnavailableException e) {
+            return false;
+        } catch (ResourceNotFoundException e) {
+            reserved = false;
+        } catch (CatalogRequestRejectedException e) {
+            if (e.isRetryable()) {
+                return false;
+            }
+            System.err.println("Seat request rejected for pending enrollment " + enrollment.getId() + ": " + e.getMessage());
+            reserved = false;
+        }
+
+        boolean seatHeld = reserved;
+        String outcome = null;
+        try {
+            outcome = transactionTemplate.execute(status -> seatHeld ? activate(enrollment) : reject(enrollment));
+        } catch (RuntimeException e) {
+            System.err.println("Failed to confirm pending enrollment " + enrollment.getId() + ": " + e.getMessage());
+        }
+        if (seatHeld && !CONFIRMED.equals(outcome)) {
+            releaseSeat(courseId);
+        }
+        if (outcome != null) {
+            meterRegistry.counter("enrollment.provisional", "outcome", outcome).increment();
+        }
+        return true;
+    }
+
+    // PENDING → ACTIVE；记录已不是 PENDING（学生已退课或其他实例已确认）时返回 null
+    private String activate(Enrollment enrollment) {
+        if (enrollmentRepository.transitionStatus(List.of(enrollment.getId()), EnrollmentStatus.PENDING, EnrollmentStatus.ACTIVE) == 0) {
+            return null;
+        }
+        enrollment.setStatus(EnrollmentStatus.ACTIVE);
+        studentService.findStudentByStudentId(enrollment.getStudentId())
+                .ifPresent(student -> analyticsService.recordEnroll(enrollment.getCourseId(), student));
+        eventService.append(EnrollmentEventType.ENROLLED, enrollment);
+        profileService.onEnrollmentChanged(enrollment.getStudentId(), enrollment.getCourseId(),
+                EnrollmentStatus.PENDING, EnrollmentStatus.ACTIVE);
+        return CONFIRMED;
+    }
+
+    // 删除 PENDING 记录（名额不足或课程不存在），记录仍是 PENDING 时才删除；事件日志追加 REJECTED，学生档案移除该待确认记录
+    private String reject(Enrollment enrollment) {
+        if (enrollmentRepository.deleteByIdAndStatus(enrollment.getId(), EnrollmentStatus.PENDING) == 0) {
+            return null;
+        }
+        eventService.append(EnrollmentEventType.REJECTED, enrollment);
+        profileService.onEnrollmentChanged(enrollment.getStudentId(), enrollment.getCourseId(),
+                EnrollmentStatus.PENDING, null);
+        return REJECTED;
+    }
+
+    // 归还名额，失败只记录日志（偏差由 catalog-service 对账任务修正）
+    private void releaseSeat(String courseId) {
+        try {
+            catalogClient.releaseSeats(courseId, 1);
+        } catch (Exception e) {
+            System.err.println("Failed to release seat for course " + courseId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// 启动时补齐 email_domain：升级前创建的学生该列为空，按域名检索会漏掉；每批一个事务，避免长事务锁住整张表
+// 新写入的学生由实体回调维护，补齐完成后每次启动只执行一条查不到数据的 UPDATE
+@Component
+public class StudentEmailDomainBackfill implements ApplicationRunner {
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Value("${enrollment.student-search.backfill-batch-size:1000}")
+    private int batchSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public StudentEmailDomainBackfill(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long total = 0;
+        int updated;
+        do {
+            Integer rows = transactionTemplate.execute(status -> studentRepository.backfillEmailDomains(batchSize));
+            updated = rows == null ? 0 : rows;
+            total += updated;
+        } while (updated == batchSize);
+        if (total > 0) {
+            System.err.println("Backfilled email_domain for " + total + " students");
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.DTO.StudentProfileDTO;
+import com.cyd.enrollmentservice.common.AfterCommit;
+import com.cyd.enrollmentservice.common.BoundedCache;
+import com.cyd.enrollmentservice.model.Enrollment;
+import com.cyd.enrollmentservice.model.EnrollmentStatus;
+import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.repository.EnrollmentRepository;
+import com.cyd.enrollmentservice.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// 学生档案读模型：学生信息 + 选课摘要，缓存在进程内有界缓存中
+// 未命中时两条查询加载（学生按学号、选课记录只取课程ID与状态）；学生/选课写入在事务提交后直接更新缓存（write-through），
+// 缓存中没有的学生不做处理，等下次读取时再加载
+@Service
+public class StudentProfileService {
+    // 变更戳分段数：加载期间同一分段有写入则放弃回填，避免把加载前的旧快照写进缓存
+    private static final int STAMP_STRIPES = 1024;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    private final BoundedCache<String, StudentProfileDTO> cache;
+    // 以下状态均在 this 上同步访问
+    private final long[] stamps = new long[STAMP_STRIPES];
+
+    public StudentProfileService(
+            @Value("${enrollment.profile-cache.max-entries:50000}") int maxEntries,
+            @Value("${enrollment.profile-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = new BoundedCache<>(maxEntries, ttlSeconds * 1000);
+    }
+
+    // 1. 读取学生档案：命中缓存直接返回，未命中从数据库加载并回填
+    @Transactional(readOnly = true)
+    public Optional<StudentProfileDTO> getProfile(String studentId) {
+        StudentProfileDTO cached = cache.get(studentId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = stamp(studentId);
+        Optional<Student> student = studentRepository.findByStudentId(studentId);
+        if (student.isEmpty()) {
+            return Optional.empty();
+        }
+        List<String> activeCourseIds = new ArrayList<>();
+        Map<EnrollmentStatus, Long> counts = emptyCounts();
+        for (Object[] row : enrollmentRepository.findCourseStatusByStudentId(studentId)) {
+            EnrollmentStatus status = (EnrollmentStatus) row[1];
+            counts.merge(status, 1L, Long::sum);
+            if (status == EnrollmentStatus.ACTIVE) {
+                activeCourseIds.add((String) row[0]);
+            }
+        }
+        StudentProfileDTO profile = new StudentProfileDTO(copyOf(student.get()), List.copyOf(activeCourseIds), counts);
+        synchronized (this) {
+            if (stamps[stripe(studentId)] == stamp) {
+                cache.put(studentId, profile);
+            }
+        }
+        return Optional.of(profile);
+    }
+
+    // 2. 学生新增/修改：提交后更新缓存中的学生信息（新学生没有选课记录，直接写入空摘要）
+    public void onStudentSaved(Student student, boolean created) {
+        Student snapshot = copyOf(student);
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                String studentId = snapshot.getStudentId();
+                bump(studentId);
+                StudentProfileDTO current = cache.get(studentId);
+                if (current != null) {
+                    cache.put(studentId, new StudentProfileDTO(snapshot, current.getActiveCourseIds(), current.getStatusCounts()));
+                } else if (created) {
+                    cache.put(studentId, new StudentProfileDTO(snapshot, List.of(), emptyCounts()));
+                }
+            }
+        });
+    }
+
+    // 3. 学生删除（按主键，条件删除不会读出学号）：提交后按主键移除缓存；
+    // 删除很少发生，推进全部变更戳，让并发加载中的旧快照都放弃回填
+    public void onStudentDeleted(String id) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                for (int i = 0; i < STAMP_STRIPES; i++) {
+                    stamps[i]++;
+                }
+                cache.removeIf(profile -> id.equals(profile.getStudent().getId()));
+            }
+        });
+    }
+
+    // 4. 选课状态变化（from 为 null 表示新选课）：提交后在缓存的摘要上应用增量
+    public void onEnrollmentChanged(String studentId, String courseId, EnrollmentStatus from, EnrollmentStatus to) {
+        AfterCommit.run(() -> applyChange(studentId, courseId, from, to));
+    }
+
+    // 4-1. 批量状态变化（批量退课、批量结课）
+    public void onEnrollmentsChanged(Collection<Enrollment> enrollments, EnrollmentStatus from, EnrollmentStatus to) {
+        List<String[]> changes = enrollments.stream()
+                .map(e -> new String[]{e.getStudentId(), e.getCourseId()})
+                .toList();
+        AfterCommit.run(() -> changes.forEach(change -> applyChange(change[0], change[1], from, to)));
+    }
+
+    // 4-2. 选课记录归档（移出主表）：提交后移除相关学生的缓存档案，下次读取时按主表重新加载
+    public void onEnrollmentsArchived(Collection<Enrollment> enrollments) {
+        List<String> studentIds = enrollments.stream().map(Enrollment::getStudentId).distinct().toList();
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                studentIds.forEach(studentId -> {
+                    bump(studentId);
+                    cache.remove(studentId);
+                });
+            }
+        });
+    }
+
+    private synchronized void applyChange(String studentId, String courseId, EnrollmentStatus from, EnrollmentStatus to) {
+        bump(studentId);
+        StudentProfileDTO current = cache.get(studentId);
+        if (current == null) {
+            return;
+        }
+        Map<EnrollmentStatus, Long> counts = new EnumMap<>(current.getStatusCounts());
+        if (from != null) {
+            counts.merge(from, -1L, Long::sum);
+        }
+        if (to != null) {
+            counts.merge(to, 1L, Long::sum);
+        }
+        List<String> active = new ArrayList<>(current.getActiveCourseIds());
+        if (from == EnrollmentStatus.ACTIVE) {
+            active.remove(courseId);
+        }
+        if (to == EnrollmentStatus.ACTIVE) {
+            active.add(courseId);
+        }
+        cache.put(studentId, new StudentProfileDTO(current.getStudent(), List.copyOf(active), counts));
+    }
+
+    private synchronized long stamp(String studentId) {
+        return stamps[stripe(studentId)];
+    }
+
+    private void bump(String studentId) {
+        stamps[stripe(studentId)]++;
+    }
+
+    private static int stripe(String studentId) {
+        return Math.floorMod(studentId.hashCode(), STAMP_STRIPES);
+    }
+
+    private static Map<EnrollmentStatus, Long> emptyCounts() {
+        Map<EnrollmentStatus, Long> counts = new EnumMap<>(EnrollmentStatus.class);
+        for (EnrollmentStatus status : EnrollmentStatus.values()) {
+            counts.put(status, 0L);
+        }
+        return counts;
+    }
+
+    // 缓存独立副本，避免与 JPA 托管实体共享同一对象
+    private static Student copyOf(Student student) {
+        return new Student(student.getId(), student.getStudentId(), student.getName(), student.getMajor(),
+                student.getGrade(), student.getEmail(), student.getCreatedAt(), student.getEmailDomain());
+    }
+}
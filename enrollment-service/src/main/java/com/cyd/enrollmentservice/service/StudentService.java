@@ -1,17 +1,24 @@
 package com.cyd.enrollmentservice.service;
 
 
+import com.cyd.enrollmentservice.DTO.StudentSearchResultDTO;
+import com.cyd.enrollmentservice.DTO.StudentSummaryDTO;
 import com.cyd.enrollmentservice.model.Student;
-import com.cyd.enrollmentservice.repository.EnrollmentRepository;
 import com.cyd.enrollmentservice.repository.StudentRepository;
+import com.cyd.enrollmentservice.repository.StudentSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,9 +27,18 @@ public class StudentService {
     @Autowired
     private StudentRepository studentRepository;
 
-    // 注入 EnrollmentRepository：用于删除学生前的关联检查（任务四要求：删除前的关联检查（{insert\_element\_8\_}））
+    // 学生档案读模型（写入提交后同步更新缓存）
     @Autowired
-    private EnrollmentRepository enrollmentRepository;
+    private StudentProfileService profileService;
+
+    @Value("${enrollment.student-search.default-limit:20}")
+    private int searchDefaultLimit;
+
+    @Value("${enrollment.student-search.max-limit:100}")
+    private int searchMaxLimit;
+
+    // 检索游标中分隔姓名与学号（姓名、学号都不会包含该字符）
+    private static final char CURSOR_SEPARATOR = '\0';
 
     // 1. 创建学生：添加事务、复用 Repository 判重，移除内存逻辑（任务四要求：事务与数据校验（{insert\_element\_9\_}））
     @Transactional
@@ -41,16 +57,25 @@ public class StudentService {
         // student.init();
 
         // 保存学生（Repository 持久化到数据库，替代内存 Map 存储）
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        profileService.onStudentSaved(saved, true);
+        return saved;
     }
 
     // 2. 查询所有学生：复用 Repository 排序，移除内存排序（任务四要求：数据库层面优化（{insert\_element\_13\_}））
+    @Transactional(readOnly = true)  // 只读事务：Hibernate 不做脏检查快照与 flush
     public List<Student> findAllStudents() {
         // 按学号升序排序（通过 Sort 参数由数据库执行，效率高于内存排序）
         Sort sort = Sort.by("studentId").ascending();
         return studentRepository.findAll(sort);
     }
 
+    // 2-1. 查询所有学生精简视图（fields 选择器命中时使用）
+    @Transactional(readOnly = true)
+    public List<StudentSummaryDTO> findAllStudentSummaries() {
+        return studentRepository.findAllSummaries(Sort.by("studentId").ascending());
+    }
+
     // 3. 按ID查询学生：直接复用 Repository 方法（无改造，保留原逻辑）
     public Optional<Student> findStudentById(String id) {
         return studentRepository.findById(id);
@@ -62,17 +87,87 @@ public class StudentService {
     }
 
     // 5. 新增：按专业分页查询学生（任务三要求：按专业筛选（{insert\_element\_14\_}），适配分页接口）
+    @Transactional(readOnly = true)
     public Page<Student> findStudentsByMajor(String major, int pageNum, int pageSize) {
         Pageable pageable = PageRequest.of(pageNum - 1, pageSize, Sort.by("studentId").ascending());
         return studentRepository.findByMajor(major, pageable);
     }
 
+    // 5-1. 按专业分页查询学生精简视图
+    @Transactional(readOnly = true)
+    public Page<StudentSummaryDTO> findStudentSummariesByMajor(String major, int pageNum, int pageSize) {
+        Pageable pageable = PageRequest.of(pageNum - 1, pageSize, Sort.by("studentId").ascending());
+        return studentRepository.findSummariesByMajor(major, pageable);
+    }
+
     // 6. 新增：按年级分页查询学生（任务三要求：按年级筛选（{insert\_element\_15\_}））
+    @Transactional(readOnly = true)
     public Page<Student> findStudentsByGrade(Integer grade, int pageNum, int pageSize) {
         Pageable pageable = PageRequest.of(pageNum - 1, pageSize, Sort.by("studentId").ascending());
         return studentRepository.findByGrade(grade, pageable);
     }
 
+    // 6-1. 按年级分页查询学生精简视图
+    @Transactional(readOnly = true)
+    public Page<StudentSummaryDTO> findStudentSummariesByGrade(Integer grade, int pageNum, int pageSize) {
+        Pageable pageable = PageRequest.of(pageNum - 1, pageSize, Sort.by("studentId").ascending());
+        return studentRepository.findSummariesByGrade(grade, pageable);
+    }
+
+    // 6-1. 学生检索：姓名前缀、邮箱域名、专业、年级任意组合，keyset 分页，每页最多 limit 条（limit 上限 max-limit）
+    // 有姓名前缀时按（姓名, 学号）排序，沿 (name, student_id) 索引范围读取；否则按学号排序，由 等值列 + student_id 复合索引直接按序读取
+    // 多取一条判断是否还有下一页，不执行 COUNT
+    @Transactional(readOnly = true)
+    public StudentSearchResultDTO searchStudents(String namePrefix, String emailDomain, String major, Integer grade,
+                                                 String cursor, Integer limit) {
+        int pageSize = limit == null ? searchDefaultLimit : limit;
+        if (pageSize < 1 || pageSize > searchMaxLimit) {
+            throw new IllegalArgumentException("Search limit must be between 1 and " + searchMaxLimit + ": " + pageSize);
+        }
+        String prefix = blankToNull(namePrefix);
+        String domain = blankToNull(emailDomain);
+        if (domain != null) {
+            domain = Student.domainOf(domain.contains("@") ? domain : "@" + domain);
+        }
+        major = blankToNull(major);
+        boolean byName = prefix != null;
+
+        List<Specification<Student>> filters = new ArrayList<>();
+        if (prefix != null) {
+            filters.add(StudentSpecifications.nameStartsWith(prefix));
+        }
+        if (domain != null) {
+            filters.add(StudentSpecifications.emailDomainEquals(domain));
+        }
+        if (major != null) {
+            filters.add(StudentSpecifications.majorEquals(major));
+        }
+        if (grade != null) {
+            filters.add(StudentSpecifications.gradeEquals(grade));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String key = decodeCursor(cursor);
+            int separator = key.indexOf(CURSOR_SEPARATOR);
+            if (byName != (separator >= 0)) {
+                throw new IllegalArgumentException("Cursor does not match the search filters: " + cursor);
+            }
+            filters.add(byName
+                    ? StudentSpecifications.nameAndStudentIdAfter(key.substring(0, separator), key.substring(separator + 1))
+                    : StudentSpecifications.studentIdAfter(key));
+        }
+
+        Sort sort = byName ? Sort.by("name", "studentId") : Sort.by("studentId");
+        List<Student> students = studentRepository.findBy(Specification.allOf(filters),
+                query -> query.sortBy(sort).limit(pageSize + 1).all());
+        if (students.size() <= pageSize) {
+            return new StudentSearchResultDTO(students, null);
+        }
+        List<Student> page = List.copyOf(students.subList(0, pageSize));
+        Student last = page.get(pageSize - 1);
+        String key = byName ? last.getName() + CURSOR_SEPARATOR + last.getStudentId() : last.getStudentId();
+        return new StudentSearchResultDTO(page, encodeCursor(key));
+    }
+
     // 7. 更新学生信息：添加事务、保留业务规则（任务四要求：事务一致性（{insert\_element\_16\_}））
     @Transactional
     public Student updateStudent(String id, Student updatedStudent) {
@@ -96,24 +191,41 @@ public class StudentService {
         existingStudent.setMajor(updatedStudent.getMajor());
         existingStudent.setGrade(updatedStudent.getGrade());
         existingStudent.setEmail(updatedStudent.getEmail());
-        return studentRepository.save(existingStudent);
+        Student saved = studentRepository.save(existingStudent);
+        profileService.onStudentSaved(saved, false);
+        return saved;
     }
 
     // 8. 删除学生：添加事务、关联检查（任务四要求：删除前的关联检查（{insert\_element\_17\_}））
     @Transactional
     public void deleteStudent(String id) {
-        // 校验1：学生是否存在
+        // 1. 条件删除：关联检查（若学生有选课记录，禁止删除，任务四要求（{insert\_element\_18\_}））与删除在同一条 DELETE 中完成
+        if (studentRepository.deleteIfNoEnrollments(id) == 1) {
+            profileService.onStudentDeleted(id);
+            return;
+        }
+
+        // 2. 删除 0 行时才再查一次，区分学生不存在与存在选课记录
         if (!studentRepository.existsById(id)) {
             throw new RuntimeException("Student not found with id: " + id);
         }
+        throw new IllegalArgumentException("Cannot delete student: Student has existing enrollments");
+    }
 
-        // 校验2：关联检查（若学生有选课记录，禁止删除，任务四要求（{insert\_element\_18\_}））
-        Student student = studentRepository.findById(id).get();
-        if (enrollmentRepository.existsByStudentId(student.getStudentId())) {
-            throw new IllegalArgumentException("Cannot delete student: Student has existing enrollments");
-        }
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
 
-        // 删除学生（Repository 从数据库删除，替代内存 Map 移除）
-        studentRepository.deleteById(id);
+    // 游标对调用方不透明：排序键（学号，或 姓名 + 分隔符 + 学号）的 URL 安全 Base64
+    private static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+        }
     }
 }
\ No newline at end of file
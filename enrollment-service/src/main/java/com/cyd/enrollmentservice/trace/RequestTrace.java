@@ -0,0 +1,102 @@
+package com.cyd.enrollmentservice.trace;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// 单个 HTTP 请求的追踪上下文：追踪ID、SQL 次数/耗时（按语句文本分组，用于识别 N+1）、出站调用次数/耗时
+// 绑定在处理请求的线程上；没有请求上下文的线程（定时任务、批处理线程）current() 返回 null，不做记录
+public final class RequestTrace {
+    // 跨服务传递追踪ID的请求/响应头
+    public static final String HEADER = "X-Trace-Id";
+    // 每个请求最多按多少种不同语句分组计数，防止拼接 SQL 的异常请求占用过多内存
+    private static final int MAX_DISTINCT_STATEMENTS = 256;
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final String traceId;
+    private final String method;
+    private final String path;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+    private int sqlCount;
+    private long sqlMillis;
+    private int slowQueries;
+    private int outboundCalls;
+    private long outboundMillis;
+
+    private RequestTrace(String traceId, String method, String path) {
+        this.traceId = traceId;
+        this.method = method;
+        this.path = path;
+    }
+
+    static RequestTrace begin(String traceId, String method, String path) {
+        RequestTrace trace = new RequestTrace(traceId, method, path);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    void recordSql(String sql, long millis, boolean slow) {
+        sqlCount++;
+        sqlMillis += millis;
+        if (slow) {
+            slowQueries++;
+        }
+        if (statementCounts.size() < MAX_DISTINCT_STATEMENTS || statementCounts.containsKey(sql)) {
+            statementCounts.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    void recordOutbound(long millis) {
+        outboundCalls++;
+        outboundMillis += millis;
+    }
+
+    long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    Map<String, Integer> getStatementCounts() {
+        return statementCounts;
+    }
+
+    int getSqlCount() {
+        return sqlCount;
+    }
+
+    long getSqlMillis() {
+        return sqlMillis;
+    }
+
+    int getSlowQueries() {
+        return slowQueries;
+    }
+
+    int getOutboundCalls() {
+        return outboundCalls;
+    }
+
+    long getOutboundMillis() {
+        return outboundMillis;
+    }
+}
@@ -0,0 +1,77 @@
+package com.cyd.enrollmentservice.trace;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// 请求追踪过滤器：沿用上游传入的追踪ID（没有则生成），写入 MDC 与响应头；
+// 请求结束时检查 N+1 模式，慢请求或存在慢查询/N+1 时把请求摘要写入追踪文件
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TraceFilter extends OncePerRequestFilter {
+    // 只接受简单格式的上游追踪ID，避免把任意内容写进日志
+    private static final Pattern VALID_TRACE_ID = Pattern.compile("[A-Za-z0-9-]{8,64}");
+
+    @Autowired
+    private TraceExporter exporter;
+
+    @Value("${trace.enabled:true}")
+    private boolean enabled;
+
+    @Value("${trace.slow-request-millis:500}")
+    private long slowRequestMillis;
+
+    @Value("${trace.sql.n-plus-one-threshold:10}")
+    private int nPlusOneThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String traceId = request.getHeader(RequestTrace.HEADER);
+        if (traceId == null || !VALID_TRACE_ID.matcher(traceId).matches()) {
+            traceId = UUID.randomUUID().toString().replace("-", "");
+        }
+        RequestTrace trace = RequestTrace.begin(traceId, request.getMethod(), request.getRequestURI());
+        MDC.put("traceId", traceId);
+        response.setHeader(RequestTrace.HEADER, traceId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestTrace.end();
+            MDC.remove("traceId");
+            finish(trace, response.getStatus());
+        }
+    }
+
+    private void finish(RequestTrace trace, int status) {
+        // 1. N+1：同一条语句在一个请求内执行次数达到阈值
+        boolean nPlusOne = false;
+        for (Map.Entry<String, Integer> entry : trace.getStatementCounts().entrySet()) {
+            if (entry.getValue() >= nPlusOneThreshold) {
+                nPlusOne = true;
+                exporter.nPlusOne(trace, entry.getKey(), entry.getValue());
+            }
+        }
+        // 2. 请求摘要：只导出慢请求或有问题的请求
+        if (nPlusOne || trace.getSlowQueries() > 0 || trace.elapsedMillis() >= slowRequestMillis) {
+            exporter.request(trace, status);
+        }
+    }
+}
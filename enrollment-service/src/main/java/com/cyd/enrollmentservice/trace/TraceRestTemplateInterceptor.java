@@ -0,0 +1,29 @@
+package com.cyd.enrollmentservice.trace;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+// RestTemplate 拦截器：把当前请求的追踪ID传给下游服务，并把出站调用耗时计入追踪上下文
+@Component
+public class TraceRestTemplateInterceptor implements ClientHttpRequestInterceptor {
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null) {
+            return execution.execute(request, body);
+        }
+        request.getHeaders().set(RequestTrace.HEADER, trace.getTraceId());
+        long start = System.nanoTime();
+        try {
+            return execution.execute(request, body);
+        } finally {
+            trace.recordOutbound((System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -3,7 +3,8 @@ package com.cyd.enrollmentservice;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// 测试环境不启动 catalog-service，关闭课程缓存预热
+@SpringBootTest(properties = "enrollment.warmup.enabled=false")
 class EnrollmentServiceApplicationTests {
 
     @Test
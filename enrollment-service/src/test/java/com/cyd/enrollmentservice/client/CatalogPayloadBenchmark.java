@@ -0,0 +1,101 @@
+package com.cyd.enrollmentservice.client;
+
+import com.cyd.enrollmentservice.DTO.CourseDTO;
+import com.cyd.enrollmentservice.Response.Result;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * catalog-service 课程响应的编解码微基准：对比原 JSON→Map 手工取值路径与 CBOR→CourseDTO 强类型路径的
+ * 报文大小与每次（反）序列化耗时。非单元测试，不随 mvn test 执行；在 IDE 中直接运行 main 方法即可，
+ * 或执行：mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.cyd.enrollmentservice.client.CatalogPayloadBenchmark
+ */
+public class CatalogPayloadBenchmark {
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    private static final TypeReference<Result<CourseDTO>> COURSE_RESULT = new TypeReference<>() {};
+
+    // 防止 JIT 消除无副作用的循环体
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        ObjectMapper cbor = new CBORMapper();
+
+        Map<String, Object> envelope = sampleEnvelope();
+        byte[] jsonBytes = json.writeValueAsBytes(envelope);
+        byte[] cborBytes = cbor.writeValueAsBytes(envelope);
+
+        System.out.printf("payload size: json=%d bytes, cbor=%d bytes (%.1f%%)%n",
+                jsonBytes.length, cborBytes.length, 100.0 * cborBytes.length / jsonBytes.length);
+
+        report("encode json", () -> sink += json.writeValueAsBytes(envelope).length);
+        report("encode cbor", () -> sink += cbor.writeValueAsBytes(envelope).length);
+        report("decode json -> Map (old path)", () -> {
+            Map<?, ?> root = json.readValue(jsonBytes, Map.class);
+            Map<?, ?> data = (Map<?, ?>) root.get("data");
+            sink += (Integer) data.get("capacity") - (Integer) data.get("enrolled");
+        });
+        report("decode json -> CourseDTO", () -> {
+            CourseDTO course = json.readValue(jsonBytes, COURSE_RESULT).getData();
+            sink += course.getCapacity() - course.getEnrolled();
+        });
+        report("decode cbor -> CourseDTO", () -> {
+            CourseDTO course = cbor.readValue(cborBytes, COURSE_RESULT).getData();
+            sink += course.getCapacity() - course.getEnrolled();
+        });
+        System.out.println("(sink=" + sink + ")");
+    }
+
+    // 与 catalog-service GET /api/courses/{id} 的响应结构一致
+    private static Map<String, Object> sampleEnvelope() {
+        Map<String, Object> instructor = new LinkedHashMap<>();
+        instructor.put("id", "T001");
+        instructor.put("name", "Zhang San");
+        instructor.put("email", "zhangsan@zjgsu.edu.cn");
+
+        Map<String, Object> schedule = new LinkedHashMap<>();
+        schedule.put("dayOfWeek", "TUESDAY");
+        schedule.put("startTime", "08:00");
+        schedule.put("endTime", "09:40");
+        schedule.put("expectedAttendance", 55);
+
+        Map<String, Object> course = new LinkedHashMap<>();
+        course.put("id", "5f0c1a8e-2d3b-4f6a-9c1e-7b8d9e0f1a2b");
+        course.put("code", "CS101");
+        course.put("title", "Introduction to Computer Science");
+        course.put("instructor", instructor);
+        course.put("schedule", schedule);
+        course.put("capacity", 60);
+        course.put("enrolled", 42);
+        course.put("createTime", "2025-09-01T08:00:00");
+
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("code", 200);
+        envelope.put("message", "Success");
+        envelope.put("data", course);
+        return envelope;
+    }
+
+    private static void report(String name, Task task) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            task.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.run();
+        }
+        double nsPerOp = (System.nanoTime() - start) / (double) ITERATIONS;
+        System.out.printf("%-32s %8.0f ns/op%n", name, nsPerOp);
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+}
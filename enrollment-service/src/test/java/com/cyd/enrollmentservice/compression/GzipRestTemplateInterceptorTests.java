@@ -0,0 +1,83 @@
+package com.cyd.enrollmentservice.compression;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.headerDoesNotExist;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+// 调用 catalog-service 的 gzip 拦截器：大请求体压缩发送、小请求体原样发送、gzip 响应透明解压
+class GzipRestTemplateInterceptorTests {
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+
+    GzipRestTemplateInterceptorTests() {
+        CompressionProperties properties = new CompressionProperties();
+        properties.getClient().setMinRequestSize(1024);
+        restTemplate.getInterceptors().add(new GzipRestTemplateInterceptor(properties));
+    }
+
+    @Test
+    void largeRequestBodyIsCompressed() {
+        String body = "x".repeat(4096);
+        server.expect(requestTo("/large")).andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(request -> assertEquals(body, gunzip(((MockClientHttpRequest) request).getBodyAsBytes())))
+                .andRespond(withSuccess());
+
+        restTemplate.postForEntity("/large", body, Void.class);
+
+        server.verify();
+    }
+
+    @Test
+    void smallRequestBodyIsSentAsIs() {
+        server.expect(requestTo("/small")).andExpect(headerDoesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andRespond(withSuccess());
+
+        restTemplate.postForEntity("/small", "small", Void.class);
+
+        server.verify();
+    }
+
+    @Test
+    void gzipResponseIsDecompressed() throws IOException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        server.expect(requestTo("/course")).andRespond(withSuccess(gzip("{\"code\":200}"), MediaType.APPLICATION_JSON)
+                .headers(headers));
+
+        assertEquals("{\"code\":200}", restTemplate.getForObject("/course", String.class));
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.cyd.enrollmentservice.compression;
+
+import com.cyd.enrollmentservice.model.Enrollment;
+import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.repository.EnrollmentRepository;
+import com.cyd.enrollmentservice.repository.StudentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// 大列表响应的体积预算：序列化字段膨胀或压缩失效时测试失败；同时校验小响应与未声明 gzip 的请求不压缩
+@SpringBootTest(properties = "enrollment.warmup.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ResponseSizeBudgetTests {
+    private static final int ROWS = 500;
+    // 每条记录的字节预算：未压缩 JSON / gzip 后
+    private static final int RAW_BYTES_PER_STUDENT = 260;
+    private static final int GZIP_BYTES_PER_STUDENT = 64;
+    private static final int RAW_BYTES_PER_ENROLLMENT = 260;
+    private static final int GZIP_BYTES_PER_ENROLLMENT = 56;
+
+    private static final String[] MAJORS = {"Computer Science", "Mathematics", "Physics"};
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void seed() {
+        List<Student> students = new ArrayList<>();
+        List<Enrollment> enrollments = new ArrayList<>();
+        List<String> courseIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            courseIds.add(UUID.randomUUID().toString());
+        }
+        for (int i = 0; i < ROWS; i++) {
+            Student student = new Student();
+            student.setStudentId(String.format("S%05d", i));
+            student.setName("Student " + i);
+            student.setMajor(MAJORS[i % MAJORS.length]);
+            student.setGrade(2021 + i % 4);
+            student.setEmail(String.format("s%05d@example.com", i));
+            students.add(student);
+
+            Enrollment enrollment = new Enrollment();
+            enrollment.setCourseId(courseIds.get(i % courseIds.size()));
+            enrollment.setStudentId(student.getStudentId());
+            enrollments.add(enrollment);
+        }
+        studentRepository.saveAll(students);
+        enrollmentRepository.saveAll(enrollments);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        enrollmentRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void studentListingStaysWithinSizeBudget() throws Exception {
+        assertWithinBudget("/api/students", RAW_BYTES_PER_STUDENT, GZIP_BYTES_PER_STUDENT);
+    }
+
+    @Test
+    void enrollmentListingStaysWithinSizeBudget() throws Exception {
+        assertWithinBudget("/api/enrollments", RAW_BYTES_PER_ENROLLMENT, GZIP_BYTES_PER_ENROLLMENT);
+    }
+
+    @Test
+    void smallResponsesAreNotCompressed() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/students/studentId/{studentId}", "S00001")
+                .accept(MediaType.APPLICATION_JSON).header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+    }
+
+    // 同一接口分别以不接受/接受 gzip 请求：未压缩时不带 Content-Encoding，压缩后解压内容一致，两者均在预算内
+    private void assertWithinBudget(String url, int rawBytesPerRow, int gzipBytesPerRow) throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+        MockHttpServletResponse gzipped = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br")).andReturn().getResponse();
+
+        byte[] raw = plain.getContentAsByteArray();
+        byte[] compressed = gzipped.getContentAsByteArray();
+        assertNull(plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(new String(raw, StandardCharsets.UTF_8), new String(gunzip(compressed), StandardCharsets.UTF_8));
+        assertEquals(ROWS, objectMapper.readTree(raw).get("data").size());
+        assertTrue(raw.length <= ROWS * rawBytesPerRow,
+                url + " uncompressed is " + raw.length + " bytes, budget " + ROWS * rawBytesPerRow);
+        assertTrue(compressed.length <= ROWS * gzipBytesPerRow,
+                url + " compressed is " + compressed.length + " bytes, budget " + ROWS * gzipBytesPerRow);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
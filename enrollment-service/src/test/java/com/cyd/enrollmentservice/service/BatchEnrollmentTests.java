@@ -0,0 +1,80 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.client.CatalogClient;
+import com.cyd.enrollmentservice.model.Enrollment;
+import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.repository.EnrollmentRepository;
+import com.cyd.enrollmentservice.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+// 批量选课：一次 catalog-service 调用为全部课程占座（替换为 mock 校验调用次数），任一门课程名额不足时整单拒绝
+@SpringBootTest(properties = "enrollment.warmup.enabled=false")
+@ActiveProfiles("h2")
+class BatchEnrollmentTests {
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @MockitoBean
+    private CatalogClient catalogClient;
+
+    @AfterEach
+    void cleanUp() {
+        enrollmentRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void enrollCoursesReservesAllSeatsInOneCatalogCall() {
+        saveStudent("S9005");
+        List<String> courseIds = List.of("C1", "C2", "C3", "C4", "C5");
+        when(catalogClient.reserveSeatsBatch(anyMap())).thenReturn(List.of());
+
+        List<Enrollment> saved = enrollmentService.enrollCourses("S9005", courseIds);
+
+        assertEquals(5, saved.size());
+        verify(catalogClient).reserveSeatsBatch(Map.of("C1", 1, "C2", 1, "C3", 1, "C4", 1, "C5", 1));
+        verifyNoMoreInteractions(catalogClient);
+        assertEquals(5, enrollmentRepository.findByStudentId("S9005").size());
+    }
+
+    @Test
+    void enrollCoursesRejectsWholeScheduleWhenAnyCourseIsFull() {
+        saveStudent("S9006");
+        when(catalogClient.reserveSeatsBatch(anyMap())).thenReturn(List.of("C3"));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                enrollmentService.enrollCourses("S9006", List.of("C1", "C2", "C3")));
+
+        assertTrue(enrollmentRepository.findByStudentId("S9006").isEmpty());
+        // catalog-service 已归还本次占的名额，本地不再补偿
+        verify(catalogClient, never()).adjustEnrolledCounts(anyMap());
+    }
+
+    private void saveStudent(String studentId) {
+        studentRepository.save(new Student(null, studentId, "Test " + studentId, "Computer Science", 2024,
+                studentId.toLowerCase() + "@example.com", null, null));
+    }
+}
@@ -0,0 +1,191 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.DTO.CourseDTO;
+import com.cyd.enrollmentservice.client.CatalogClient;
+import com.cyd.enrollmentservice.client.CatalogRequestRejectedException;
+import com.cyd.enrollmentservice.client.CatalogUnavailableException;
+import com.cyd.enrollmentservice.model.Enrollment;
+import com.cyd.enrollmentservice.model.EnrollmentStatus;
+import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.repository.EnrollmentRepository;
+import com.cyd.enrollmentservice.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// 降级模式：catalog-service 连接失败时按课程快照暂收选课（PENDING），恢复后后台确认为 ACTIVE，名额不足或请求被 4xx 拒绝时删除记录；
+// 没有课程快照、或占座请求可能已送达（读超时、5xx）时抛出 CatalogUnavailableException（接口返回 503）
+@SpringBootTest(properties = {
+        "enrollment.warmup.enabled=false",
+        "enrollment.degraded.oversell-budget=1",
+        "enrollment.degraded.confirm-interval-millis=3600000"
+})
+@ActiveProfiles("h2")
+class DegradedModeTests {
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private ProvisionalEnrollmentConfirmer confirmer;
+
+    @Autowired
+    private CourseCacheService courseCache;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @MockitoBean
+    private CatalogClient catalogClient;
+
+    @AfterEach
+    void cleanUp() {
+        enrollmentRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void enrollmentsAreAcceptedProvisionallyWithinOversellBudget() {
+        cacheCourse("D1", 2, 1);
+        catalogDown();
+
+        // 容量 2 + 预算 1：快照已选 1 人，再暂收 2 人后满额
+        assertEquals(EnrollmentStatus.PENDING, enroll("D1", "S8001").getStatus());
+        assertEquals(EnrollmentStatus.PENDING, enroll("D1", "S8002").getStatus());
+        assertThrows(IllegalArgumentException.class, () -> enroll("D1", "S8003"));
+        assertEquals(2, enrollmentRepository.countByCourseIdAndStatus("D1", EnrollmentStatus.PENDING));
+    }
+
+    @Test
+    void enrollmentWithoutCourseSnapshotIsRejectedAsUnavailable() {
+        catalogDown();
+        when(catalogClient.findCourse("D2")).thenThrow(new CatalogUnavailableException("catalog-service unavailable", 5));
+
+        assertThrows(CatalogUnavailableException.class, () -> enroll("D2", "S8011"));
+    }
+
+    @Test
+    void ambiguousSeatFailureIsNotAcceptedProvisionally() {
+        cacheCourse("D9", 10, 0);
+        when(catalogClient.reserveSeats("D9", 1))
+                .thenThrow(new CatalogUnavailableException("catalog-service unavailable: read timed out", 5, true));
+
+        assertThrows(CatalogUnavailableException.class, () -> enroll("D9", "S8051"));
+        assertEquals(0, enrollmentRepository.countByCourseIdAndStatus("D9", EnrollmentStatus.PENDING));
+    }
+
+    @Test
+    void confirmerActivatesOrRejectsPendingEnrollments() {
+        cacheCourse("D3", 10, 0);
+        cacheCourse("D4", 10, 0);
+        catalogDown();
+        Enrollment confirmed = enroll("D3", "S8021");
+        Enrollment rejected = enroll("D4", "S8022");
+
+        when(catalogClient.isAvailable()).thenReturn(true);
+        // catalog-service 恢复（覆盖 catalogDown 的 stub，doReturn 不会触发原 stub 抛出异常）
+        doReturn(true).when(catalogClient).reserveSeats("D3", 1);
+        doReturn(false).when(catalogClient).reserveSeats("D4", 1);
+        confirmer.confirmPending();
+
+        assertEquals(EnrollmentStatus.ACTIVE, enrollmentRepository.findById(confirmed.getId()).orElseThrow().getStatus());
+        // 确认失败的记录被删除，不占住（课程, 学号），学生可以重新选课
+        assertTrue(enrollmentRepository.findById(rejected.getId()).isEmpty());
+        verify(catalogClient, never()).releaseSeats(anyString(), anyInt());
+        doReturn(true).when(catalogClient).reserveSeats("D4", 1);
+        assertEquals(EnrollmentStatus.ACTIVE, enroll("D4", "S8022").getStatus());
+    }
+
+    @Test
+    void confirmerRejectsPendingEnrollmentOnDeterministicClientError() {
+        cacheCourse("D10", 10, 0);
+        cacheCourse("D11", 10, 0);
+        catalogDown();
+        Enrollment throttled = enroll("D10", "S8061");
+        Enrollment invalid = enroll("D11", "S8062");
+
+        when(catalogClient.isAvailable()).thenReturn(true);
+        doThrow(new CatalogRequestRejectedException("Failed to call catalog-service: 429", 429))
+                .when(catalogClient).reserveSeats("D10", 1);
+        doThrow(new CatalogRequestRejectedException("Failed to call catalog-service: 400", 400))
+                .when(catalogClient).reserveSeats("D11", 1);
+
+        // 429：保留 PENDING，等下一轮再试
+        assertFalse(confirmer.confirm(throttled));
+        assertEquals(EnrollmentStatus.PENDING, enrollmentRepository.findById(throttled.getId()).orElseThrow().getStatus());
+        // 400：重试也不会成功，删除记录
+        assertTrue(confirmer.confirm(invalid));
+        assertTrue(enrollmentRepository.findById(invalid.getId()).isEmpty());
+        verify(catalogClient, never()).releaseSeats(anyString(), anyInt());
+    }
+
+    @Test
+    void droppingPendingEnrollmentReleasesNoSeat() {
+        cacheCourse("D5", 10, 0);
+        catalogDown();
+        Enrollment pending = enroll("D5", "S8031");
+
+        enrollmentService.dropCourse(pending.getId());
+
+        assertEquals(EnrollmentStatus.DROPPED, enrollmentRepository.findById(pending.getId()).orElseThrow().getStatus());
+        verify(catalogClient, never()).adjustEnrolledCounts(anyMap());
+    }
+
+    @Test
+    void courseEnrollmentsAreServedWhenCatalogIsDown() {
+        cacheCourse("D6", 10, 0);
+        catalogDown();
+        enroll("D6", "S8041");
+        when(catalogClient.findCourse("D7")).thenThrow(new CatalogUnavailableException("catalog-service unavailable", 5));
+        Enrollment enrollment = new Enrollment();
+        enrollment.setCourseId("D7");
+        enrollment.setStudentId("S8041");
+        enrollmentRepository.save(enrollment);
+
+        assertEquals(1, enrollmentService.findEnrollmentsByCourseId("D6").size());
+        // 课程不在缓存中：有选课记录即直接返回
+        assertEquals(1, enrollmentService.findEnrollmentsByCourseId("D7").size());
+        assertThrows(CatalogUnavailableException.class, () -> enrollmentService.findEnrollmentsByCourseId("D8"));
+    }
+
+    private void catalogDown() {
+        when(catalogClient.reserveSeats(anyString(), anyInt()))
+                .thenThrow(new CatalogUnavailableException("catalog-service unavailable", 5));
+        when(catalogClient.findCourse("D8")).thenThrow(new CatalogUnavailableException("catalog-service unavailable", 5));
+    }
+
+    private void cacheCourse(String courseId, int capacity, int enrolled) {
+        courseCache.putAll(List.of(new CourseDTO(courseId, courseId, "Course " + courseId, capacity, enrolled, null)));
+    }
+
+    private Enrollment enroll(String courseId, String studentId) {
+        if (studentRepository.findByStudentId(studentId).isEmpty()) {
+            studentRepository.save(new Student(null, studentId, "Test " + studentId, "Computer Science", 2024,
+                    studentId.toLowerCase() + "@example.com", null, null));
+        }
+        Enrollment enrollment = new Enrollment();
+        enrollment.setCourseId(courseId);
+        enrollment.setStudentId(studentId);
+        return enrollmentService.enrollCourse(enrollment);
+    }
+}
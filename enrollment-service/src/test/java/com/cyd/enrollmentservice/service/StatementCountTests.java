@@ -0,0 +1,139 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.model.Enrollment;
+import com.cyd.enrollmentservice.model.EnrollmentStatus;
+import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.repository.EnrollmentRepository;
+import com.cyd.enrollmentservice.repository.StudentRepository;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 每个服务方法执行的 SQL 语句数（datasource-proxy 按线程计数），防止删除/校验路径退回“先查后删”的多次往返
+@SpringBootTest(properties = "enrollment.warmup.enabled=false")
+@ActiveProfiles("h2")
+@Import(StatementCountTests.CountingDataSourceConfig.class)
+class StatementCountTests {
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private EnrollmentService enrollmentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @AfterEach
+    void cleanUp() {
+        enrollmentRepository.deleteAll();
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void deleteStudentWithoutEnrollmentsRunsOneStatement() {
+        Student student = saveStudent("S9001");
+
+        assertEquals(1, countStatements(() -> studentService.deleteStudent(student.getId())));
+        assertFalse(studentRepository.existsById(student.getId()));
+    }
+
+    @Test
+    void deleteStudentWithEnrollmentsIsRejectedInTwoStatements() {
+        Student student = saveStudent("S9002");
+        saveEnrollment("C1", student.getStudentId());
+
+        assertEquals(2, countStatements(() ->
+                assertThrows(IllegalArgumentException.class, () -> studentService.deleteStudent(student.getId()))));
+        assertTrue(studentRepository.existsById(student.getId()));
+    }
+
+    @Test
+    void deleteMissingStudentIsReportedInTwoStatements() {
+        assertEquals(2, countStatements(() ->
+                assertThrows(RuntimeException.class, () -> studentService.deleteStudent("missing"))));
+    }
+
+    @Test
+    void findEnrollmentsByStudentIdRunsOneStatement() {
+        Student student = saveStudent("S9003");
+        saveEnrollment("C1", student.getStudentId());
+        saveEnrollment("C2", student.getStudentId());
+
+        AtomicReference<List<Enrollment>> result = new AtomicReference<>();
+        assertEquals(1, countStatements(() -> result.set(enrollmentService.findEnrollmentsByStudentId("S9003"))));
+        assertEquals(2, result.get().size());
+    }
+
+    @Test
+    void findEnrollmentsForStudentWithoutEnrollmentsRunsOneStatement() {
+        saveStudent("S9004");
+
+        AtomicReference<List<Enrollment>> result = new AtomicReference<>();
+        assertEquals(1, countStatements(() ->
+                result.set(enrollmentService.findEnrollmentsByStudentIdAndStatus("S9004", EnrollmentStatus.ACTIVE))));
+        assertTrue(result.get().isEmpty());
+    }
+
+    @Test
+    void findEnrollmentsForMissingStudentRunsOneStatement() {
+        assertEquals(1, countStatements(() ->
+                assertThrows(RuntimeException.class, () -> enrollmentService.findEnrollmentsByStudentId("missing"))));
+    }
+
+    private long countStatements(Runnable action) {
+        QueryCountHolder.clear();
+        action.run();
+        long total = QueryCountHolder.getGrandTotal().getTotal();
+        QueryCountHolder.clear();
+        return total;
+    }
+
+    private Student saveStudent(String studentId) {
+        return studentRepository.save(new Student(null, studentId, "Test " + studentId, "Computer Science", 2024,
+                studentId.toLowerCase() + "@example.com", null, null));
+    }
+
+    private void saveEnrollment(String courseId, String studentId) {
+        Enrollment enrollment = new Enrollment();
+        enrollment.setCourseId(courseId);
+        enrollment.setStudentId(studentId);
+        enrollmentRepository.save(enrollment);
+    }
+
+    // 用 datasource-proxy 包装应用的数据源，开启按线程的语句计数
+    @TestConfiguration
+    static class CountingDataSourceConfig {
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource).name(beanName).countQuery().build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
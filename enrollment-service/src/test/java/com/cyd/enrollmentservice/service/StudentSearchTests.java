@@ -0,0 +1,86 @@
+package com.cyd.enrollmentservice.service;
+
+import com.cyd.enrollmentservice.DTO.StudentSearchResultDTO;
+import com.cyd.enrollmentservice.model.Student;
+import com.cyd.enrollmentservice.repository.StudentRepository;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 学生检索：多条件组合 + keyset 分页，每页一条 SQL（复用 StatementCountTests 的 datasource-proxy 计数数据源）
+@SpringBootTest(properties = "enrollment.warmup.enabled=false")
+@ActiveProfiles("h2")
+@Import(StatementCountTests.CountingDataSourceConfig.class)
+class StudentSearchTests {
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @AfterEach
+    void cleanUp() {
+        studentRepository.deleteAll();
+    }
+
+    @Test
+    void studentSearchPagesByKeysetInOneStatementPerPage() {
+        List.of("S9103", "S9101", "S9105", "S9102", "S9104").forEach(this::saveStudent);
+        AtomicReference<StudentSearchResultDTO> page = new AtomicReference<>();
+
+        assertEquals(1, countStatements(() ->
+                page.set(studentService.searchStudents(null, "@Example.com", "Computer Science", 2024, null, 2))));
+        assertEquals(List.of("S9101", "S9102"), studentIds(page.get()));
+
+        assertEquals(1, countStatements(() ->
+                page.set(studentService.searchStudents(null, "example.com", "Computer Science", 2024, page.get().getNextCursor(), 2))));
+        assertEquals(List.of("S9103", "S9104"), studentIds(page.get()));
+
+        page.set(studentService.searchStudents(null, "example.com", "Computer Science", 2024, page.get().getNextCursor(), 2));
+        assertEquals(List.of("S9105"), studentIds(page.get()));
+        assertNull(page.get().getNextCursor());
+    }
+
+    @Test
+    void studentSearchByNamePrefixEscapesWildcards() {
+        List.of("S9201", "S9202", "S9301").forEach(this::saveStudent);
+
+        StudentSearchResultDTO first = studentService.searchStudents("Test S92", null, null, null, null, 1);
+        assertEquals(List.of("S9201"), studentIds(first));
+        assertEquals(List.of("S9202"), studentIds(
+                studentService.searchStudents("Test S92", null, null, null, first.getNextCursor(), 1)));
+        assertTrue(studentService.searchStudents("Test S9_", null, null, null, null, 10).getStudents().isEmpty());
+        // 姓名前缀检索的游标不能用于按学号排序的检索
+        assertThrows(IllegalArgumentException.class, () ->
+                studentService.searchStudents(null, null, null, null, first.getNextCursor(), 1));
+    }
+
+    private static List<String> studentIds(StudentSearchResultDTO page) {
+        return page.getStudents().stream().map(Student::getStudentId).toList();
+    }
+
+    private long countStatements(Runnable action) {
+        QueryCountHolder.clear();
+        action.run();
+        long total = QueryCountHolder.getGrandTotal().getTotal();
+        QueryCountHolder.clear();
+        return total;
+    }
+
+    private void saveStudent(String studentId) {
+        studentRepository.save(new Student(null, studentId, "Test " + studentId, "Computer Science", 2024,
+                studentId.toLowerCase() + "@example.com", null, null));
+    }
+}
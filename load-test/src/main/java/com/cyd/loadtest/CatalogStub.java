@@ -0,0 +1,316 @@
+package com.cyd.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+// catalog-service 替身：内存保存课程与已选人数，实现 enrollment-service 会调用的接口，并可注入延迟与错误
+// 只返回 JSON（enrollment-service 的 Accept 同时包含 CBOR 与 JSON），请求体同时支持 CBOR 与 JSON，以及 gzip 压缩的请求体
+public class CatalogStub {
+    private static final Pattern JSON_NUMBER_FIELD = Pattern.compile("\"([^\"]+)\"\\s*:\\s*(-?\\d+)");
+
+    private final Map<String, StubCourse> courses = new ConcurrentHashMap<>();
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private HttpServer server;
+
+    public CatalogStub(long latencyMillis, long jitterMillis, double errorRate) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+    }
+
+    public void addCourse(String id, String code, int capacity, String dayOfWeek, String startTime, String endTime) {
+        courses.put(id, new StubCourse(id, code, capacity, dayOfWeek, startTime, endTime));
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 512);
+        server.createContext("/api/courses", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // 1. 注入延迟：基础延迟 + [0, jitter) 随机抖动
+            long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis) : 0);
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+            // 2. 注入错误：按比例返回 503，模拟 catalog-service 过载
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                respond(exchange, 503, error(503, "Injected failure"));
+                return;
+            }
+            route(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error(500, String.valueOf(e.getMessage())));
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        URI uri = exchange.getRequestURI();
+        String path = uri.getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals("/api/courses/available") && method.equals("GET")) {
+            available(exchange, queryParams(uri.getRawQuery()));
+        } else if (path.equals("/api/courses/enrolled/adjustments") && method.equals("POST")) {
+            adjust(exchange);
+        } else if (path.equals("/api/courses/seats/reserve-batch") && method.equals("POST")) {
+            reserveBatch(exchange);
+        } else if (method.equals("POST") && (path.endsWith("/seats/reserve") || path.endsWith("/seats/release"))) {
+            seats(exchange, path, queryParams(uri.getRawQuery()));
+        } else if (path.startsWith("/api/courses/") && path.indexOf('/', "/api/courses/".length()) < 0) {
+            String id = path.substring("/api/courses/".length());
+            StubCourse course = courses.get(id);
+            if (course == null) {
+                respond(exchange, 404, error(404, "Course not found"));
+            } else if (method.equals("GET")) {
+                respond(exchange, 200, success(course.toJson()));
+            } else {
+                respond(exchange, 405, error(405, "Method not allowed"));
+            }
+        } else {
+            respond(exchange, 404, error(404, "Not found"));
+        }
+    }
+
+    // 查询有空位的课程（仅按星期与剩余名额过滤，足够模拟课表查询负载）
+    private void available(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String dayOfWeek = params.get("dayOfWeek");
+        int minSeats = Integer.parseInt(params.getOrDefault("minSeats", "1"));
+        List<String> items = new ArrayList<>();
+        for (StubCourse course : courses.values()) {
+            if (course.dayOfWeek.equals(dayOfWeek) && course.capacity - course.enrolled.get() >= minSeats) {
+                items.add(course.toJson());
+            }
+        }
+        respond(exchange, 200, success("[" + String.join(",", items) + "]"));
+    }
+
+    // 占座/释放名额：名额不足返回 409，与 catalog-service 一致
+    private void seats(HttpExchange exchange, String path, Map<String, String> params) throws IOException {
+        String id = path.substring("/api/courses/".length(), path.indexOf("/seats/"));
+        StubCourse course = courses.get(id);
+        if (course == null) {
+            respond(exchange, 404, error(404, "Course not found"));
+            return;
+        }
+        int count = Integer.parseInt(params.getOrDefault("count", "1"));
+        boolean reserve = path.endsWith("/reserve");
+        if (course.tryAdjust(reserve ? count : -count)) {
+            respond(exchange, 200, success("null"));
+        } else {
+            respond(exchange, 409, error(409, reserve ? "Course capacity exceeded" : "Not enough enrolled seats"));
+        }
+    }
+
+    // 批量相对调整已选人数：越界或课程不存在的条目不生效并返回其课程ID
+    private void adjust(HttpExchange exchange) throws IOException {
+        List<String> rejected = new ArrayList<>();
+        readBody(exchange).forEach((courseId, delta) -> {
+            StubCourse course = courses.get(courseId);
+            if (course == null || !course.tryAdjust(delta.intValue())) {
+                rejected.add("\"" + courseId + "\"");
+            }
+        });
+        respond(exchange, 200, success("[" + String.join(",", rejected) + "]"));
+    }
+
+    // 多门课程一次占座：任一门名额不足或不存在则归还本次已占名额，返回未能占座的课程ID
+    private void reserveBatch(HttpExchange exchange) throws IOException {
+        List<String> rejected = new ArrayList<>();
+        Map<StubCourse, Integer> reserved = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : readBody(exchange).entrySet()) {
+            StubCourse course = courses.get(entry.getKey());
+            if (course == null || !course.tryAdjust(entry.getValue().intValue())) {
+                rejected.add("\"" + entry.getKey() + "\"");
+                break;
+            }
+            reserved.put(course, entry.getValue().intValue());
+        }
+        if (!rejected.isEmpty()) {
+            reserved.forEach((course, count) -> course.tryAdjust(-count));
+        }
+        respond(exchange, 200, success("[" + String.join(",", rejected) + "]"));
+    }
+
+    private Map<String, Long> readBody(HttpExchange exchange) throws IOException {
+        byte[] body = "gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                ? new GZIPInputStream(exchange.getRequestBody()).readAllBytes()
+                : exchange.getRequestBody().readAllBytes();
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.contains("cbor")) {
+            return new CborMapReader(body).read();
+        }
+        Map<String, Long> values = new LinkedHashMap<>();
+        Matcher matcher = JSON_NUMBER_FIELD.matcher(new String(body, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            values.put(matcher.group(1), Long.parseLong(matcher.group(2)));
+        }
+        return values;
+    }
+
+    private static Map<String, String> queryParams(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String success(String dataJson) {
+        return "{\"code\":200,\"message\":\"Success\",\"data\":" + dataJson + "}";
+    }
+
+    private static String error(int code, String message) {
+        return "{\"code\":" + code + ",\"message\":\"" + message.replace("\"", "'") + "\",\"data\":null}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static class StubCourse {
+        final String id;
+        final String code;
+        final int capacity;
+        final String dayOfWeek;
+        final String startTime;
+        final String endTime;
+        final AtomicInteger enrolled = new AtomicInteger();
+
+        StubCourse(String id, String code, int capacity, String dayOfWeek, String startTime, String endTime) {
+            this.id = id;
+            this.code = code;
+            this.capacity = capacity;
+            this.dayOfWeek = dayOfWeek;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        // 与 catalog-service 条件 UPDATE 语义一致：调整后须在 [0, capacity] 内
+        boolean tryAdjust(int delta) {
+            while (true) {
+                int current = enrolled.get();
+                int next = current + delta;
+                if (next < 0 || next > capacity) {
+                    return false;
+                }
+                if (enrolled.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+
+        String toJson() {
+            int current = enrolled.get();
+            return "{\"id\":\"" + id + "\",\"code\":\"" + code + "\",\"title\":\"" + code + "\","
+                    + "\"capacity\":" + capacity + ",\"enrolled\":" + current + ",\"remaining\":" + (capacity - current) + ","
+                    + "\"schedule\":{\"dayOfWeek\":\"" + dayOfWeek + "\",\"startTime\":\"" + startTime
+                    + "\",\"endTime\":\"" + endTime + "\"}}";
+        }
+    }
+
+    // 最小 CBOR 解码：只支持“文本键 → 整数值”的 map（定长或不定长），即 enrollment-service 发送的请求体
+    static class CborMapReader {
+        private final byte[] bytes;
+        private int pos;
+
+        CborMapReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        Map<String, Long> read() {
+            Map<String, Long> values = new LinkedHashMap<>();
+            int initial = bytes[pos++] & 0xff;
+            if (initial >> 5 != 5) {
+                throw new IllegalArgumentException("Expected CBOR map");
+            }
+            boolean indefinite = (initial & 0x1f) == 31;
+            long entries = indefinite ? -1 : readArgument(initial & 0x1f);
+            for (long i = 0; indefinite ? (bytes[pos] & 0xff) != 0xff : i < entries; i++) {
+                String key = readText();
+                values.put(key, readInteger());
+            }
+            return values;
+        }
+
+        private String readText() {
+            int initial = bytes[pos++] & 0xff;
+            if (initial >> 5 != 3) {
+                throw new IllegalArgumentException("Expected CBOR text key");
+            }
+            int length = (int) readArgument(initial & 0x1f);
+            String text = new String(bytes, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return text;
+        }
+
+        private long readInteger() {
+            int initial = bytes[pos++] & 0xff;
+            long argument = readArgument(initial & 0x1f);
+            return switch (initial >> 5) {
+                case 0 -> argument;
+                case 1 -> -1 - argument;
+                default -> throw new IllegalArgumentException("Expected CBOR integer value");
+            };
+        }
+
+        private long readArgument(int info) {
+            if (info < 24) {
+                return info;
+            }
+            int size = switch (info) {
+                case 24 -> 1;
+                case 25 -> 2;
+                case 26 -> 4;
+                case 27 -> 8;
+                default -> throw new IllegalArgumentException("Unsupported CBOR length: " + info);
+            };
+            long value = 0;
+            for (int i = 0; i < size; i++) {
+                value = (value << 8) | (bytes[pos++] & 0xff);
+            }
+            return value;
+        }
+    }
+}
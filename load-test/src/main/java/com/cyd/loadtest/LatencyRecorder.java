@@ -0,0 +1,80 @@
+package com.cyd.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 按操作类型记录延迟与结果：ok（2xx）、rejected（4xx 业务拒绝，如课程已满/重复选课）、error（5xx/超时/连接失败）
+public class LatencyRecorder {
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+    public void record(String operation, long latencyMicros, Outcome outcome) {
+        stats.computeIfAbsent(operation, k -> new OperationStats()).record(latencyMicros, outcome);
+    }
+
+    // 按操作名排序的快照（生成报告用）
+    public Map<String, OperationStats> snapshot() {
+        return new TreeMap<>(stats);
+    }
+
+    public enum Outcome {
+        OK, REJECTED, ERROR
+    }
+
+    public static class OperationStats {
+        private final AtomicLong ok = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        // 延迟样本（微秒），按需扩容；压测规模下百万级样本排序开销可接受
+        private long[] samples = new long[1024];
+        private int size;
+
+        void record(long latencyMicros, Outcome outcome) {
+            switch (outcome) {
+                case OK -> ok.incrementAndGet();
+                case REJECTED -> rejected.incrementAndGet();
+                case ERROR -> errors.incrementAndGet();
+            }
+            synchronized (this) {
+                if (size == samples.length) {
+                    samples = Arrays.copyOf(samples, size * 2);
+                }
+                samples[size++] = latencyMicros;
+            }
+        }
+
+        public long ok() {
+            return ok.get();
+        }
+
+        public long rejected() {
+            return rejected.get();
+        }
+
+        public long errors() {
+            return errors.get();
+        }
+
+        public long total() {
+            return ok.get() + rejected.get() + errors.get();
+        }
+
+        // 返回排序后的样本副本，用于计算分位数
+        public synchronized long[] sortedSamples() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        // 最近秩法分位数（sorted 为升序样本）
+        public static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.cyd.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 压测驱动：准备学生/课程数据，按“开放选课突发 + 平稳期”的开环流量模型回放选课、退课与课表查询
+// 延迟从计划发出时刻开始计算（包含客户端排队时间），避免服务变慢时少发请求导致分位数偏乐观
+public class LoadDriver {
+    private static final Pattern DATA_ID = Pattern.compile("\"data\"\\s*:\\s*\\{[^{}]*?\"id\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String[] DAYS = {"MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY"};
+    private static final String[] MAJORS = {"Computer Science", "Software Engineering", "Mathematics", "Physics", "Economics"};
+    // 真实 catalog-service 会做全局时间冲突检查：每门课占用一个 10 分钟时段，最多 7 天 × 144 个时段
+    private static final int SLOT_MINUTES = 10;
+    private static final int MAX_REAL_COURSES = DAYS.length * (24 * 60 / SLOT_MINUTES);
+
+    private final LoadTestOptions options;
+    private final CatalogStub stub;
+    private final String catalogUrl;
+    private final HttpClient client;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    // 本轮数据前缀：重复压测同一 MySQL 库时避免学号/课程代码冲突
+    private final String runTag = Long.toString(System.currentTimeMillis() % 2_176_782_336L, 36);
+
+    private final List<String> studentIds = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> hotCourseIds = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> normalCourseIds = Collections.synchronizedList(new ArrayList<>());
+    // 已成功选课的记录ID，退课操作从中取出
+    private final ConcurrentLinkedQueue<String> activeEnrollments = new ConcurrentLinkedQueue<>();
+
+    public LoadDriver(LoadTestOptions options, CatalogStub stub) {
+        this.options = options;
+        this.stub = stub;
+        this.catalogUrl = stub != null ? "http://localhost:" + options.stubPort : options.catalogUrl;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(options.requestTimeoutMillis))
+                .executor(Executors.newFixedThreadPool(Math.max(4, options.concurrency / 4)))
+                .build();
+    }
+
+    public LatencyRecorder recorder() {
+        return recorder;
+    }
+
+    // 1. 准备数据：课程写入替身或真实 catalog-service，学生写入 enrollment-service
+    public void seed() throws Exception {
+        if (stub == null && options.courses > MAX_REAL_COURSES) {
+            throw new IllegalArgumentException("At most " + MAX_REAL_COURSES + " courses can be seeded into catalog-service");
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(options.concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < options.courses; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> seedCourse(index)));
+            }
+            for (int i = 0; i < options.students; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> seedStudent(index)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if (hotCourseIds.isEmpty() && normalCourseIds.isEmpty() || studentIds.isEmpty()) {
+            throw new IllegalStateException("Seeding failed: no courses or students were created");
+        }
+        // 排序后按固定种子抽样，保证同一参数下各次压测的请求序列一致
+        Collections.sort(studentIds);
+        Collections.sort(hotCourseIds);
+        Collections.sort(normalCourseIds);
+        System.out.printf("Seeded %d students, %d hot courses, %d normal courses (run %s)%n",
+                studentIds.size(), hotCourseIds.size(), normalCourseIds.size(), runTag);
+    }
+
+    private void seedCourse(int index) {
+        boolean hot = index < options.hotCourses;
+        int capacity = hot ? options.hotCapacity : options.normalCapacity;
+        String code = "LT" + runTag + "-" + index;
+        String day = DAYS[index % DAYS.length];
+        int startMinutes = (index / DAYS.length) * SLOT_MINUTES;
+        String startTime = clock(startMinutes);
+        String endTime = clock(startMinutes + SLOT_MINUTES);
+        String id;
+        if (stub != null) {
+            id = UUID.randomUUID().toString();
+            stub.addCourse(id, code, capacity, day, startTime, endTime);
+        } else {
+            String body = "{\"code\":\"" + code + "\",\"title\":\"Load test " + code + "\","
+                    + "\"instructor\":{\"id\":\"LT-T" + (index % 20) + "\",\"name\":\"Load Test\",\"email\":\"lt" + (index % 20) + "@example.com\"},"
+                    + "\"schedule\":{\"dayOfWeek\":\"" + day + "\",\"startTime\":\"" + startTime + "\",\"endTime\":\"" + endTime
+                    + "\",\"expectedAttendance\":" + capacity + "},"
+                    + "\"capacity\":" + capacity + "}";
+            HttpResponse<String> response = sendQuietly(post(catalogUrl + "/api/courses", body));
+            id = response == null ? null : extractId(response.body());
+            if (id == null) {
+                System.err.println("Failed to seed course " + code + ": " + (response == null ? "no response" : response.body()));
+                return;
+            }
+        }
+        (hot ? hotCourseIds : normalCourseIds).add(id);
+    }
+
+    private void seedStudent(int index) {
+        String studentId = "LT" + runTag + String.format("%05d", index);
+        String body = "{\"studentId\":\"" + studentId + "\",\"name\":\"Student " + index + "\","
+                + "\"major\":\"" + MAJORS[index % MAJORS.length] + "\",\"grade\":" + (2021 + index % 4) + ","
+                + "\"email\":\"" + studentId.toLowerCase() + "@example.com\"}";
+        HttpResponse<String> response = sendQuietly(post(options.enrollmentUrl + "/api/students", body));
+        if (response != null && response.statusCode() / 100 == 2) {
+            studentIds.add(studentId);
+        } else {
+            System.err.println("Failed to seed student " + studentId + ": " + (response == null ? "no response" : response.body()));
+        }
+    }
+
+    // 2. 发压：按阶段目标 RPS 匀速计划请求，工作线程执行；队列满时记为客户端过载
+    public long run() throws InterruptedException {
+        Random random = new Random(options.seed);
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(options.concurrency, options.concurrency,
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(options.concurrency * 64));
+        long start = System.nanoTime();
+        long durationNanos = TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        long burstNanos = TimeUnit.SECONDS.toNanos(options.burstSeconds);
+        long next = start;
+        while (next - start < durationNanos) {
+            int rps = next - start < burstNanos ? options.peakRps : options.steadyRps;
+            Runnable operation = nextOperation(random, next);
+            try {
+                workers.execute(operation);
+            } catch (RejectedExecutionException e) {
+                recorder.record("client-overload", 0, LatencyRecorder.Outcome.ERROR);
+            }
+            next += 1_000_000_000L / Math.max(1, rps);
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+        workers.shutdown();
+        workers.awaitTermination(options.requestTimeoutMillis * 2, TimeUnit.MILLISECONDS);
+        return System.nanoTime() - start;
+    }
+
+    // 在调度线程中用固定种子选择操作及参数，工作线程只负责执行
+    private Runnable nextOperation(Random random, long intendedStart) {
+        double roll = random.nextDouble();
+        String studentId = studentIds.get(random.nextInt(studentIds.size()));
+        if (roll < options.enrollRatio) {
+            boolean hot = !hotCourseIds.isEmpty() && (normalCourseIds.isEmpty() || random.nextDouble() < options.hotRatio);
+            List<String> pool = hot ? hotCourseIds : normalCourseIds;
+            String courseId = pool.get(random.nextInt(pool.size()));
+            String operation = hot ? "enroll-hot" : "enroll";
+            return () -> enroll(operation, courseId, studentId, intendedStart);
+        }
+        if (roll < options.enrollRatio + options.dropRatio) {
+            return () -> drop(studentId, intendedStart);
+        }
+        // 课表查询：学生当前课表；连接真实 catalog-service 时另有一半为空位课程查询
+        if (stub == null && random.nextBoolean()) {
+            String day = DAYS[random.nextInt(DAYS.length)];
+            return () -> execute("timetable-available",
+                    get(catalogUrl + "/api/courses/available?dayOfWeek=" + day + "&minSeats=1"), intendedStart);
+        }
+        return () -> execute("timetable-student",
+                get(options.enrollmentUrl + "/api/enrollments/student/" + studentId + "/status?status=ACTIVE"), intendedStart);
+    }
+
+    private void enroll(String operation, String courseId, String studentId, long intendedStart) {
+        String body = "{\"courseId\":\"" + courseId + "\",\"studentId\":\"" + studentId + "\"}";
+        HttpResponse<String> response = execute(operation, post(options.enrollmentUrl + "/api/enrollments", body), intendedStart);
+        if (response != null && response.statusCode() == 201) {
+            String enrollmentId = extractId(response.body());
+            if (enrollmentId != null) {
+                activeEnrollments.add(enrollmentId);
+            }
+        }
+    }
+
+    private void drop(String studentId, long intendedStart) {
+        String enrollmentId = activeEnrollments.poll();
+        if (enrollmentId == null) {
+            // 尚无可退的选课记录（压测刚开始），改为课表查询
+            execute("timetable-student",
+                    get(options.enrollmentUrl + "/api/enrollments/student/" + studentId + "/status?status=ACTIVE"), intendedStart);
+            return;
+        }
+        execute("drop", HttpRequest.newBuilder(URI.create(options.enrollmentUrl + "/api/enrollments/" + enrollmentId))
+                .timeout(Duration.ofMillis(options.requestTimeoutMillis))
+                .DELETE()
+                .build(), intendedStart);
+    }
+
+    // 执行请求并记录：2xx 成功；400/409 为业务拒绝（课程已满、重复选课等）；其余状态码与异常计为错误
+    private HttpResponse<String> execute(String operation, HttpRequest request, long intendedStart) {
+        HttpResponse<String> response = sendQuietly(request);
+        long latencyMicros = (System.nanoTime() - intendedStart) / 1000;
+        LatencyRecorder.Outcome outcome;
+        if (response == null) {
+            outcome = LatencyRecorder.Outcome.ERROR;
+        } else if (response.statusCode() / 100 == 2) {
+            outcome = LatencyRecorder.Outcome.OK;
+        } else if (response.statusCode() == 400 || response.statusCode() == 409) {
+            outcome = LatencyRecorder.Outcome.REJECTED;
+        } else {
+            outcome = LatencyRecorder.Outcome.ERROR;
+        }
+        recorder.record(operation, latencyMicros, outcome);
+        return response;
+    }
+
+    private HttpResponse<String> sendQuietly(HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(options.requestTimeoutMillis))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(options.requestTimeoutMillis))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String extractId(String body) {
+        Matcher matcher = DATA_ID.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String clock(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+}
@@ -0,0 +1,152 @@
+package com.cyd.loadtest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// 压测报告：每种操作一行（请求数、成功/拒绝/错误、错误率、吞吐量、延迟分位数），写入 CSV 并打印表格
+// CSV 以 # 开头的行为元数据，可用 --compare=base.csv,candidate.csv 对比两次构建
+public final class LoadReport {
+    private static final String HEADER =
+            "operation,requests,ok,rejected,errors,error_rate,throughput_rps,p50_ms,p90_ms,p99_ms,p999_ms,max_ms";
+    // 对比时关注的指标列
+    private static final String[] COMPARED = {"throughput_rps", "error_rate", "p50_ms", "p99_ms", "p999_ms"};
+
+    private LoadReport() {
+    }
+
+    public static void write(LoadTestOptions options, LatencyRecorder recorder, long elapsedNanos) throws IOException {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        List<String> lines = new ArrayList<>();
+        lines.add("# label=" + options.label);
+        lines.add("# finished=" + LocalDateTime.now());
+        lines.add("# target=" + (options.catalogUrl == null ? "catalog-stub(latency=" + options.stubLatencyMillis
+                + "ms,jitter=" + options.stubJitterMillis + "ms,errors=" + options.stubErrorRate + ")" : options.catalogUrl)
+                + " enrollment=" + options.enrollmentUrl);
+        lines.add(String.format(Locale.ROOT, "# profile=burst %ds@%drps, steady %drps, total %ds, concurrency %d, seed %d",
+                options.burstSeconds, options.peakRps, options.steadyRps, options.durationSeconds,
+                options.concurrency, options.seed));
+        lines.add(HEADER);
+
+        long totalRequests = 0;
+        long totalOk = 0;
+        long totalRejected = 0;
+        long totalErrors = 0;
+        List<long[]> allSamples = new ArrayList<>();
+        for (Map.Entry<String, LatencyRecorder.OperationStats> entry : recorder.snapshot().entrySet()) {
+            LatencyRecorder.OperationStats stats = entry.getValue();
+            long[] sorted = stats.sortedSamples();
+            allSamples.add(sorted);
+            totalRequests += stats.total();
+            totalOk += stats.ok();
+            totalRejected += stats.rejected();
+            totalErrors += stats.errors();
+            lines.add(row(entry.getKey(), stats.total(), stats.ok(), stats.rejected(), stats.errors(), seconds, sorted));
+        }
+        lines.add(row("ALL", totalRequests, totalOk, totalRejected, totalErrors, seconds, merge(allSamples)));
+
+        Path path = Path.of(options.report);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+        print(lines);
+        System.out.println("Report written to " + path.toAbsolutePath());
+    }
+
+    // 对比两份报告：逐操作打印关键指标及变化百分比
+    public static void compare(String spec) throws IOException {
+        String[] files = spec.split(",");
+        if (files.length != 2) {
+            throw new IllegalArgumentException("--compare expects base.csv,candidate.csv");
+        }
+        Map<String, Map<String, String>> base = read(Path.of(files[0]));
+        Map<String, Map<String, String>> candidate = read(Path.of(files[1]));
+        System.out.printf("%-22s %-15s %14s %14s %9s%n", "operation", "metric", "base", "candidate", "change");
+        for (String operation : base.keySet()) {
+            Map<String, String> after = candidate.get(operation);
+            if (after == null) {
+                continue;
+            }
+            for (String metric : COMPARED) {
+                double before = Double.parseDouble(base.get(operation).get(metric));
+                double now = Double.parseDouble(after.get(metric));
+                String change = before == 0 ? "n/a" : String.format(Locale.ROOT, "%+.1f%%", (now - before) / before * 100);
+                System.out.printf(Locale.ROOT, "%-22s %-15s %14.3f %14.3f %9s%n", operation, metric, before, now, change);
+            }
+        }
+    }
+
+    private static Map<String, Map<String, String>> read(Path path) throws IOException {
+        Map<String, Map<String, String>> rows = new LinkedHashMap<>();
+        String[] columns = null;
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] cells = line.split(",");
+            if (columns == null) {
+                columns = cells;
+                continue;
+            }
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < columns.length && i < cells.length; i++) {
+                row.put(columns[i], cells[i]);
+            }
+            rows.put(cells[0], row);
+        }
+        return rows;
+    }
+
+    private static String row(String operation, long total, long ok, long rejected, long errors,
+                              double seconds, long[] sorted) {
+        return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.4f,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f",
+                operation, total, ok, rejected, errors,
+                total == 0 ? 0.0 : (double) errors / total,
+                total / seconds,
+                millis(LatencyRecorder.OperationStats.percentile(sorted, 50)),
+                millis(LatencyRecorder.OperationStats.percentile(sorted, 90)),
+                millis(LatencyRecorder.OperationStats.percentile(sorted, 99)),
+                millis(LatencyRecorder.OperationStats.percentile(sorted, 99.9)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    private static long[] merge(List<long[]> sortedArrays) {
+        int size = sortedArrays.stream().mapToInt(a -> a.length).sum();
+        long[] merged = new long[size];
+        int offset = 0;
+        for (long[] array : sortedArrays) {
+            System.arraycopy(array, 0, merged, offset, array.length);
+            offset += array.length;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static void print(List<String> lines) {
+        for (String line : lines) {
+            if (line.startsWith("#")) {
+                System.out.println(line);
+                continue;
+            }
+            String[] cells = line.split(",");
+            StringBuilder out = new StringBuilder(String.format("%-22s", cells[0]));
+            for (int i = 1; i < cells.length; i++) {
+                out.append(String.format("%16s", cells[i]));
+            }
+            System.out.println(out);
+        }
+    }
+}
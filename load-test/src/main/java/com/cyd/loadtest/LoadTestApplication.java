@@ -0,0 +1,36 @@
+package com.cyd.loadtest;
+
+// 压测入口
+// 1. 替身模式（默认）：启动内置 catalog 替身，只压 enrollment-service（需以 --catalog-service.url=http://localhost:<stub-port> 启动）
+//    java -jar load-test.jar --enrollment-url=http://localhost:8082 --stub-port=18081 --stub-latency-ms=20
+// 2. 全链路模式：指定 --catalog-url，同时压 catalog-service 与 enrollment-service
+//    java -jar load-test.jar --catalog-url=http://localhost:8081 --enrollment-url=http://localhost:8082
+// 3. 对比两次构建的报告：java -jar load-test.jar --compare=reports/base.csv,reports/candidate.csv
+public class LoadTestApplication {
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (options.compare != null) {
+            LoadReport.compare(options.compare);
+            return;
+        }
+
+        CatalogStub stub = null;
+        if (options.catalogUrl == null) {
+            stub = new CatalogStub(options.stubLatencyMillis, options.stubJitterMillis, options.stubErrorRate);
+            stub.start(options.stubPort);
+            System.out.println("Catalog stub listening on port " + options.stubPort);
+        }
+
+        try {
+            LoadDriver driver = new LoadDriver(options, stub);
+            driver.seed();
+            long elapsedNanos = driver.run();
+            LoadReport.write(options, driver.recorder(), elapsedNanos);
+        } finally {
+            if (stub != null) {
+                stub.stop();
+            }
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,107 @@
+package com.cyd.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// 压测参数：命令行 --key=value 形式，未指定时使用默认值
+public class LoadTestOptions {
+    // 被测服务地址（catalogUrl 为空时启动内置 catalog 替身）
+    String enrollmentUrl = "http://localhost:8082";
+    String catalogUrl;
+
+    // 内置 catalog 替身：端口、注入延迟（基础 + 随机抖动）、注入错误率
+    int stubPort = 18081;
+    long stubLatencyMillis = 5;
+    long stubJitterMillis = 10;
+    double stubErrorRate = 0.0;
+
+    // 数据规模：学生数、课程数、热门课程数及容量
+    int students = 2000;
+    int courses = 200;
+    int hotCourses = 5;
+    int hotCapacity = 150;
+    int normalCapacity = 60;
+
+    // 流量模型：开放选课瞬间的突发阶段 + 之后的平稳阶段（开环按目标 RPS 发压）
+    int burstSeconds = 20;
+    int peakRps = 400;
+    int durationSeconds = 120;
+    int steadyRps = 100;
+    int concurrency = 64;
+
+    // 操作占比（其余为课表查询）与热门课程命中率
+    double enrollRatio = 0.55;
+    double dropRatio = 0.10;
+    double hotRatio = 0.70;
+
+    long requestTimeoutMillis = 5000;
+    long seed = 42;
+
+    // 报告：构建标识与输出文件（CSV，便于不同构建之间对比）
+    String label = "local";
+    String report = "load-test/reports/report.csv";
+
+    // 对比模式：--compare=base.csv,candidate.csv
+    String compare;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        LoadTestOptions o = new LoadTestOptions();
+        o.enrollmentUrl = values.getOrDefault("enrollment-url", o.enrollmentUrl);
+        o.catalogUrl = values.get("catalog-url");
+        o.stubPort = intValue(values, "stub-port", o.stubPort);
+        o.stubLatencyMillis = intValue(values, "stub-latency-ms", (int) o.stubLatencyMillis);
+        o.stubJitterMillis = intValue(values, "stub-jitter-ms", (int) o.stubJitterMillis);
+        o.stubErrorRate = doubleValue(values, "stub-error-rate", o.stubErrorRate);
+        o.students = intValue(values, "students", o.students);
+        o.courses = intValue(values, "courses", o.courses);
+        o.hotCourses = intValue(values, "hot-courses", o.hotCourses);
+        o.hotCapacity = intValue(values, "hot-capacity", o.hotCapacity);
+        o.normalCapacity = intValue(values, "normal-capacity", o.normalCapacity);
+        o.burstSeconds = intValue(values, "burst-seconds", o.burstSeconds);
+        o.peakRps = intValue(values, "peak-rps", o.peakRps);
+        o.durationSeconds = intValue(values, "duration-seconds", o.durationSeconds);
+        o.steadyRps = intValue(values, "steady-rps", o.steadyRps);
+        o.concurrency = intValue(values, "concurrency", o.concurrency);
+        o.enrollRatio = doubleValue(values, "enroll-ratio", o.enrollRatio);
+        o.dropRatio = doubleValue(values, "drop-ratio", o.dropRatio);
+        o.hotRatio = doubleValue(values, "hot-ratio", o.hotRatio);
+        o.requestTimeoutMillis = intValue(values, "timeout-ms", (int) o.requestTimeoutMillis);
+        o.seed = Long.parseLong(values.getOrDefault("seed", String.valueOf(o.seed)));
+        o.label = values.getOrDefault("label", o.label);
+        o.report = values.getOrDefault("report", o.report);
+        o.compare = values.get("compare");
+
+        if (o.hotCourses > o.courses) {
+            throw new IllegalArgumentException("hot-courses must not exceed courses");
+        }
+        if (o.burstSeconds > o.durationSeconds) {
+            throw new IllegalArgumentException("burst-seconds must not exceed duration-seconds");
+        }
+        if (o.enrollRatio + o.dropRatio > 1.0) {
+            throw new IllegalArgumentException("enroll-ratio + drop-ratio must not exceed 1");
+        }
+        return o;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static double doubleValue(Map<String, String> values, String key, double defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
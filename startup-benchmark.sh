@@ -0,0 +1,127 @@
+#!/usr/bin/env bash
+# 启动耗时与内存基准：分别以 普通 JVM / AOT + CDS / GraalVM 原生镜像 启动服务，记录就绪耗时与常驻内存（RSS）
+#
+# 用法：
+#   ./startup-benchmark.sh                 # 两个服务、全部可用模式，各启动 5 次
+#   ./startup-benchmark.sh catalog 10      # 只测 catalog-service，启动 10 次
+#
+# 环境变量：MODES（默认 "jvm cds native"，原生镜像不存在时跳过），SKIP_BUILD=1（跳过打包），LABEL（报告标识，默认当前提交）
+# 前置：原生模式需先执行 (cd <service> && ./mvnw -Pnative -DskipTests native:compile)
+# 服务以 prod,h2 profile 启动（与镜像相同的装配，数据库换成内存库），就绪以探测接口首次返回 200 为准
+# enrollment-service 关闭课程缓存预热（基准不启动 catalog-service，只测进程本身的启动耗时）
+set -euo pipefail
+
+TARGET="${1:-all}"
+RUNS="${2:-5}"
+ROOT="$(cd "$(dirname "$0")" && pwd)"
+MODES="${MODES:-jvm cds native}"
+LABEL="${LABEL:-$(git -C "$ROOT" rev-parse --short HEAD 2>/dev/null || echo local)}"
+REPORT_DIR="$ROOT/startup-reports"
+REPORT="$REPORT_DIR/startup-$LABEL.csv"
+PROFILES="--spring.profiles.active=prod,h2"
+
+case "$TARGET" in
+  all) SERVICES=(catalog enrollment) ;;
+  catalog|enrollment) SERVICES=("$TARGET") ;;
+  *) echo "Unknown service: $TARGET (expected catalog, enrollment or all)" >&2; exit 1 ;;
+esac
+
+mkdir -p "$REPORT_DIR/logs"
+echo "service,mode,run,ready_ms,spring_started_s,rss_mb" > "$REPORT"
+
+PID=""
+cleanup() {
+  [[ -n "$PID" ]] && kill "$PID" 2>/dev/null || true
+}
+trap cleanup EXIT
+
+port_of() { [[ "$1" == "catalog" ]] && echo 8081 || echo 8082; }
+
+# 探测接口：catalog 用健康检查，enrollment 用一次按学号查询（走完整的 Web + JPA 链路）
+probe_url() {
+  if [[ "$1" == "catalog" ]]; then
+    echo "http://localhost:8081/actuator/health"
+  else
+    echo "http://localhost:8082/api/students/studentId/startup-probe"
+  fi
+}
+
+extra_args() { [[ "$1" == "enrollment" ]] && echo "--enrollment.warmup.enabled=false" || true; }
+
+now_ms() { date +%s%3N; }
+
+# 1. 打包（process-aot 随 package 执行）
+if [[ "${SKIP_BUILD:-0}" != "1" ]]; then
+  for service in "${SERVICES[@]}"; do
+    (cd "$ROOT/$service-service" && ./mvnw -q -B -DskipTests package)
+  done
+fi
+
+# 2. CDS 模式：解压 JAR 并做一次训练运行生成归档（与 Dockerfile 步骤相同）
+prepare_cds() {
+  local service="$1"
+  local dir="$ROOT/$service-service/target/cds"
+  rm -rf "$dir"
+  java -Djarmode=tools -jar "$ROOT/$service-service/target/$service-service-0.0.1-SNAPSHOT.jar" extract --destination "$dir" >/dev/null
+  (cd "$dir" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+      -jar app.jar $PROFILES > "$REPORT_DIR/logs/$service-cds-training.log" 2>&1)
+}
+
+start_service() {
+  local service="$1" mode="$2" log="$3"
+  local module="$ROOT/$service-service"
+  case "$mode" in
+    jvm)
+      java -jar "$module/target/$service-service-0.0.1-SNAPSHOT.jar" $PROFILES $(extra_args "$service") > "$log" 2>&1 &
+      ;;
+    cds)
+      (cd "$module/target/cds" && exec java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar app.jar $PROFILES $(extra_args "$service")) > "$log" 2>&1 &
+      ;;
+    native)
+      "$module/target/$service-service" $PROFILES $(extra_args "$service") > "$log" 2>&1 &
+      ;;
+  esac
+  PID=$!
+}
+
+# 3. 逐个模式启动 RUNS 次：记录从进程启动到探测接口返回 200 的耗时、Spring 自报的启动耗时与就绪时的 RSS
+for service in "${SERVICES[@]}"; do
+  for mode in $MODES; do
+    if [[ "$mode" == "native" && ! -x "$ROOT/$service-service/target/$service-service" ]]; then
+      echo "Skipping $service/native: run ./mvnw -Pnative -DskipTests native:compile first"
+      continue
+    fi
+    [[ "$mode" == "cds" ]] && prepare_cds "$service"
+    for run in $(seq 1 "$RUNS"); do
+      log="$REPORT_DIR/logs/$service-$mode-$run.log"
+      start=$(now_ms)
+      start_service "$service" "$mode" "$log"
+      until curl -sf -o /dev/null "$(probe_url "$service")"; do
+        if ! kill -0 "$PID" 2>/dev/null; then
+          echo "$service ($mode) exited during startup, see $log" >&2
+          exit 1
+        fi
+        sleep 0.01
+      done
+      ready=$(( $(now_ms) - start ))
+      rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$PID/status")
+      started=$(grep -oE 'Started [A-Za-z]+ in [0-9.]+ seconds' "$log" | grep -oE '[0-9.]+' | head -1 || true)
+      echo "$service,$mode,$run,$ready,${started:-},$(( rss_kb / 1024 ))" >> "$REPORT"
+      kill "$PID"
+      wait "$PID" 2>/dev/null || true
+      PID=""
+      # 等待端口释放
+      while curl -s -o /dev/null "http://localhost:$(port_of "$service")"; do sleep 0.05; done
+    done
+  done
+done
+
+# 4. 汇总：每个服务/模式的就绪耗时与 RSS 中位数
+echo
+printf "%-12s %-8s %14s %14s\n" service mode ready_ms_p50 rss_mb_p50
+tail -n +2 "$REPORT" | cut -d, -f1,2 | sort -u | while IFS=, read -r service mode; do
+  ready=$(awk -F, -v s="$service" -v m="$mode" '$1==s && $2==m {print $4}' "$REPORT" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')
+  rss=$(awk -F, -v s="$service" -v m="$mode" '$1==s && $2==m {print $6}' "$REPORT" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')
+  printf "%-12s %-8s %14s %14s\n" "$service" "$mode" "$ready" "$rss"
+done
+echo "Report written to $REPORT"
@@ -0,0 +1,88 @@
+#!/usr/bin/env bash
+# 本地压测：以 h2 profile（内存数据库）启动服务，运行 load-test，报告写入 load-test/reports/
+#
+# 用法：
+#   ./test-services.sh            # 替身模式：只启动 enrollment-service，catalog-service 由压测工具内置替身代替
+#   ./test-services.sh full       # 全链路模式：启动 catalog-service + enrollment-service
+#   ./test-services.sh stub --stub-latency-ms=50 --peak-rps=800   # 其余参数透传给压测工具
+#
+# 环境变量：LABEL（报告标识，默认当前提交），SKIP_BUILD=1（跳过打包），MYSQL=1（使用 application.yml 中的 MySQL 而非 H2），RATE_LIMIT=1（保留 enrollment-service 接口限流）
+# 对比两次构建：java -jar load-test/target/load-test-0.0.1-SNAPSHOT.jar --compare=load-test/reports/a.csv,load-test/reports/b.csv
+set -euo pipefail
+
+MODE="${1:-stub}"
+[[ $# -gt 0 ]] && shift
+ROOT="$(cd "$(dirname "$0")" && pwd)"
+LABEL="${LABEL:-$(git -C "$ROOT" rev-parse --short HEAD 2>/dev/null || echo local)}"
+STUB_PORT="${STUB_PORT:-18081}"
+REPORT_DIR="$ROOT/load-test/reports"
+PROFILE_ARGS="--spring.profiles.active=h2"
+[[ "${MYSQL:-0}" == "1" ]] && PROFILE_ARGS=""
+
+case "$MODE" in
+  stub|full) ;;
+  *) echo "Unknown mode: $MODE (expected stub or full)" >&2; exit 1 ;;
+esac
+
+mkdir -p "$REPORT_DIR/logs"
+PIDS=()
+cleanup() {
+  for pid in "${PIDS[@]:-}"; do
+    [[ -n "$pid" ]] && kill "$pid" 2>/dev/null || true
+  done
+}
+trap cleanup EXIT
+
+# 1. 打包
+if [[ "${SKIP_BUILD:-0}" != "1" ]]; then
+  (cd "$ROOT/load-test" && mvn -q -B package)
+  (cd "$ROOT/enrollment-service" && ./mvnw -q -B -DskipTests package)
+  if [[ "$MODE" == "full" ]]; then
+    (cd "$ROOT/catalog-service" && ./mvnw -q -B -DskipTests package)
+  fi
+fi
+
+# 2. 启动服务并等待就绪
+wait_for() {
+  local url="$1" name="$2"
+  for _ in $(seq 1 120); do
+    if curl -fs -o /dev/null "$url"; then
+      echo "$name is up"
+      return 0
+    fi
+    sleep 1
+  done
+  echo "$name did not start, see $REPORT_DIR/logs/$name.log" >&2
+  exit 1
+}
+
+if [[ "$MODE" == "full" ]]; then
+  CATALOG_URL="http://localhost:8081"
+  java -jar "$ROOT/catalog-service/target/catalog-service-0.0.1-SNAPSHOT.jar" $PROFILE_ARGS \
+    > "$REPORT_DIR/logs/catalog-service.log" 2>&1 &
+  PIDS+=($!)
+  wait_for "$CATALOG_URL/actuator/health" catalog-service
+else
+  # 替身由压测工具在 STUB_PORT 启动，enrollment-service 直接指向它
+  CATALOG_URL="http://localhost:$STUB_PORT"
+fi
+
+# 替身模式下替身在 enrollment-service 就绪后才启动，跳过课程缓存预热（压测数据也是启动后才写入）
+ENROLLMENT_ARGS=""
+[[ "$MODE" == "stub" ]] && ENROLLMENT_ARGS="--enrollment.warmup.enabled=false"
+# 压测流量全部来自本机同一IP，默认关闭接口限流；RATE_LIMIT=1 时保留限流（观察 429 比例）
+[[ "${RATE_LIMIT:-0}" != "1" ]] && ENROLLMENT_ARGS="$ENROLLMENT_ARGS --enrollment.rate-limit.enabled=false"
+java -jar "$ROOT/enrollment-service/target/enrollment-service-0.0.1-SNAPSHOT.jar" $PROFILE_ARGS $ENROLLMENT_ARGS \
+  --catalog-service.url="$CATALOG_URL" \
+  > "$REPORT_DIR/logs/enrollment-service.log" 2>&1 &
+PIDS+=($!)
+wait_for "http://localhost:8082/actuator/health/readiness" enrollment-service
+
+# 3. 发压并生成报告
+LOAD_ARGS=(--enrollment-url=http://localhost:8082 --label="$LABEL" --report="$REPORT_DIR/$MODE-$LABEL.csv")
+if [[ "$MODE" == "full" ]]; then
+  LOAD_ARGS+=(--catalog-url="$CATALOG_URL")
+else
+  LOAD_ARGS+=(--stub-port="$STUB_PORT")
+fi
+java -jar "$ROOT/load-test/target/load-test-0.0.1-SNAPSHOT.jar" "${LOAD_ARGS[@]}" "$@"